@@ -47,7 +47,10 @@
  */
 package org.isatools.tablib.export.graph2tab;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -62,6 +65,9 @@ import java.util.Map;
  * <p>For an example of what we're talking about here, see the implementation in
  * org.isatools.isatab.export.isatab.pipeline.wrapper_nodes.</p>
  * 
+ * <p>This factory serialises all the calls to {@link #getNode(Object)}, see {@link ConcurrentNodeFactory} for 
+ * a version that is better suited to wrap your model from multiple threads.</p>
+ * 
  * <dl><dt>date</dt><dd>May 10, 2010</dd></dl>
  *
  * @author brandizi
@@ -69,7 +75,19 @@ import java.util.Map;
  * @param <B> the base element that the nodes created here wrap.
  */
 public abstract class AbstractNodeFactory<N extends Node, B> {
-    private Map<B, Node> bases2Nodes = new HashMap<B, Node>();
+    private final Map<B, Node> bases2Nodes;
+
+    protected AbstractNodeFactory() {
+        this(true);
+    }
+
+    /**
+     * Subclasses that keep their own map of nodes, overriding {@link #getNode(Object)}, can pass false here, so that 
+     * the map used by the default implementation isn't allocated. If so, that implementation mustn't be invoked.
+     */
+    protected AbstractNodeFactory(boolean isNodeMapNeeded) {
+        bases2Nodes = isNodeMapNeeded ? new HashMap<B, Node>() : null;
+    }
 
     /**
      * This is to be used during the initial creation of nodes to be passed to {@link TableBuilder}. The method
@@ -87,6 +105,18 @@ public abstract class AbstractNodeFactory<N extends Node, B> {
         return (N) n;
     }
 
+    /**
+     * Wraps a batch of base elements, returning their nodes in the same order. This default implementation simply 
+     * calls {@link #getNode(Object)} for each base.
+     */
+    public List<N> getNodes(Collection<B> bases) {
+        List<N> result = new ArrayList<N>(bases.size());
+        for (B base : bases) {
+            result.add(getNode(base));
+        }
+        return result;
+    }
+
     /**
      * Your specific creation method goes here
      */
@@ -0,0 +1,382 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>A version of {@link AbstractNodeFactory} that keeps a bounded number of nodes, which is useful when the same 
+ * factory is reused over a long time, e.g., by a server exporting one study per request.</p>
+ * 
+ * <p>Nodes are cached up to {@link #getMaxSize()} and the least recently used ones are evicted when this limit is 
+ * exceeded. Since the same base must yield the same node for the whole duration of an export, you should wrap every
+ * export in a {@link #openScope() scope}: the nodes used while a scope is open are never evicted until the scope is
+ * closed, even if that means the cache temporarily grows beyond the max size. For instance:</p>
+ * 
+ * <pre>
+ *   try ( BoundedNodeFactory&lt;MyNode, MyBase&gt;.Scope scope = factory.openScope () ) {
+ *     Set&lt;Node&gt; nodes = ... factory.getNode ( base ) ...
+ *     new TableBuilder ( nodes ).reportTSV ();
+ *   }
+ * </pre>
+ * 
+ * <p>Node wrappers usually cache their inputs and outputs, which they get from this factory (see 
+ * {@link DefaultAbstractNode#getInputs()}), so evicting a node while a node linked to it is kept would leave the 
+ * latter pointing to a node that is no longer the one returned for its base. To prevent that, a node is never 
+ * evicted alone: when a scope is closed, the nodes it used are grouped together with their inputs and outputs 
+ * (as they're returned by {@link Node#getInputs()} and {@link Node#getOutputs()} at that point, which might create 
+ * the neighbours of nodes that were used without following their links), and a node is evicted together with all 
+ * the nodes in its group, i.e., the nodes it's linked to, directly or indirectly. The least recently used group 
+ * (i.e., the one whose most recently used node is the oldest) goes first, and a group isn't evicted as long as any 
+ * of its nodes is used by an open scope. This means that the cache might go well below the max size after an 
+ * eviction, or temporarily beyond it, when the unused groups aren't enough, so the max size should be larger than 
+ * the graphs you typically export. The links of nodes used outside of any scope aren't tracked, which 
+ * is another reason to always use scopes.</p>
+ * 
+ * <p>Like {@link AbstractNodeFactory}, this class serialises the calls to its methods.</p>
+ * 
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ * @param <N> the type of specific node that the factory provides.
+ * @param <B> the base element that the nodes created here wrap.
+ */
+public abstract class BoundedNodeFactory<N extends Node, B> extends AbstractNodeFactory<N, B>
+{
+	/**
+	 * A cached node, together with the number of open scopes that are using it. 
+	 */
+	private static class Entry
+	{
+		final Object base;
+		final Node node;
+		int pins = 0;
+		long lastAccess;
+		Group group = new Group ( this );
+		
+		Entry ( Object base, Node node ) 
+		{
+			this.base = base;
+			this.node = node;
+		}
+	}
+	
+	/**
+	 * A group of linked nodes, which are evicted together, and the no. of them that are used by open scopes.
+	 */
+	private static class Group
+	{
+		final List<Entry> members = new ArrayList<Entry> ( 1 );
+		int npinned = 0;
+		
+		Group ( Entry entry ) {
+			members.add ( entry );
+		}
+	}
+	
+	/**
+	 * The lifetime of a group of nodes (typically those used for one export), see {@link BoundedNodeFactory above}. 
+	 */
+	public class Scope implements AutoCloseable
+	{
+		private final Set<B> bases = new HashSet<B> ();
+		
+		private Scope () {
+		}
+		
+		/**
+		 * Makes the nodes used in this scope available for eviction again (unless they're used by other open scopes). 
+		 * Closing a scope twice has no effect.
+		 */
+		@Override
+		public void close ()
+		{
+			synchronized ( BoundedNodeFactory.this )
+			{
+				if ( !openScopes.remove ( this ) ) return;
+				
+				List<SimpleEntry<B, Entry>> released = new ArrayList<SimpleEntry<B, Entry>> ();
+				for ( B base: bases )
+				{
+					Entry entry = pinnedNodes.get ( base );
+					if ( --entry.pins != 0 ) continue;
+					released.add ( new SimpleEntry<B, Entry> ( base, pinnedNodes.remove ( base ) ) );
+					entry.group.npinned--;
+				}
+				bases.clear ();
+				
+				// Back to the LRU list, keeping the order in which they were used
+				Collections.sort ( released, new Comparator<SimpleEntry<B, Entry>> () 
+				{
+					@Override
+					public int compare ( SimpleEntry<B, Entry> e1, SimpleEntry<B, Entry> e2 ) {
+						return Long.compare ( e1.getValue ().lastAccess, e2.getValue ().lastAccess );
+					}
+				});
+				for ( SimpleEntry<B, Entry> entry: released )
+					cachedNodes.put ( entry.getKey (), entry.getValue () );
+				
+				// The linked nodes are evicted together, see above. Getting the links might need new nodes, which mustn't 
+				// trigger evictions in the meantime
+				isLinking = true;
+				try {
+					for ( SimpleEntry<B, Entry> entry: released )
+						link ( entry.getValue () );
+				}
+				finally {
+					isLinking = false;
+				}
+				
+				// The groups that are no longer in use go to the end of the eviction queue, in the order they were used 
+				for ( SimpleEntry<B, Entry> entry: released )
+					touch ( entry.getValue ().group );
+				
+				evict ();
+			}
+		}
+	}
+	
+	private final int maxSize;
+	
+	/**
+	 * Nodes that are not used by any open scope.
+	 */
+	private final Map<B, Entry> cachedNodes = new HashMap<B, Entry> ();
+	
+	/**
+	 * Nodes used by some open scope.
+	 */
+	private final Map<B, Entry> pinnedNodes = new HashMap<B, Entry> ();
+	
+	private final List<Scope> openScopes = new ArrayList<Scope> ();
+	
+	/**
+	 * The groups that have no node used by open scopes, in access order, that is, eviction order. The groups in use 
+	 * are not here, so that the eviction doesn't need to look for the groups it can evict.
+	 */
+	private final Set<Group> evictableGroups = new LinkedHashSet<Group> ();
+	
+	/**
+	 * All the kept nodes, used to find the entries of the linked nodes.
+	 */
+	private final Map<Node, Entry> nodeEntries = new IdentityHashMap<Node, Entry> ();
+	
+	/**
+	 * True while the node links are being collected, see {@link Scope#close()}.
+	 */
+	private boolean isLinking = false;
+	
+	private long hitCount = 0, missCount = 0, evictionCount = 0;
+	
+	/**
+	 * Used for {@link Entry#lastAccess}.
+	 */
+	private long accessClock = 0;
+
+	/**
+	 * @param maxSize the max number of nodes kept when they're not used by any {@link #openScope() scope}.
+	 */
+	protected BoundedNodeFactory ( int maxSize )
+	{
+		super ( false );
+		if ( maxSize < 0 ) throw new IllegalArgumentException ( "Node factory max size cannot be negative" );
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * Returns the cached node for this base, or creates a new one. The node is pinned to all the scopes that are 
+	 * open at the moment.
+	 */
+	@Override
+	@SuppressWarnings ( "unchecked" )
+	public synchronized N getNode ( B base )
+	{
+		Entry entry = pinnedNodes.get ( base );
+		if ( entry == null ) entry = cachedNodes.get ( base );
+		
+		if ( entry == null )
+		{
+			missCount++;
+			entry = new Entry ( base, createNewNode ( base ) );
+			cachedNodes.put ( base, entry );
+			nodeEntries.put ( entry.node, entry );
+		}
+		else
+			hitCount++;
+		entry.lastAccess = accessClock++;
+		
+		for ( Scope scope: openScopes )
+			if ( scope.bases.add ( base ) && entry.pins++ == 0 ) 
+			{
+				pinnedNodes.put ( base, cachedNodes.remove ( base ) );
+				entry.group.npinned++;
+			}
+		touch ( entry.group );
+		
+		evict ();
+		return (N) entry.node;
+	}
+	
+	/**
+	 * Starts a new scope, see {@link BoundedNodeFactory above}. 
+	 */
+	public synchronized Scope openScope ()
+	{
+		Scope scope = new Scope ();
+		openScopes.add ( scope );
+		return scope;
+	}
+
+	/**
+	 * Merges the group of the entry with the groups of the nodes it's linked to.
+	 */
+	private void link ( Entry entry )
+	{
+		for ( Node linked: entry.node.getInputs () ) link ( entry, linked );
+		for ( Node linked: entry.node.getOutputs () ) link ( entry, linked );
+	}
+
+	/**
+	 * Merges the group of the entry with the one of the linked node. The smaller group is merged into the bigger one.
+	 */
+	private void link ( Entry entry, Node linked )
+	{
+		Entry linkedEntry = nodeEntries.get ( linked );
+		if ( linkedEntry == null ) return;
+		
+		Group big = entry.group, small = linkedEntry.group;
+		if ( big == small ) return;
+		if ( big.members.size () < small.members.size () ) {
+			big = small; small = entry.group;
+		}
+		for ( Entry member: small.members ) member.group = big;
+		big.members.addAll ( small.members );
+		big.npinned += small.npinned;
+		
+		evictableGroups.remove ( small );
+		if ( big.npinned > 0 ) evictableGroups.remove ( big );
+	}
+	
+	/**
+	 * Moves the group at the end of the {@link #evictableGroups eviction queue} if it's not in use, removes it from 
+	 * the queue otherwise.
+	 */
+	private void touch ( Group group )
+	{
+		evictableGroups.remove ( group );
+		if ( group.npinned == 0 ) evictableGroups.add ( group );
+	}
+	
+	/**
+	 * Removes the least recently used groups that aren't used by a scope, until the factory fits 
+	 * {@link #getMaxSize()}, see {@link BoundedNodeFactory above}. 
+	 */
+	private void evict ()
+	{
+		if ( isLinking ) return;
+		
+		while ( cachedNodes.size () + pinnedNodes.size () > maxSize && !evictableGroups.isEmpty () )
+		{
+			Iterator<Group> itr = evictableGroups.iterator ();
+			Group evicted = itr.next ();
+			itr.remove ();
+			
+			for ( Entry member: evicted.members )
+			{
+				cachedNodes.remove ( member.base );
+				nodeEntries.remove ( member.node );
+				evictionCount++;
+			}
+		}
+	}
+	
+	/**
+	 * The max number of nodes this factory keeps, when no scope is open.
+	 */
+	public int getMaxSize () {
+		return maxSize;
+	}
+
+	/**
+	 * The number of nodes currently kept, including those pinned by open scopes.
+	 */
+	public synchronized int getSize () {
+		return cachedNodes.size () + pinnedNodes.size ();
+	}
+
+	/**
+	 * The number of times {@link #getNode(Object)} found the node already in this factory.
+	 */
+	public synchronized long getHitCount () {
+		return hitCount;
+	}
+
+	/**
+	 * The number of times {@link #getNode(Object)} had to create a new node.
+	 */
+	public synchronized long getMissCount () {
+		return missCount;
+	}
+
+	/**
+	 * The number of nodes removed so far to keep this factory within {@link #getMaxSize()}.
+	 */
+	public synchronized long getEvictionCount () {
+		return evictionCount;
+	}
+}
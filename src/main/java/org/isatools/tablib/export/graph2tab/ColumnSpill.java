@@ -0,0 +1,330 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>The temporary files where {@link TableContents} moves the completed rows of its columns, when it 
+ * {@link TableContents#getSpillHeapThreshold() spills to disk}. Every {@link StringColumn} writes blocks of its rows 
+ * here (see {@link #write(StringColumn, int, int)}), which are then read back by memory-mapping the files.</p>
+ * 
+ * <p>A block uses the same layout that {@link StringColumn} uses in memory: a bitmap of the non-null cells, the 
+ * ranks of the bitmap words and the UTF-8 bytes of the non-null values, followed by their end positions, so that a 
+ * cell is read in constant time.</p>
+ * 
+ * <p>The files are deleted as soon as they're created, where the OS allows for it, and anyway when this object is 
+ * {@link #close() closed} (see {@link TableContents#close()}) or when the JVM exits.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+class ColumnSpill
+{
+	/**
+	 * A new file is started after this size, so that every file can be mapped in one go. 
+	 */
+	static final int MAX_FILE_SIZE = 1 << 30;
+	
+	private static final Charset UTF8 = Charset.forName ( "UTF-8" );
+	
+	/**
+	 * A block of rows of a column, written in one of the spill files.
+	 */
+	class Block
+	{
+		final int fromRow, nrows;
+		private final int fileIndex, bitsPos, ranksPos, dataPos, endsPos, blockEnd;
+		
+		private Block ( 
+			int fromRow, int nrows, int fileIndex, int bitsPos, int ranksPos, int dataPos, int endsPos, int blockEnd 
+		)
+		{
+			this.fromRow = fromRow;
+			this.nrows = nrows;
+			this.fileIndex = fileIndex;
+			this.bitsPos = bitsPos;
+			this.ranksPos = ranksPos;
+			this.dataPos = dataPos;
+			this.endsPos = endsPos;
+			this.blockEnd = blockEnd;
+		}
+
+		/**
+		 * The value at this row, which is relative to the whole column, not to the block.
+		 */
+		String get ( int row )
+		{
+			int index = row - fromRow;
+			ByteBuffer buffer = getBuffer ( fileIndex, blockEnd );
+			
+			int w = index >>> 6;
+			long bit = 1L << index, bits = buffer.getLong ( bitsPos + 8 * w );
+			if ( ( bits & bit ) == 0 ) return null;
+			
+			int vidx = buffer.getInt ( ranksPos + 4 * w ) + Long.bitCount ( bits & ( bit - 1 ) );
+			int start = vidx == 0 ? 0 : buffer.getInt ( endsPos + 4 * ( vidx - 1 ) ), end = buffer.getInt ( endsPos + 4 * vidx );
+			
+			byte[] bytes = new byte [ end - start ];
+			ByteBuffer view = buffer.duplicate ();
+			view.position ( dataPos + start );
+			view.get ( bytes );
+			return new String ( bytes, UTF8 );
+		}
+	}
+	
+	private final File directory;
+	private final List<File> files = new ArrayList<File> ();
+	private final List<RandomAccessFile> openFiles = new ArrayList<RandomAccessFile> ();
+	private final List<MappedByteBuffer> mappedFiles = new ArrayList<MappedByteBuffer> ();
+	
+	/**
+	 * The file being written and its size, including what is still in the output buffer. 
+	 */
+	private FileChannel channel = null;
+	private int fileSize = 0;
+	private final ByteBuffer outBuffer = ByteBuffer.allocate ( 1 << 16 );
+	
+	private long spilledBytes = 0;
+	private boolean isClosed = false;
+	
+	protected final Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	
+	/**
+	 * @param directory where the temporary files are created, null means the default system directory.
+	 */
+	ColumnSpill ( File directory ) 
+	{
+		this.directory = directory;
+	}
+	
+	/**
+	 * Writes the rows [from, to) of the column and returns the block that can be used to read them back. Only the 
+	 * non-null values need to be passed.
+	 */
+	synchronized Block write ( StringColumn column, int from, int to )
+	{
+		checkNotClosed ();
+		int nrows = to - from, nwords = ( nrows + 63 ) >>> 6;
+		if ( channel == null || fileSize >= MAX_FILE_SIZE ) newFile ();
+		
+		int bitsPos = fileSize, ranksPos = bitsPos + 8 * nwords, dataPos = ranksPos + 4 * nwords;
+		
+		// The bitmap and the ranks
+		int rank = 0;
+		int[] ranks = new int [ nwords ];
+		for ( int w = 0; w < nwords; w++ )
+		{
+			long bits = 0;
+			for ( int i = 0, row = from + ( w << 6 ); i < 64 && row < to; i++, row++ )
+				if ( column.get ( row ) != null ) bits |= 1L << i;
+			putLong ( bits );
+			ranks [ w ] = rank;
+			rank += Long.bitCount ( bits );
+		}
+		for ( int r: ranks ) putInt ( r );
+		
+		// The values and then their ends
+		int[] ends = new int [ rank ];
+		int nvalues = 0, dataSize = 0;
+		for ( int row = from; row < to; row++ )
+		{
+			String value = column.get ( row );
+			if ( value == null ) continue;
+			byte[] bytes = value.getBytes ( UTF8 );
+			put ( bytes );
+			ends [ nvalues++ ] = dataSize += bytes.length;
+		}
+		
+		int endsPos = dataPos + dataSize;
+		for ( int end: ends ) putInt ( end );
+		
+		if ( fileSize < 0 ) throw new IllegalStateException ( 
+			"Cannot spill a block of " + nrows + " rows, it's too big for the graph2tab spill files" 
+		);
+		return new Block ( from, nrows, files.size () - 1, bitsPos, ranksPos, dataPos, endsPos, fileSize );
+	}
+
+	/**
+	 * A spill file, mapped up to at least this position. 
+	 */
+	private synchronized ByteBuffer getBuffer ( int fileIndex, int minSize )
+	{
+		checkNotClosed ();
+		try
+		{
+			MappedByteBuffer result = mappedFiles.get ( fileIndex );
+			if ( result != null && result.capacity () >= minSize ) return result;
+			
+			if ( fileIndex == files.size () - 1 ) flush ();
+			FileChannel fileChannel = openFiles.get ( fileIndex ).getChannel ();
+			result = fileChannel.map ( FileChannel.MapMode.READ_ONLY, 0, fileChannel.size () );
+			mappedFiles.set ( fileIndex, result );
+			return result;
+		}
+		catch ( IOException ex ) {
+			throw new IllegalStateException ( "Error while reading the graph2tab spill files: " + ex.getMessage (), ex );
+		}
+	}
+	
+	/**
+	 * The no. of bytes written so far.
+	 */
+	synchronized long getSpilledBytes () {
+		return spilledBytes;
+	}
+	
+	private void newFile ()
+	{
+		try
+		{
+			flush ();
+			File file = File.createTempFile ( "graph2tab-spill-", ".tmp", directory );
+			RandomAccessFile openFile = new RandomAccessFile ( file, "rw" );
+			// On Unix, the open file remains usable, while its disk space is freed as soon as it's closed
+			if ( !file.delete () ) file.deleteOnExit ();
+			
+			files.add ( file );
+			openFiles.add ( openFile );
+			mappedFiles.add ( null );
+			channel = openFile.getChannel ();
+			fileSize = 0;
+			
+			log.debug ( "New graph2tab spill file: {}", file.getAbsolutePath () );
+		}
+		catch ( IOException ex ) {
+			throw new IllegalStateException ( "Error while creating a graph2tab spill file: " + ex.getMessage (), ex );
+		}
+	}
+	
+	private void put ( byte[] bytes )
+	{
+		for ( int pos = 0; pos < bytes.length; )
+		{
+			if ( !outBuffer.hasRemaining () ) flush ();
+			int len = Math.min ( outBuffer.remaining (), bytes.length - pos );
+			outBuffer.put ( bytes, pos, len );
+			pos += len;
+		}
+		fileSize += bytes.length;
+		spilledBytes += bytes.length;
+	}
+	
+	private void putLong ( long value )
+	{
+		if ( outBuffer.remaining () < 8 ) flush ();
+		outBuffer.putLong ( value );
+		fileSize += 8;
+		spilledBytes += 8;
+	}
+
+	private void putInt ( int value )
+	{
+		if ( outBuffer.remaining () < 4 ) flush ();
+		outBuffer.putInt ( value );
+		fileSize += 4;
+		spilledBytes += 4;
+	}
+	
+	private void flush ()
+	{
+		if ( channel == null || outBuffer.position () == 0 ) return;
+		try
+		{
+			outBuffer.flip ();
+			while ( outBuffer.hasRemaining () ) channel.write ( outBuffer );
+			outBuffer.clear ();
+		}
+		catch ( IOException ex ) {
+			throw new IllegalStateException ( "Error while writing a graph2tab spill file: " + ex.getMessage (), ex );
+		}
+	}
+	
+	/**
+	 * Closes and deletes the files. The blocks written so far cannot be read anymore. Closing twice has no effect.
+	 */
+	synchronized void close ()
+	{
+		isClosed = true;
+		for ( int i = 0; i < files.size (); i++ )
+		{
+			mappedFiles.set ( i, null );
+			try {
+				openFiles.get ( i ).close ();
+			}
+			catch ( IOException ex ) {
+				log.warn ( "Error while closing the graph2tab spill file " + files.get ( i ) + ": " + ex.getMessage () );
+			}
+			files.get ( i ).delete ();
+		}
+		files.clear ();
+		openFiles.clear ();
+		mappedFiles.clear ();
+		channel = null;
+	}
+	
+	private void checkNotClosed ()
+	{
+		if ( isClosed ) throw new IllegalStateException ( 
+			"The graph2tab spill files were closed, the spilled table rows cannot be used anymore" 
+		);
+	}
+}
@@ -0,0 +1,243 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * <p>A version of {@link AbstractNodeFactory} that can be used by multiple threads with no global lock. 
+ * {@link #getNode(Object)} still guarantees that {@link #createNewNode(Object)} is called only once per base element: 
+ * the first thread asking for a base creates its node, while other threads asking for the same base at the same time
+ * wait for that node.</p>
+ * 
+ * <p>By default, bases are mapped to nodes by means of their equals()/hashCode() methods, as in 
+ * {@link AbstractNodeFactory}. If these are expensive, or if you want distinct objects of your model to be always 
+ * wrapped by distinct nodes, you can use {@link #ConcurrentNodeFactory(boolean) identity keys}.</p>
+ * 
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ * @param <N> the type of specific node that the factory provides.
+ * @param <B> the base element that the nodes created here wrap.
+ */
+public abstract class ConcurrentNodeFactory<N extends Node, B> extends AbstractNodeFactory<N, B>
+{
+	private final ConcurrentMap<Object, FutureTask<Node>> nodeTasks = new ConcurrentHashMap<Object, FutureTask<Node>> ();
+	private final boolean identityKeys;
+	private ForkJoinPool forkJoinPool = null;
+	
+	/**
+	 * {@link #getNodes(Collection)} doesn't split batches smaller than this.
+	 */
+	private static final int PARALLEL_GRAIN_BASES = 256;
+	
+	/**
+	 * Used in place of null bases, since {@link ConcurrentHashMap} doesn't accept null keys.
+	 */
+	private static final Object NULL_BASE = new Object ();
+
+	/**
+	 * Compares bases by means of ==, see {@link ConcurrentNodeFactory#ConcurrentNodeFactory(boolean)}.
+	 */
+	private static class IdentityKey
+	{
+		private final Object base;
+		
+		IdentityKey ( Object base ) {
+			this.base = base;
+		}
+
+		@Override
+		public boolean equals ( Object o ) {
+			return o instanceof IdentityKey && ( (IdentityKey) o ).base == base;
+		}
+
+		@Override
+		public int hashCode () {
+			return System.identityHashCode ( base );
+		}
+	}
+
+	/**
+	 * Wraps the bases in [from, to) into nodes, splitting the batch into halves until it is small enough.
+	 */
+	private class NodesWrapper extends RecursiveAction
+	{
+		private static final long serialVersionUID = -2306124590418772351L;
+
+		private final Object[] bases;
+		private final Node[] nodes;
+		private final int from, to;
+
+		NodesWrapper ( Object[] bases, Node[] nodes, int from, int to )
+		{
+			this.bases = bases;
+			this.nodes = nodes;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		@SuppressWarnings ( "unchecked" )
+		protected void compute ()
+		{
+			if ( to - from > PARALLEL_GRAIN_BASES )
+			{
+				int mid = ( from + to ) / 2;
+				invokeAll ( new NodesWrapper ( bases, nodes, from, mid ), new NodesWrapper ( bases, nodes, mid, to ) );
+				return;
+			}
+			for ( int i = from; i < to; i++ )
+				nodes [ i ] = getNode ( (B) bases [ i ] );
+		}
+	}
+	
+	/**
+	 * Uses the equals()/hashCode() of base elements.
+	 */
+	protected ConcurrentNodeFactory ()
+	{
+		this ( false );
+	}
+
+	/**
+	 * @param identityKeys if true, two bases are considered the same element only when they're the same object, their 
+	 * equals()/hashCode() methods are never used.
+	 */
+	protected ConcurrentNodeFactory ( boolean identityKeys )
+	{
+		super ( false );
+		this.identityKeys = identityKeys;
+	}
+
+	/**
+	 * Returns the node for this base, creating it if this is the first time the base is seen. This can be called
+	 * concurrently, see {@link ConcurrentNodeFactory above}. If {@link #createNewNode(Object)} fails, the exception 
+	 * is propagated to all the threads waiting for that node and the next call with the same base will try again.   
+	 */
+	@Override
+	@SuppressWarnings ( "unchecked" )
+	public N getNode ( final B base )
+	{
+		Object key = identityKeys ? new IdentityKey ( base ) : base == null ? NULL_BASE : base;
+		
+		FutureTask<Node> task = nodeTasks.get ( key );
+		if ( task == null )
+		{
+			FutureTask<Node> newTask = new FutureTask<Node> ( new Callable<Node> () 
+			{
+				@Override
+				public Node call () {
+					return createNewNode ( base );
+				}
+			});
+			task = nodeTasks.putIfAbsent ( key, newTask );
+			if ( task == null ) 
+			{
+				task = newTask;
+				task.run ();
+			}
+		}
+		
+		try {
+			return (N) task.get ();
+		}
+		catch ( InterruptedException ex ) 
+		{
+			Thread.currentThread ().interrupt ();
+			throw new IllegalStateException ( "Interrupted while waiting for the node of '" + base + "'", ex );
+		}
+		catch ( ExecutionException ex ) 
+		{
+			nodeTasks.remove ( key, task );
+			Throwable cause = ex.getCause ();
+			if ( cause instanceof RuntimeException ) throw (RuntimeException) cause;
+			if ( cause instanceof Error ) throw (Error) cause;
+			throw new IllegalStateException ( "Error while creating the node of '" + base + "': " + cause.getMessage (), cause );
+		}
+	}
+
+	/**
+	 * Like {@link AbstractNodeFactory#getNodes(Collection)}, but, if a {@link #getForkJoinPool() fork/join pool} is set, 
+	 * large batches are wrapped in parallel.
+	 */
+	@Override
+	@SuppressWarnings ( "unchecked" )
+	public List<N> getNodes ( Collection<B> bases )
+	{
+		if ( forkJoinPool == null || bases.size () <= PARALLEL_GRAIN_BASES ) return super.getNodes ( bases );
+		
+		Object[] baseArray = bases.toArray ();
+		Node[] nodes = new Node [ baseArray.length ];
+		forkJoinPool.invoke ( new NodesWrapper ( baseArray, nodes, 0, baseArray.length ) );
+		return new ArrayList<N> ( Arrays.asList ( (N[]) nodes ) );
+	}
+
+	/**
+	 * The pool used by {@link #getNodes(Collection)}. This is null by default, which means batches are wrapped
+	 * sequentially, by the calling thread.
+	 */
+	public ForkJoinPool getForkJoinPool ()
+	{
+		return forkJoinPool;
+	}
+
+	public void setForkJoinPool ( ForkJoinPool forkJoinPool )
+	{
+		this.forkJoinPool = forkJoinPool;
+	}
+}
@@ -51,7 +51,8 @@ package org.isatools.tablib.export.graph2tab;
 import java.util.Collections;
 import java.util.List;
 import java.util.SortedSet;
-import java.util.UUID;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * A default skeleton implementation of {@link Node}. You'll probably want to implement your customised version of the
@@ -76,16 +77,56 @@ public abstract class DefaultAbstractNode implements Node
 	protected SortedSet<Node> inputs = null, outputs = null;
 
 	/**
-	 * We use this to assign a unique identifier to each node and apply it to compute {@link #compareTo(LabeledNode)}
+	 * We use this to assign a unique identifier to each node and apply it to compute {@link #compareTo(Node)}, see 
+	 * {@link #nextId()}.
 	 */
-	private final UUID id;
+	private final long id;
+	
+	/**
+	 * The start of the next block of ids that a thread can reserve, see {@link #nextId()}.
+	 */
+	private static final AtomicLong ID_BLOCKS = new AtomicLong ( new Random ().nextLong () >>> 2 );
+	private static final int ID_BLOCK_SIZE = 1024;
+	
+	/**
+	 * The id block reserved by the current thread, as { next id, block end }.
+	 */
+	private static final ThreadLocal<long[]> THREAD_IDS = new ThreadLocal<long[]> () 
+	{
+		@Override
+		protected long[] initialValue () {
+			return new long [ 2 ];
+		}
+	};
+
+	/**
+	 * The label used by {@link #compareTo(Node)}, see {@link #getSortKey()}. This is null when not computed yet and
+	 * {@link #NULL_SORT_KEY} when the label is null.
+	 */
+	private String sortKey = null;
+	private static final String NULL_SORT_KEY = new String ();
 
 	protected DefaultAbstractNode ()
 	{
-		synchronized ( DefaultAbstractNode.class )
+		id = nextId ();
+	}
+	
+	/**
+	 * Generates a new node identifier, without any locking. Each thread reserves blocks of {@link #ID_BLOCK_SIZE} 
+	 * consecutive ids from a shared atomic counter and then hands them out on its own. The counter starts from a random
+	 * value in [0, 2^62) every time this class is loaded, so ids from different class loads are very unlikely to 
+	 * clash and there are at least 2^62 ids available before the long range is exhausted, which addresses the
+	 * overflow concern that made us switch to UUIDs in 4.3.1.
+	 */
+	private static long nextId ()
+	{
+		long[] ids = THREAD_IDS.get ();
+		if ( ids [ 0 ] == ids [ 1 ] )
 		{
-			id = UUID.randomUUID ();
+			ids [ 0 ] = ID_BLOCKS.getAndAdd ( ID_BLOCK_SIZE );
+			ids [ 1 ] = ids [ 0 ] + ID_BLOCK_SIZE;
 		}
+		return ids [ 0 ]++;
 	}
 
 	/**
@@ -109,10 +150,13 @@ public abstract class DefaultAbstractNode implements Node
 	}
 
 	/**
-	 * Compares to another node based on the first header/value pair returned by {@link #getTabValues()}. Note that when
-	 * this returns the same cell value/type, it further checks if o == this, only in that case it returns 0, i.e., two 
-	 * nodes are equivalent only if they're the same. This is a behaviour consistent with {@link #equals(Object)} and 
+	 * Compares to another node based on the first value returned by {@link #getTabValues()}, ignoring the case. Note 
+	 * that when this returns the same cell value, it further checks if o == this, only in that case it returns 0, i.e., 
+	 * two nodes are equivalent only if they're the same. This is a behaviour consistent with {@link #equals(Object)} and 
 	 * {@link #hashCode()}.
+	 * 
+	 * Since this is invoked very often (every time a node is added to a sorted set), the label is taken from 
+	 * {@link #getSortKey()}, which is computed once.
 	 *  
 	 */
 	public int compareTo ( Node o )
@@ -130,16 +174,9 @@ public abstract class DefaultAbstractNode implements Node
 		{
 			throw new IllegalArgumentException ( "Cannot compare DefaultAbstractNode with" + o.getClass ().getSimpleName () );
 		}
+		DefaultAbstractNode other = (DefaultAbstractNode) o;
 
-		String label = null;
-		List<TabValueGroup> tbvs = getTabValues ();
-		if ( !tbvs.isEmpty () )
-			label = tbvs.get ( 0 ).getValue ();
-
-		String olabel = null;
-		List<TabValueGroup> orow = o.getTabValues ();
-		if ( !orow.isEmpty () )
-			olabel = orow.get ( 0 ).getValue ();
+		String label = getSortKey (), olabel = other.getSortKey ();
 
 		if ( label != null )
 		{
@@ -149,18 +186,18 @@ public abstract class DefaultAbstractNode implements Node
 				return 1;
 			}
 
-			int diff = label.compareToIgnoreCase ( olabel );
+			int diff = label.compareTo ( olabel );
 
 			if ( diff != 0 )
 			{
 				return diff;
 			}
 			// We already ruled out 0 (when they're the same)
-			return this.id.compareTo ( ((DefaultAbstractNode) o).id );
+			return Long.compare ( this.id, other.id );
 		} else if ( olabel == null )
 		// We already ruled out 0 (when they're the same)
 		{
-			return this.id.compareTo ( ((DefaultAbstractNode) o).id );
+			return Long.compare ( this.id, other.id );
 		} else
 		// null labels always before non-nulls
 		{
@@ -168,6 +205,50 @@ public abstract class DefaultAbstractNode implements Node
 		}
 	}
 	
+	/**
+	 * The first value returned by {@link #getTabValues()}, with every character mapped to 
+	 * toLowerCase ( toUpperCase ( c ) ), so that comparing these keys gives the same result as 
+	 * {@link String#compareToIgnoreCase(String)} on the original values. This is computed the first time it's needed 
+	 * and then cached, so if your node changes its first value after having been compared (e.g., after having been 
+	 * added to a sorted set), you should call {@link #resetSortKey()}. 
+	 */
+	protected final String getSortKey ()
+	{
+		String key = sortKey;
+		if ( key == null ) 
+		{
+			List<TabValueGroup> tbvs = getTabValues ();
+			String label = tbvs == null || tbvs.isEmpty () ? null : tbvs.get ( 0 ).getValue ();
+			sortKey = key = label == null ? NULL_SORT_KEY : foldCase ( label );
+		}
+		return key == NULL_SORT_KEY ? null : key;
+	}
+	
+	/**
+	 * Forces the recomputation of {@link #getSortKey()}, see there. 
+	 */
+	protected final void resetSortKey ()
+	{
+		sortKey = null;
+	}
+	
+	/**
+	 * The case folding used by {@link #getSortKey()}, which is the same that {@link String#compareToIgnoreCase(String)}
+	 * applies to every character. 
+	 */
+	private static String foldCase ( String s )
+	{
+		char[] chars = null;
+		for ( int i = 0, n = s.length (); i < n; i++ )
+		{
+			char c = s.charAt ( i ), fc = Character.toLowerCase ( Character.toUpperCase ( c ) );
+			if ( c == fc ) continue;
+			if ( chars == null ) chars = s.toCharArray ();
+			chars [ i ] = fc;
+		}
+		return chars == null ? s : new String ( chars );
+	}
+	
 	/**
 	 * The default is tabvals.get ( 0 ).getHeader (), i.e.: the first header, something like 'Source Name' or 
 	 * 'Protocol REF'. There might be cases where the type is a different string, e.g.: there might be two nodes both 
@@ -209,12 +290,12 @@ public abstract class DefaultAbstractNode implements Node
 	/**
 	 * Two nodes are equivalent only if o == this. This is so because {@link ChainsBuilder} duplicates nodes in order to
 	 * get a graph of chains that correspond to the rows of the final exported spreadsheet. This class has an internal
-	 * {@link UUID} identifier, which is used for the hash code and in {@link #compareTo(Node)}.
+	 * long identifier, which is used for the hash code and in {@link #compareTo(Node)}.
 	 */
 	@Override
 	public int hashCode ()
 	{
-		return id.hashCode ();
+		return (int) ( id ^ ( id >>> 32 ) );
 	}
 
 	/**
@@ -0,0 +1,684 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator;
+
+/**
+ * <p>An immutable, integer-indexed snapshot of the experimental graph to be exported. The graph is read once, by 
+ * walking {@link Node#getInputs()} and {@link Node#getOutputs()}, and then it is frozen into a compressed sparse 
+ * row (CSR) structure, so that {@link MinFlowCalculator} and {@link LayersBuilder} can work with plain array scans, 
+ * instead of visiting the client's sorted sets over and over.</p>
+ * 
+ * <p>Every node gets an ordinal (or id) in [0, {@link #getNodeCount()}). Every edge gets an id in 
+ * [0, {@link #getEdgeCount()}), edges leaving the same node have contiguous ids, which follow the order of 
+ * {@link Node#getOutputs()}, i.e., the ids of the outgoing edges of n are 
+ * [{@link #getOutEdgesStart(int) getOutEdgesStart(n)}, {@link #getOutEdgesEnd(int) getOutEdgesEnd(n)}). The incoming 
+ * edges are indexed the same way, in the order of {@link Node#getInputs()}, but in this case 
+ * {@link #getInEdge(int)} has to be used to get the edge ids.</p> 
+ * 
+ * <p>The graph that is captured is the same that {@link TableBuilder} considers: first, the sources are found by 
+ * walking the inputs of the nodes passed to the constructor, then everything that can be reached from such sources 
+ * is captured. Both walks visit every node and every edge once, so the capture takes time linear in the size of 
+ * the graph, no matter if you pass sources, sinks, or any other set of nodes.</p>
+ * 
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class GraphSnapshot
+{
+	private final Set<Node> seedNodes;
+	
+	private final Node[] nodes;
+	private final Map<Node, Integer> nodeIds;
+
+	/**
+	 * outOffsets [ n ] is the first edge leaving n, edgeSources and edgeTargets are indexed by edge id.
+	 */
+	private final int[] outOffsets, edgeSources, edgeTargets;
+	
+	/**
+	 * inOffsets [ n ] is the first position in inEdges about n, inEdges contains edge ids.
+	 */
+	private final int[] inOffsets, inEdges;
+	
+	/**
+	 * The sources are in {@link Node} order, the sinks in id order.
+	 */
+	private final int[] sources, sinks;
+
+	private SortedSet<Node> sourceNodes = null;
+	private Set<Node> sinkNodes = null;
+	
+	/**
+	 * The weakly connected components, computed on demand by {@link #getComponents()}. 
+	 */
+	private List<GraphSnapshot> components = null;
+	
+	/**
+	 * The {@link Node} order, see {@link #getNodeRank(int)}, computed on demand. 
+	 */
+	private int[] nodeRanks = null, rankedNodes = null;
+	
+	/**
+	 * The index of the component of every node and the component sizes, computed on demand by 
+	 * {@link #labelComponents()}.
+	 */
+	private int[] nodeComponents = null, componentSizes = null;
+	
+	/**
+	 * For component snapshots, the snapshot it comes from and the ids that nodes and edges have there. 
+	 */
+	private final GraphSnapshot parent;
+	private final int[] parentNodeIds, parentEdgeIds;
+	
+	
+	/**
+	 * Captures the graph that is reachable from these nodes, see above.
+	 */
+	public GraphSnapshot ( Set<Node> seedNodes )
+	{
+		this.seedNodes = seedNodes;
+		this.parent = null;
+		this.parentNodeIds = this.parentEdgeIds = null;
+		
+		// The sources, sorted by the Node order
+		SortedSet<Node> startNodes = findStartNodes ( seedNodes );
+		
+		// Number everything reachable from the sources 
+		List<Node> nodeList = new ArrayList<Node> ();
+		nodeIds = new HashMap<Node, Integer> ();
+		Deque<Node> toVisit = new ArrayDeque<Node> ( startNodes );
+		for ( Node n: startNodes ) nodeIds.put ( n, nodeIds.size () );
+		nodeList.addAll ( startNodes );
+		
+		int nedges = 0;
+		while ( !toVisit.isEmpty () )
+		{
+			for ( Node out: toVisit.poll ().getOutputs () ) 
+			{
+				nedges++;
+				if ( nodeIds.containsKey ( out ) ) continue;
+				nodeIds.put ( out, nodeList.size () );
+				nodeList.add ( out );
+				toVisit.add ( out );
+			}
+		}
+		
+		int nnodes = nodeList.size ();
+		nodes = nodeList.toArray ( new Node [ nnodes ] );
+		
+		
+		// Outgoing edges, in the same order of getOutputs()
+		outOffsets = new int [ nnodes + 1 ];
+		edgeSources = new int [ nedges ];
+		edgeTargets = new int [ nedges ];
+		int[] inDegrees = new int [ nnodes ];
+		
+		List<Integer> sinkList = new ArrayList<Integer> ();
+		for ( int n = 0, e = 0; n < nnodes; n++ )
+		{
+			outOffsets [ n ] = e;
+			for ( Node out: nodes [ n ].getOutputs () )
+			{
+				int target = nodeIds.get ( out );
+				edgeSources [ e ] = n;
+				edgeTargets [ e++ ] = target;
+				inDegrees [ target ]++;
+			}
+			outOffsets [ n + 1 ] = e;
+			if ( e == outOffsets [ n ] ) sinkList.add ( n );
+		}
+		
+		
+		// Incoming edges, in the same order of getInputs(). First we bucket the edges per target, then we use 
+		// the inputs to sort every bucket. 
+		inOffsets = new int [ nnodes + 1 ];
+		for ( int n = 0; n < nnodes; n++ )
+			inOffsets [ n + 1 ] = inOffsets [ n ] + inDegrees [ n ];
+		
+		int[] buckets = new int [ nedges ], bucketEnds = new int [ nnodes ];
+		System.arraycopy ( inOffsets, 0, bucketEnds, 0, nnodes );
+		for ( int e = 0; e < nedges; e++ ) buckets [ bucketEnds [ edgeTargets [ e ] ]++ ] = e;
+		
+		inEdges = new int [ nedges ];
+		// The edge coming from a given source into the current node, -1 if none or already used 
+		int[] sourceEdges = new int [ nnodes ];
+		Arrays.fill ( sourceEdges, -1 );
+		for ( int n = 0; n < nnodes; n++ )
+		{
+			int bstart = inOffsets [ n ], bend = inOffsets [ n + 1 ];
+			if ( bstart == bend ) continue;
+			
+			for ( int b = bstart; b < bend; b++ ) sourceEdges [ edgeSources [ buckets [ b ] ] ] = buckets [ b ];
+			
+			int i = bstart;
+			for ( Node in: nodes [ n ].getInputs () )
+			{
+				Integer source = nodeIds.get ( in );
+				if ( source == null || sourceEdges [ source ] == -1 ) continue;
+				inEdges [ i++ ] = sourceEdges [ source ];
+				sourceEdges [ source ] = -1;
+			}
+			
+			// Rarely, the inputs miss something that is listed by the outputs of the other nodes, in such a case the 
+			// missing edges go last
+			for ( int b = bstart; b < bend; b++ ) 
+			{
+				int source = edgeSources [ buckets [ b ] ];
+				if ( sourceEdges [ source ] == -1 ) continue;
+				inEdges [ i++ ] = sourceEdges [ source ];
+				sourceEdges [ source ] = -1;
+			}
+		}
+		
+		
+		sources = new int [ startNodes.size () ];
+		for ( int i = 0; i < sources.length; i++ ) sources [ i ] = i;
+		
+		sinks = new int [ sinkList.size () ];
+		for ( int i = 0; i < sinks.length; i++ ) sinks [ i ] = sinkList.get ( i );
+	}
+	
+	/**
+	 * Builds a component of the parent, made of parentNodes, which must be listed in increasing order. localIds and 
+	 * localEdgeIds map the parent nodes and edges to the ids they have in their component. 
+	 */
+	private GraphSnapshot ( GraphSnapshot parent, int[] parentNodes, int[] localIds, int[] localEdgeIds )
+	{
+		this.parent = parent;
+		this.parentNodeIds = parentNodes;
+		
+		int nnodes = parentNodes.length, nedges = 0;
+		for ( int pn: parentNodes ) nedges += parent.getOutDegree ( pn );
+
+		nodes = new Node [ nnodes ];
+		nodeIds = new HashMap<Node, Integer> ();
+		outOffsets = new int [ nnodes + 1 ];
+		inOffsets = new int [ nnodes + 1 ];
+		edgeSources = new int [ nedges ];
+		edgeTargets = new int [ nedges ];
+		inEdges = new int [ nedges ];
+		parentEdgeIds = new int [ nedges ];
+		
+		int nsources = 0, nsinks = 0;
+		for ( int n = 0, e = 0; n < nnodes; n++ )
+		{
+			int pn = parentNodes [ n ];
+			nodes [ n ] = parent.nodes [ pn ];
+			nodeIds.put ( nodes [ n ], n );
+			
+			outOffsets [ n ] = e;
+			for ( int pe = parent.getOutEdgesStart ( pn ), pend = parent.getOutEdgesEnd ( pn ); pe < pend; pe++, e++ )
+			{
+				edgeSources [ e ] = n;
+				edgeTargets [ e ] = localIds [ parent.edgeTargets [ pe ] ];
+				parentEdgeIds [ e ] = pe;
+			}
+			outOffsets [ n + 1 ] = e;
+			
+			if ( parent.getInDegree ( pn ) == 0 ) nsources++;
+			if ( parent.getOutDegree ( pn ) == 0 ) nsinks++;
+		}
+		
+		for ( int n = 0, i = 0; n < nnodes; n++ )
+		{
+			int pn = parentNodes [ n ];
+			inOffsets [ n ] = i;
+			for ( int pi = parent.getInEdgesStart ( pn ), pend = parent.getInEdgesEnd ( pn ); pi < pend; pi++ )
+				inEdges [ i++ ] = localEdgeIds [ parent.inEdges [ pi ] ];
+			inOffsets [ n + 1 ] = i;
+		}
+		
+		// Sources come first in the parent, so they come first here too, in the same order
+		sources = new int [ nsources ];
+		for ( int i = 0; i < nsources; i++ ) sources [ i ] = i;
+		sinks = new int [ nsinks ];
+		for ( int n = 0, i = 0; n < nnodes; n++ )
+			if ( outOffsets [ n ] == outOffsets [ n + 1 ] ) sinks [ i++ ] = n;
+		
+		seedNodes = getSourceNodes ();
+	}
+	
+	
+	/**
+	 * Walks the graph from the seed nodes toward left and through inputs, every node is visited once, so this is linear
+	 * in the size of the left graph. This uses an explicit stack, so that the graph depth isn't limited by the thread 
+	 * stack size.
+	 * 
+	 */
+	private static SortedSet<Node> findStartNodes ( Set<Node> seedNodes ) 
+	{
+		SortedSet<Node> result = new TreeSet<Node> ();
+		Set<Node> visited = new HashSet<Node> ();
+		Deque<Node> toVisit = new ArrayDeque<Node> ();
+		for ( Node node: seedNodes )
+			if ( visited.add ( node ) ) toVisit.push ( node );
+		
+		while ( !toVisit.isEmpty () )
+		{
+			Node n = toVisit.pop ();
+			Set<Node> ins = n.getInputs ();
+			
+			if ( ins.isEmpty () ) {
+				result.add ( n );
+				continue;
+			}
+		
+			for ( Node in: ins ) 
+				if ( visited.add ( in ) ) toVisit.push ( in );
+		}
+		return result;
+	}
+
+	
+	/**
+	 * The nodes passed to the constructor. For {@link #getComponents() components}, these are their sources. 
+	 */
+	public Set<Node> getSeedNodes ()
+	{
+		return seedNodes;
+	}
+
+	public int getNodeCount ()
+	{
+		return nodes.length;
+	}
+
+	public int getEdgeCount ()
+	{
+		return edgeTargets.length;
+	}
+	
+	/**
+	 * The node having this id.
+	 */
+	public Node getNode ( int node )
+	{
+		return nodes [ node ];
+	}
+	
+	/**
+	 * The position of the node when all the nodes are sorted by their {@link Node} order, i.e., comparing the ranks 
+	 * of two nodes is the same as comparing the nodes. This allows to keep sorted node sets as sets of integers. The 
+	 * ranks are computed the first time this or {@link #getRankedNode(int)} is invoked, by sorting the nodes once.
+	 */
+	public int getNodeRank ( int node )
+	{
+		return getNodeRanks () [ node ];
+	}
+
+	/**
+	 * The id of the node having the given {@link #getNodeRank(int) rank}.
+	 */
+	public int getRankedNode ( int rank )
+	{
+		getNodeRanks ();
+		return rankedNodes [ rank ];
+	}
+	
+	private synchronized int[] getNodeRanks ()
+	{
+		if ( nodeRanks != null ) return nodeRanks;
+		
+		Node[] sorted = nodes.clone ();
+		Arrays.sort ( sorted );
+		
+		int nnodes = nodes.length;
+		int[] ranks = new int [ nnodes ];
+		rankedNodes = new int [ nnodes ];
+		for ( int r = 0; r < nnodes; r++ ) 
+		{
+			int n = nodeIds.get ( sorted [ r ] );
+			ranks [ n ] = r;
+			rankedNodes [ r ] = n;
+		}
+		return nodeRanks = ranks;
+	}
+	
+	/**
+	 * The id of this node, or -1 if the node isn't in this snapshot.
+	 */
+	public int getNodeId ( Node node )
+	{
+		Integer id = nodeIds.get ( node );
+		return id == null ? -1 : id;
+	}
+
+	/**
+	 * The id of the first edge leaving the node.
+	 */
+	public int getOutEdgesStart ( int node )
+	{
+		return outOffsets [ node ];
+	}
+
+	/**
+	 * The id of the last edge leaving the node, plus one.
+	 */
+	public int getOutEdgesEnd ( int node )
+	{
+		return outOffsets [ node + 1 ];
+	}
+
+	public int getOutDegree ( int node )
+	{
+		return outOffsets [ node + 1 ] - outOffsets [ node ];
+	}
+	
+	/**
+	 * The position in the incoming edge index of the first edge entering the node, see {@link #getInEdge(int)}.
+	 */
+	public int getInEdgesStart ( int node )
+	{
+		return inOffsets [ node ];
+	}
+
+	/**
+	 * The position in the incoming edge index of the last edge entering the node, plus one.
+	 */
+	public int getInEdgesEnd ( int node )
+	{
+		return inOffsets [ node + 1 ];
+	}
+	
+	/**
+	 * The id of the edge at this position of the incoming edge index. 
+	 */
+	public int getInEdge ( int inPosition )
+	{
+		return inEdges [ inPosition ];
+	}
+
+	public int getInDegree ( int node )
+	{
+		return inOffsets [ node + 1 ] - inOffsets [ node ];
+	}
+
+	public int getEdgeSource ( int edge )
+	{
+		return edgeSources [ edge ];
+	}
+
+	public int getEdgeTarget ( int edge )
+	{
+		return edgeTargets [ edge ];
+	}
+	
+	/**
+	 * The id of the edge source -&gt; target, or -1 if there is no such edge. Our graphs have at most one edge between 
+	 * two nodes.
+	 */
+	public int findEdge ( int source, int target )
+	{
+		for ( int e = outOffsets [ source ], end = outOffsets [ source + 1 ]; e < end; e++ )
+			if ( edgeTargets [ e ] == target ) return e;
+		return -1;
+	}
+
+	/**
+	 * A facility to get the edge id for a pair of nodes, -1 if there is no such edge.
+	 */
+	public int findEdge ( Node source, Node target )
+	{
+		Integer sourceId = nodeIds.get ( source ), targetId = nodeIds.get ( target );
+		if ( sourceId == null || targetId == null ) return -1;
+		return findEdge ( sourceId, targetId );
+	}
+
+	/**
+	 * The number of sources, i.e., nodes without any input. Isolated nodes are both sources and sinks.
+	 */
+	public int getSourceCount ()
+	{
+		return sources.length;
+	}
+
+	/**
+	 * The i-th source. Sources are sorted according to the {@link Node} order.
+	 */
+	public int getSource ( int i )
+	{
+		return sources [ i ];
+	}
+
+	/**
+	 * The number of sinks, i.e., nodes without any output. Isolated nodes are both sources and sinks.
+	 */
+	public int getSinkCount ()
+	{
+		return sinks.length;
+	}
+
+	public int getSink ( int i )
+	{
+		return sinks [ i ];
+	}
+
+	/**
+	 * The sources as nodes, in {@link Node} order. This is unmodifiable.
+	 */
+	public SortedSet<Node> getSourceNodes ()
+	{
+		if ( sourceNodes != null ) return sourceNodes;
+		
+		SortedSet<Node> result = new TreeSet<Node> ();
+		for ( int src: sources ) result.add ( nodes [ src ] );
+		return sourceNodes = Collections.unmodifiableSortedSet ( result );
+	}
+
+	/**
+	 * The sinks as nodes. This is unmodifiable.
+	 */
+	public Set<Node> getSinkNodes ()
+	{
+		if ( sinkNodes != null ) return sinkNodes;
+
+		Set<Node> result = new LinkedHashSet<Node> ();
+		for ( int sink: sinks ) result.add ( nodes [ sink ] );
+		return sinkNodes = Collections.unmodifiableSet ( result );
+	}
+
+	/**
+	 * The weakly connected components of this graph, i.e., sub-graphs that aren't linked to each other by any edge, no 
+	 * matter the edge direction. Every component is a snapshot on its own, with its own node and edge ids, which can 
+	 * be mapped back to the ids in this snapshot by means of {@link #getParentNodeId(int)} and 
+	 * {@link #getParentEdgeId(int)}. Components are listed in the order of their first node, they are computed the 
+	 * first time this method is invoked, in linear time. The result is unmodifiable.
+	 * 
+	 */
+	public synchronized List<GraphSnapshot> getComponents ()
+	{
+		if ( components != null ) return components;
+		
+		labelComponents ();
+		int nnodes = nodes.length, ncomps = componentSizes.length;
+		int[] nodeComps = nodeComponents;
+		if ( ncomps == 1 ) return components = Collections.singletonList ( this );
+		
+		// Lists the nodes of every component in increasing order and computes their ids in the component
+		int[][] compNodes = new int [ ncomps ][];
+		for ( int c = 0; c < ncomps; c++ ) compNodes [ c ] = new int [ componentSizes [ c ] ];
+		int[] compFill = new int [ ncomps ], localIds = new int [ nnodes ];
+		for ( int n = 0; n < nnodes; n++ ) 
+		{
+			int c = nodeComps [ n ];
+			localIds [ n ] = compFill [ c ];
+			compNodes [ c ] [ compFill [ c ]++ ] = n;
+		}
+		
+		// Same for the edges, they're numbered following the source nodes 
+		int[] localEdgeIds = new int [ edgeTargets.length ];
+		for ( int c = 0; c < ncomps; c++ )
+		{
+			int le = 0;
+			for ( int n: compNodes [ c ] )
+				for ( int e = outOffsets [ n ], end = outOffsets [ n + 1 ]; e < end; e++ )
+					localEdgeIds [ e ] = le++;
+		}
+		
+		List<GraphSnapshot> result = new ArrayList<GraphSnapshot> ( ncomps );
+		for ( int c = 0; c < ncomps; c++ ) 
+			result.add ( new GraphSnapshot ( this, compNodes [ c ], localIds, localEdgeIds ) );
+		
+		return components = Collections.unmodifiableList ( result );
+	}
+
+	/**
+	 * Computes the component of every node, by means of a breadth-first visit over both inputs and outputs, starting
+	 * from every node not visited yet.
+	 */
+	private synchronized void labelComponents ()
+	{
+		if ( nodeComponents != null ) return;
+
+		int nnodes = nodes.length;
+		int[] nodeComps = new int [ nnodes ], queue = new int [ nnodes ];
+		Arrays.fill ( nodeComps, -1 );
+		List<Integer> compSizes = new ArrayList<Integer> ();
+		
+		for ( int n = 0; n < nnodes; n++ )
+		{
+			if ( nodeComps [ n ] != -1 ) continue;
+			
+			int comp = compSizes.size (), head = 0, tail = 0;
+			nodeComps [ n ] = comp;
+			queue [ tail++ ] = n;
+			while ( head < tail )
+			{
+				int u = queue [ head++ ];
+				for ( int e = outOffsets [ u ], end = outOffsets [ u + 1 ]; e < end; e++ )
+				{
+					int v = edgeTargets [ e ];
+					if ( nodeComps [ v ] != -1 ) continue;
+					nodeComps [ v ] = comp;
+					queue [ tail++ ] = v;
+				}
+				for ( int i = inOffsets [ u ], end = inOffsets [ u + 1 ]; i < end; i++ )
+				{
+					int v = edgeSources [ inEdges [ i ] ];
+					if ( nodeComps [ v ] != -1 ) continue;
+					nodeComps [ v ] = comp;
+					queue [ tail++ ] = v;
+				}
+			}
+			compSizes.add ( tail );
+		}
+		
+		componentSizes = new int [ compSizes.size () ];
+		for ( int c = 0; c < componentSizes.length; c++ ) componentSizes [ c ] = compSizes.get ( c );
+		nodeComponents = nodeComps;
+	}
+	
+	/**
+	 * The no. of {@link #getComponents() components} in this graph. Unlike {@link #getComponents()}, this doesn't 
+	 * build the component snapshots.
+	 */
+	public int getComponentCount ()
+	{
+		labelComponents ();
+		return componentSizes.length;
+	}
+	
+	/**
+	 * The no. of nodes in the component having this index, see {@link #getComponentCount()}.
+	 */
+	public int getComponentSize ( int component )
+	{
+		labelComponents ();
+		return componentSizes [ component ];
+	}
+	
+	/**
+	 * The index in {@link #getComponents()} of the component the node belongs to.
+	 */
+	public int getComponentIndex ( int node )
+	{
+		labelComponents ();
+		return nodeComponents [ node ];
+	}
+	
+	/**
+	 * The snapshot this is a component of, or null if this snapshot was built from a set of nodes. 
+	 */
+	public GraphSnapshot getParent ()
+	{
+		return parent;
+	}
+
+	/**
+	 * The id that this node has in {@link #getParent()}. 
+	 */
+	public int getParentNodeId ( int node )
+	{
+		return parentNodeIds [ node ];
+	}
+
+	/**
+	 * The id that this edge has in {@link #getParent()}. 
+	 */
+	public int getParentEdgeId ( int edge )
+	{
+		return parentEdgeIds [ edge ];
+	}
+}
@@ -0,0 +1,331 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.lang.StringUtils;
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator;
+
+/**
+ * <p>Figures about a graph to be exported, which can be computed before building the table, in a single linear pass 
+ * over the graph, e.g., to decide where to run a big export, or to reject an unreasonable one before spending time 
+ * in {@link MinFlowCalculator}. Use {@link TableBuilder#getStatistics()} to get them for the graph that a builder 
+ * exports.</p>
+ * 
+ * <p>Besides counts and degrees, this provides bounds on the no. of rows (i.e., on the minimum flow value) and 
+ * columns that the final table will have. In detail:</p>
+ * 
+ * <ul>
+ *   <li>every edge leaving a source, every edge reaching a sink and every edge around a node need a distinct row, 
+ *   which gives the {@link #getMinRows() lower bound}, computed per component</li>
+ *   <li>every unit of flow that a node needs more than it gets from its inputs can come from a new row, which 
+ *   gives an upper bound (the same goes for the outputs), and the set of all the source-to-sink paths is a row cover 
+ *   too, so the {@link #getMaxRows() upper bound} is the minimum of these</li>
+ *   <li>the nodes in a path end up in different layers, hence the columns are at least as many as the 
+ *   {@link TabValueGroup} headers along the path having the most of them, which is the 
+ *   {@link #getMinColumns() lower bound}</li>
+ *   <li>nodes having the same header structure and ending up in the same layer share the same columns, which gives 
+ *   the {@link #getMaxColumns() upper bound}, based on how many layers every header structure can span</li>
+ * </ul>
+ * 
+ * <p>Computing the columns requires {@link Node#getTabValues()} for every node, the other figures only require the 
+ * {@link GraphSnapshot graph structure}. The graph must be acyclic, as required by the export.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class GraphStatistics
+{
+	private final int nodeCount, edgeCount, sourceCount, sinkCount;
+	private final int maxDepth, maxFanIn, maxFanOut;
+	private final int[] componentSizes;
+	private final long minRows, maxRows, minColumns, maxColumns;
+	
+	/**
+	 * @param isLayeringRequired the same parameter used with {@link TableBuilder}, which affects how the columns are 
+	 * computed.
+	 */
+	public GraphStatistics ( GraphSnapshot graph, boolean isLayeringRequired )
+	{
+		int nnodes = nodeCount = graph.getNodeCount ();
+		edgeCount = graph.getEdgeCount ();
+		sourceCount = graph.getSourceCount ();
+		sinkCount = graph.getSinkCount ();
+		
+		int ncomps = graph.getComponentCount ();
+		componentSizes = new int [ ncomps ];
+		for ( int c = 0; c < ncomps; c++ ) componentSizes [ c ] = graph.getComponentSize ( c );
+		Arrays.sort ( componentSizes );
+		for ( int i = 0, j = ncomps - 1; i < j; i++, j-- ) {
+			int t = componentSizes [ i ]; componentSizes [ i ] = componentSizes [ j ]; componentSizes [ j ] = t;
+		}
+		
+		// Row bounds, see above. The lower ones are per component
+		long[] compSourceRows = new long [ ncomps ], compSinkRows = new long [ ncomps ];
+		int[] compMaxDegrees = new int [ ncomps ];
+		long inExcess = 0, outExcess = 0;
+		int maxIn = 0, maxOut = 0;
+		
+		// Depths (in nodes), path counts and columns, in topological order, the same way LayersBuilder works 
+		int[] minDepths = new int [ nnodes ], maxDepths = new int [ nnodes ];
+		long[] pathCounts = new long [ nnodes ], pathColumns = new long [ nnodes ];
+		int[] pendingIns = new int [ nnodes ], queue = new int [ nnodes ];
+		int head = 0, tail = 0;
+
+		for ( int n = 0; n < nnodes; n++ )
+			if ( ( pendingIns [ n ] = graph.getInDegree ( n ) ) == 0 ) 
+			{
+				queue [ tail++ ] = n;
+				minDepths [ n ] = maxDepths [ n ] = 1;
+				pathCounts [ n ] = 1;
+			}
+
+		// The header structures, with their columns and how many layers they can appear in  
+		Map<String, long[]> headerStructures = new HashMap<String, long[]> ();
+		StringBuilder sb = new StringBuilder ();
+		String firstType = null;
+		boolean hasMultipleTypes = false;
+		
+		int depth = 0; 
+		long minCols = 0, nrowPaths = 0;
+		
+		while ( head < tail )
+		{
+			int n = queue [ head++ ];
+			int nin = graph.getInDegree ( n ), nout = graph.getOutDegree ( n ), comp = graph.getComponentIndex ( n );
+			
+			if ( nin > maxIn ) maxIn = nin;
+			if ( nout > maxOut ) maxOut = nout;
+			int maxDegree = Math.max ( nin, nout );
+			if ( maxDegree > compMaxDegrees [ comp ] ) compMaxDegrees [ comp ] = maxDegree;
+			if ( nin == 0 ) compSourceRows [ comp ] += Math.max ( 1, nout );
+			if ( nout == 0 ) compSinkRows [ comp ] += Math.max ( 1, nin );
+			if ( nin == 0 && nout == 0 ) { inExcess++; outExcess++; }
+			else if ( nout > nin ) outExcess += nout - nin; 
+			else inExcess += nin - nout;
+			
+			Node node = graph.getNode ( n );
+			String type = StringUtils.trimToNull ( node.getType () );
+			if ( head == 1 ) firstType = type;
+			else if ( !hasMultipleTypes ) hasMultipleTypes = !StringUtils.equals ( type, firstType ); 
+			
+			sb.setLength ( 0 );
+			long ncols = getHeaderStructure ( node.getTabValues (), sb );
+			String headerStructure = sb.toString ();
+			long[] structureStats = headerStructures.get ( headerStructure );
+			if ( structureStats == null ) headerStructures.put ( headerStructure, structureStats = new long [] { ncols, 0 } );
+			// With layering, a node is in one layer, else, in every position it can have along the paths 
+			structureStats [ 1 ] += isLayeringRequired ? 1 : maxDepths [ n ] - minDepths [ n ] + 1;
+
+			pathColumns [ n ] += ncols;
+			if ( maxDepths [ n ] > depth ) depth = maxDepths [ n ];
+			if ( nout == 0 ) 
+			{
+				nrowPaths = addSaturated ( nrowPaths, pathCounts [ n ] );
+				if ( pathColumns [ n ] > minCols ) minCols = pathColumns [ n ];
+			}
+			
+			for ( int e = graph.getOutEdgesStart ( n ), end = graph.getOutEdgesEnd ( n ); e < end; e++ )
+			{
+				int out = graph.getEdgeTarget ( e );
+				if ( minDepths [ out ] == 0 || minDepths [ out ] > minDepths [ n ] + 1 ) minDepths [ out ] = minDepths [ n ] + 1;
+				if ( maxDepths [ out ] < maxDepths [ n ] + 1 ) maxDepths [ out ] = maxDepths [ n ] + 1;
+				if ( pathColumns [ out ] < pathColumns [ n ] ) pathColumns [ out ] = pathColumns [ n ];
+				pathCounts [ out ] = addSaturated ( pathCounts [ out ], pathCounts [ n ] );
+				if ( --pendingIns [ out ] == 0 ) queue [ tail++ ] = out;
+			}
+		}
+		
+		if ( tail < nnodes ) throw new IllegalArgumentException ( 
+			"Cannot compute the statistics of a graph with cycles, which are not supported by graph2tab" 
+		);
+		
+		long minRowsSum = 0;
+		for ( int c = 0; c < ncomps; c++ )
+			minRowsSum += Math.max ( Math.max ( compSourceRows [ c ], compSinkRows [ c ] ), compMaxDegrees [ c ] );
+
+		// Typed layering can shift nodes beyond the depth, but every layer keeps some node. Without types, the 
+		// layers are as many as the depth.
+		long nlayers = isLayeringRequired && hasMultipleTypes ? nnodes : depth;
+		long maxCols = 0;
+		for ( long[] structureStats: headerStructures.values () )
+			maxCols += structureStats [ 0 ] * Math.min ( structureStats [ 1 ], nlayers );
+		
+		maxDepth = depth;
+		maxFanIn = maxIn;
+		maxFanOut = maxOut;
+		minRows = minRowsSum;
+		maxRows = Math.min ( Math.min ( inExcess, outExcess ), nrowPaths );
+		minColumns = minCols;
+		maxColumns = maxCols;
+	}
+
+	/**
+	 * Encodes the structure of the headers in tabValues, i.e., all the headers and their nesting (not the values), 
+	 * and returns the no. of columns they yield. The encoding is unambiguous, since the headers are prefixed by their 
+	 * length.
+	 */
+	private static long getHeaderStructure ( List<TabValueGroup> tabValues, StringBuilder sb )
+	{
+		if ( tabValues == null ) return 0;
+		
+		long result = 0;
+		for ( TabValueGroup tbg: tabValues )
+		{
+			String header = StringUtils.defaultString ( tbg.getHeader () );
+			sb.append ( header.length () ).append ( ':' ).append ( header ).append ( '(' );
+			result += 1 + getHeaderStructure ( tbg.getTail (), sb );
+			sb.append ( ')' );
+		}
+		return result;
+	}
+	
+	private static long addSaturated ( long a, long b )
+	{
+		long result = a + b;
+		return result < 0 ? Long.MAX_VALUE : result;
+	}
+
+	
+	public int getNodeCount () {
+		return nodeCount;
+	}
+
+	public int getEdgeCount () {
+		return edgeCount;
+	}
+
+	public int getSourceCount () {
+		return sourceCount;
+	}
+
+	public int getSinkCount () {
+		return sinkCount;
+	}
+
+	/**
+	 * The no. of nodes in the longest source-to-sink path, which is the no. of layers when there isn't any layering, 
+	 * or the nodes all have the same type. 
+	 */
+	public int getMaxDepth () {
+		return maxDepth;
+	}
+
+	/**
+	 * The highest no. of inputs that a node has.
+	 */
+	public int getMaxFanIn () {
+		return maxFanIn;
+	}
+
+	/**
+	 * The highest no. of outputs that a node has.
+	 */
+	public int getMaxFanOut () {
+		return maxFanOut;
+	}
+
+	/**
+	 * The no. of weakly connected components, see {@link GraphSnapshot#getComponents()}. 
+	 */
+	public int getComponentCount () {
+		return componentSizes.length;
+	}
+
+	/**
+	 * The no. of nodes in every component, in decreasing order.
+	 */
+	public int[] getComponentSizes () {
+		return componentSizes.clone ();
+	}
+
+	/**
+	 * A lower bound for the no. of rows in the final table (excluding the headers), i.e., for the minimum flow value.
+	 */
+	public long getMinRows () {
+		return minRows;
+	}
+
+	/**
+	 * An upper bound for the no. of rows in the final table (excluding the headers).
+	 */
+	public long getMaxRows () {
+		return maxRows;
+	}
+
+	/**
+	 * A lower bound for the no. of columns in the final table.
+	 */
+	public long getMinColumns () {
+		return minColumns;
+	}
+
+	/**
+	 * An upper bound for the no. of columns in the final table.
+	 */
+	public long getMaxColumns () {
+		return maxColumns;
+	}
+
+	@Override
+	public String toString ()
+	{
+		int ncomps = componentSizes.length;
+		return "GraphStatistics{ nodes: " + nodeCount + ", edges: " + edgeCount + ", sources: " + sourceCount 
+			+ ", sinks: " + sinkCount + ", max depth: " + maxDepth + ", max fan-in: " + maxFanIn + ", max fan-out: " 
+			+ maxFanOut + ", components: " + ncomps 
+			+ ( ncomps == 0 ? "" : ", component sizes: [" + componentSizes [ ncomps - 1 ] + ", " 
+					+ componentSizes [ ncomps / 2 ] + ", " + componentSizes [ 0 ] + "] (min, median, max)" ) 
+			+ ", rows: [" + minRows + ", " + maxRows + "], columns: [" + minColumns + ", " + maxColumns + "] }";
+	}
+}
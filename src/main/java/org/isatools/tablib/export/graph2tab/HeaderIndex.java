@@ -0,0 +1,164 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>An index over a list of {@link StructuredTable}s (i.e., a layer or a table tail), used by 
+ * {@link StructuredTable#mergeTabValues(List, int, List, StringDictionary)} to find the first table that has a given 
+ * header and is still free for the row being built, without scanning the whole list.</p>
+ * 
+ * <p>For every header, we keep the tables having it, in list order, plus a cursor to the first one that might be 
+ * free for the current row. Since the merging always picks the first free table and all tables are free when a new row 
+ * starts, the tables used in a row are always a prefix of the candidates, so the cursor only moves forward within the 
+ * same row and finding a table costs constant amortised time.</p>
+ * 
+ * <p>The index follows the tables added at the end of the list and it's rebuilt when it detects the list has shrunk 
+ * or a table header was changed. If you re-arrange the lists in other ways (e.g., by re-ordering them) while the 
+ * table is still being merged, the index might give you a wrong result.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+class HeaderIndex
+{
+	/**
+	 * The tables having a given header.
+	 */
+	private static class Candidates
+	{
+		final List<StructuredTable> tables = new ArrayList<StructuredTable> ( 2 );
+		int cursor = 0, cursorRow = -1;
+	}
+	
+	private final List<StructuredTable> tables;
+	private final Map<String, Candidates> candidates = new HashMap<String, Candidates> ();
+	private int indexedSize = 0;
+	
+	HeaderIndex ( List<StructuredTable> tables ) {
+		this.tables = tables;
+	}
+
+	/**
+	 * The indexed list.
+	 */
+	List<StructuredTable> getTables () {
+		return tables;
+	}
+	
+	/**
+	 * The first table in the list having the header and not filled for the row newSize - 1 yet, or null if there is no
+	 * such table.  
+	 */
+	StructuredTable findFree ( String header, int newSize )
+	{
+		sync ();
+		
+		Candidates cands = candidates.get ( header );
+		if ( cands == null ) return null;
+		
+		if ( cands.cursorRow != newSize ) {
+			cands.cursorRow = newSize;
+			cands.cursor = 0;
+		}
+		
+		for ( int n = cands.tables.size (); cands.cursor < n; cands.cursor++ )
+		{
+			StructuredTable table = cands.tables.get ( cands.cursor );
+			if ( !header.equals ( table.getHeader () ) ) 
+			{
+				// Somebody changed it, start over
+				rebuild ();
+				return findFree ( header, newSize );
+			}
+			// We don't move the cursor here, the table will be skipped at the next call, since it will be filled
+			if ( table.getRows ().size () < newSize ) return table;
+		}
+		return null;
+	}
+
+	/**
+	 * Adds the table to the end of the list.
+	 */
+	void add ( StructuredTable table )
+	{
+		sync ();
+		tables.add ( table );
+		index ( table );
+		indexedSize++;
+	}
+	
+	/**
+	 * Indexes the tables added to the list from outside.
+	 */
+	private void sync ()
+	{
+		if ( tables.size () < indexedSize ) rebuild ();
+		for ( int n = tables.size (); indexedSize < n; indexedSize++ )
+			index ( tables.get ( indexedSize ) );
+	}
+	
+	private void rebuild ()
+	{
+		candidates.clear ();
+		indexedSize = 0;
+		sync ();
+	}
+	
+	private void index ( StructuredTable table )
+	{
+		Candidates cands = candidates.get ( table.getHeader () );
+		if ( cands == null ) candidates.put ( table.getHeader (), cands = new Candidates () );
+		cands.tables.add ( table );
+	}
+}
@@ -48,19 +48,19 @@ The ISA Team and the ISA software suite have been funded by the EU Carcinogenomi
 package org.isatools.tablib.export.graph2tab;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.SortedMap;
 import java.util.SortedSet;
-import java.util.TreeMap;
 import java.util.TreeSet;
 
 import org.apache.commons.lang.StringUtils;
 import org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportCounter;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportListener;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportPhase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -97,23 +97,39 @@ public class LayersBuilder
 {
 	private boolean isInitialized = false;
 
-	private final Set<Node> endNodes;
+	private final GraphSnapshot graph;
 	
 	/**
-	 * Allows to know all the nodes in a given layer, which is needed for completing the layering computation.
+	 * Allows to know all the nodes in a given layer, which is needed for completing the layering computation. Nodes
+	 * are represented by their {@link GraphSnapshot#getNodeRank(int) rank}, so that these sets follow the {@link Node} 
+	 * order with no need to compare nodes.
 	 */
-	private SortedMap<Integer, SortedSet<Node>> layer2Nodes = new TreeMap<Integer, SortedSet<Node>> ();
+	private final List<BitSet> layer2Nodes = new ArrayList<BitSet> ();
 	
 	/**
-	 * Allows to know the layer a node is associated to. This is initially null.
+	 * Allows to know the layer a node is associated to, indexed by {@link GraphSnapshot} node id. This is initially -1.
 	 */
-	private Map<Node, Integer> node2Layer = new HashMap<Node, Integer> (); 
+	private final int[] node2Layer; 
+	
+	/**
+	 * Used by {@link #shift2Right(int)} to mark the nodes it visits, every shift gets a new stamp.
+	 */
+	private final int[] visitStamps;
+	private int visitStamp = 0;
 	
 	/**
 	 * The max layer index that was computed.
 	 */
 	private int maxLayer = -1;
 
+	private ExportListener exportListener = null;
+	private CancellationToken cancellationToken = null;
+	
+	/**
+	 * The calls to {@link #shift2Right(int)}, reported as {@link ExportCounter#LAYER_SHIFTS}.
+	 */
+	private int shiftCount = 0;
+
 	protected final Logger log = LoggerFactory.getLogger ( this.getClass () );
 
 	/**
@@ -122,7 +138,19 @@ public class LayersBuilder
 	 */
 	public LayersBuilder ( Set<Node> endNodes )
 	{
-		this.endNodes = endNodes;
+		this ( new GraphSnapshot ( endNodes ) );
+	}
+
+	/**
+	 * Layers a graph that was already captured, e.g., by {@link TableBuilder}.
+	 */
+	public LayersBuilder ( GraphSnapshot graph )
+	{
+		this.graph = graph;
+		int nnodes = graph.getNodeCount ();
+		node2Layer = new int [ nnodes ];
+		Arrays.fill ( node2Layer, -1 );
+		visitStamps = new int [ nnodes ];
 	}
 
 	
@@ -130,61 +158,66 @@ public class LayersBuilder
 	 * Set the layer for a node, which means all the two internal structures used for that are updated.
 	 * 
 	 */
-	private void setLayer ( Node node, int layer ) 
+	private void setLayer ( int n, int layer ) 
 	{
+		int rank = graph.getNodeRank ( n );
+		
 		// Remove from the old layer
-		Integer oldLayer = node2Layer.get ( node );
-		if ( oldLayer != null )
+		int oldLayer = node2Layer [ n ];
+		if ( oldLayer != -1 )
 		{
-			SortedSet<Node> oldLayerNodes = layer2Nodes.get ( oldLayer );
-			if ( oldLayerNodes.remove ( node ) && oldLayerNodes.isEmpty () && oldLayer == maxLayer )
-				maxLayer--;
+			BitSet oldLayerNodes = layer2Nodes.get ( oldLayer );
+			if ( oldLayerNodes.get ( rank ) ) 
+			{
+				oldLayerNodes.clear ( rank );
+				if ( oldLayerNodes.isEmpty () && oldLayer == maxLayer ) maxLayer--;
+			}
 		}
 		
 		// Add to the new layer
-		SortedSet<Node> lnodes = layer2Nodes.get ( layer );
-		if ( lnodes == null ) {
-			lnodes = new TreeSet<Node> ();
-			layer2Nodes.put ( layer, lnodes );
-		}
-		lnodes.add ( node );
-		node2Layer.put ( node, layer );
+		getLayerRanks ( layer ).set ( rank );
+		node2Layer [ n ] = layer;
 		if ( layer > maxLayer ) maxLayer = layer;
 	}
 	
 	/**
-	 * The first stage of the layering algorithm, layer indexes are computed by walking the graph upstream, i.e.: 
-	 * layer ( n ) = max ( layer ( in ) ) for each in in {@link Node#getInputs()}. This is the recursive step.   
-	 * 
+	 * The node ranks in the layer, the set is created if it doesn't exist yet.
 	 */
-	private int computeUntypedLayer ( Node node )
+	private BitSet getLayerRanks ( int layer )
 	{
-		Integer result = node2Layer.get ( node );
-		if ( result != null ) return result;
-		
-		result = -1;
-		SortedSet<Node> ins = node.getInputs ();
-		
-		if ( !ins.isEmpty () ) 
-			for ( Node in: ins )
-			{
-				int il = computeUntypedLayer ( in );
-				if ( result < il ) result = il;
-		}
-		
-		setLayer ( node, ++result );
-		return result;
+		while ( layer2Nodes.size () <= layer ) layer2Nodes.add ( new BitSet () );
+		return layer2Nodes.get ( layer );
 	}
-
+	
 	/**
 	 * The first stage of the layering algorithm, layer indexes are computed by walking the graph upstream, i.e.: 
-	 * layer ( n ) = max ( layer ( in ) ) for each in in {@link Node#getInputs()}.   
+	 * layer ( n ) = max ( layer ( in ) ) + 1 for each in in {@link Node#getInputs()}. We do it by visiting the nodes in 
+	 * topological order, so that every node is met after all its inputs, which makes it a single pass over the edges.    
 	 * 
 	 */
 	private void computeUntypedLayers ()
 	{
-		for ( Node sink: endNodes )
-			computeUntypedLayer ( sink );
+		int nnodes = graph.getNodeCount ();
+		int[] layers = new int [ nnodes ], pendingIns = new int [ nnodes ], queue = new int [ nnodes ];
+		int head = 0, tail = 0;
+		
+		for ( int n = 0; n < nnodes; n++ )
+			if ( ( pendingIns [ n ] = graph.getInDegree ( n ) ) == 0 ) queue [ tail++ ] = n;
+		
+		while ( head < tail )
+		{
+			if ( cancellationToken != null && head % ExportListener.PROGRESS_INTERVAL == 0 ) cancellationToken.check ();
+			
+			int n = queue [ head++ ];
+			setLayer ( n, layers [ n ] );
+			
+			for ( int e = graph.getOutEdgesStart ( n ), end = graph.getOutEdgesEnd ( n ); e < end; e++ )
+			{
+				int out = graph.getEdgeTarget ( e );
+				if ( layers [ out ] <= layers [ n ] ) layers [ out ] = layers [ n ] + 1;
+				if ( --pendingIns [ out ] == 0 ) queue [ tail++ ] = out;
+			}
+		}
 	}
 
 	
@@ -196,17 +229,31 @@ public class LayersBuilder
 	 */
 	private void computeTypedLayers ()
 	{
+		long startTime = 0;
+		if ( exportListener != null ) 
+		{
+			exportListener.phaseStarted ( ExportPhase.LAYERING );
+			startTime = System.nanoTime ();
+		}
+		
 		computeUntypedLayers ();
 		
 		// Go through all the layers.
 		for ( int layer = 0; layer <= maxLayer; layer++ ) 
 		{
+			if ( cancellationToken != null ) cancellationToken.check ();
+			if ( exportListener != null ) exportListener.progressed ( ExportPhase.LAYERING, layer, maxLayer + 1 );
+			
 			if ( layer > 0 && log.isTraceEnabled () )
 				log.trace ( "layering algo, layer " + ( layer - 1 ) + "/" + maxLayer + " processed" );
 			log.trace ( "layering algo, working on the layer " + layer + "/" + maxLayer );
 			
-			List<Node> layerNodes = new ArrayList<Node> ( layer2Nodes.get ( layer ) );
-			int nn = layerNodes.size ();
+			// A copy of the layer, since the loops below can change it
+			BitSet layerRanks = getLayerRanks ( layer );
+			int nn = layerRanks.cardinality ();
+			int[] layerNodes = new int [ nn ];
+			for ( int i = 0, r = layerRanks.nextSetBit ( 0 ); r >= 0; r = layerRanks.nextSetBit ( r + 1 ) ) 
+				layerNodes [ i++ ] = graph.getRankedNode ( r );
 			
 			// First, compute the minimum and the min-order on the left and on the right
 			//
@@ -216,7 +263,7 @@ public class LayersBuilder
 
 			for ( int i = 0; i < nn; i++ )
 			{
-				Node node = layerNodes.get ( i );
+				Node node = graph.getNode ( layerNodes [ i ] );
 				int order = node.getOrder ();
 				String type = StringUtils.trimToNull ( node.getType () );
 
@@ -252,7 +299,7 @@ public class LayersBuilder
 			
 			for ( int i = 0; i < nn; i++ )
 			{
-				Node node = layerNodes.get ( i );
+				Node node = graph.getNode ( layerNodes [ i ] );
 				int order = node.getOrder ();
 				String type = StringUtils.trimToNull ( node.getType () );
 				
@@ -268,51 +315,74 @@ public class LayersBuilder
 				  // node, which remain here.
 				  || minOrder != -1 && closer2Right && hasOrderUndefinedNodes && order == minOrder
 				)
-					shift2Right ( node );
+					shift2Right ( layerNodes [ i ] );
 			
 			} // for node
 			
 		} // for layer
 		
 		isInitialized = true;
+		
+		if ( exportListener != null ) 
+		{
+			exportListener.progressed ( ExportPhase.LAYERING, maxLayer + 1, maxLayer + 1 );
+			exportListener.counterIncreased ( ExportCounter.LAYER_SHIFTS, shiftCount );
+			exportListener.phaseFinished ( ExportPhase.LAYERING, System.nanoTime () - startTime );
+		}
 	}
 	
 	
 	/**
-	 * Shifts the node to the right (i.e.: increase its layer index) and starts the propagation of that on the right side, 
-	 * by invoking {@link #shift2Right(Node, List, int) shift2Right ( n, null, -1 )}.
+	 * Shifts the node to the right (i.e.: increase its layer index) and propagates that on the right side: every output
+	 * that, after the shift, is no longer on the right of its input is shifted in turn, and so on, until nodes are 
+	 * moved in a empty layer. The propagation is a depth-first visit based on an explicit stack, which stops on nodes 
+	 * that were already touched by the same shift (i.e., those having the current stamp in {@link #visitStamps}).
 	 * 
 	 */
-	private void shift2Right ( Node n ) {
-		shift2Right ( n, -1, new HashSet<Node> () );
-	}
-
-
-	/**
-	 * Shifts the node to the right (i.e.: increase its layer index) and recursively propagates that on the right side.
-	 * visitedNodes allows it to stop the propagation on nodes that were already touched by this recursion. 
-
-	 * @param n the node to be shifted, the method will recurse over n.getOutputs()
-	 * @param prevNewLayer is the layer index that was computed by the previous recursive call (initially it is -1). This
-	 * method recurse until the node is moved in a empty layer
-	 * @param visitedNodes allows it to stop the propagation on nodes that were already touched by this recursion
-	 * 
-	 */
-	private void shift2Right ( Node n, int prevNewLayer, Set<Node> visitedNodes )
+	private void shift2Right ( int n ) 
 	{
-		// Visited, give up
-		if ( visitedNodes.contains ( n ) ) return;
+		if ( cancellationToken != null ) cancellationToken.check ();
+		
+		int stamp = ++visitStamp;
+		shiftCount++;
 		
-		int oldlayer = node2Layer.get ( n );
+		setLayer ( n, node2Layer [ n ] + 1 );
+		visitStamps [ n ] = stamp;
+		int nshifted = 1;
 
-		// The previous shift had enough room, give up
-		if ( prevNewLayer != -1 &&  oldlayer - prevNewLayer > 0 ) return;
+		// The nodes being visited, with their next edge to follow
+		int[] stackNodes = new int [ 16 ], stackCursors = new int [ 16 ];
+		stackNodes [ 0 ] = n; stackCursors [ 0 ] = graph.getOutEdgesStart ( n );
+		int top = 1;
 		
-		setLayer ( n, ++oldlayer );
-		visitedNodes.add ( n );
+		while ( top > 0 )
+		{
+			int node = stackNodes [ top - 1 ], e = stackCursors [ top - 1 ];
+			if ( e == graph.getOutEdgesEnd ( node ) ) { top--; continue; }
+			stackCursors [ top - 1 ]++;
+			
+			int out = graph.getEdgeTarget ( e );
+			
+			// Visited, give up
+			if ( visitStamps [ out ] == stamp ) continue;
+			
+			// The previous shift had enough room, give up
+			int oldLayer = node2Layer [ out ];
+			if ( oldLayer - node2Layer [ node ] > 0 ) continue;
+			
+			setLayer ( out, oldLayer + 1 );
+			visitStamps [ out ] = stamp;
+			nshifted++;
+			
+			if ( top == stackNodes.length ) {
+				stackNodes = Arrays.copyOf ( stackNodes, top * 2 );
+				stackCursors = Arrays.copyOf ( stackCursors, top * 2 );
+			}
+			stackNodes [ top ] = out;
+			stackCursors [ top++ ] = graph.getOutEdgesStart ( out );
+		}
 		
-		for ( Node out: n.getOutputs () )
-			shift2Right ( out, oldlayer, visitedNodes );
+		if ( exportListener != null ) exportListener.layerShifted ( graph.getNode ( n ), nshifted );
 	}
 	
 	/**
@@ -332,10 +402,10 @@ public class LayersBuilder
 	{
 		while ( --layer >= 0 ) 
 		{
-			SortedSet<Node> lNodes = layer2Nodes.get ( layer );
+			BitSet lNodes = getLayerRanks ( layer );
 			if ( !lNodes.isEmpty () ) 
 			{ 
-				int lno = lNodes.first ().getOrder ();
+				int lno = graph.getNode ( graph.getRankedNode ( lNodes.nextSetBit ( 0 ) ) ).getOrder ();
 				// Ignore "doesn't matter" nodes
 				if ( lno > -1 ) return lno;  
 			}
@@ -352,13 +422,13 @@ public class LayersBuilder
 	{
 		while ( ++layer <= maxLayer ) 
 		{
-			SortedSet<Node> rNodes = layer2Nodes.get ( layer );
+			BitSet rNodes = getLayerRanks ( layer );
 			if ( !rNodes.isEmpty () ) 
 			{
 				int result = -1;
-				for ( Node rnode: rNodes ) 
+				for ( int r = rNodes.nextSetBit ( 0 ); r >= 0; r = rNodes.nextSetBit ( r + 1 ) ) 
 				{
-					int ro = rnode.getOrder ();
+					int ro = graph.getNode ( graph.getRankedNode ( r ) ).getOrder ();
 					// Ignore "doesn't matter" nodes and keep searching until you find "good" nodes
 					if ( ro < 0 ) continue;
 					if ( result == -1 || ro < result ) result = ro;
@@ -374,18 +444,34 @@ public class LayersBuilder
 	 * Exposes the layer index to the world.
 	 */
 	public int getLayer ( Node n ) 
+	{
+		return getLayer ( graph.getNodeId ( n ) );
+	}
+
+	/**
+	 * The layer index of a node, given its id in the {@link GraphSnapshot} this builder works on.
+	 */
+	public int getLayer ( int n ) 
 	{
 		if ( !isInitialized ) computeTypedLayers ();
-		return node2Layer.get ( n );
+		return node2Layer [ n ];
 	}
 	
 	/**
-	 * Exposes the layer nodes to the world, the returned set is unmodifiable.
+	 * Exposes the layer nodes to the world, the returned set is unmodifiable and it's built at every call.
 	 */
 	public SortedSet<Node> getLayerNodes ( int layer ) 
 	{
 		if ( !isInitialized ) computeTypedLayers ();
-		return Collections.unmodifiableSortedSet ( layer2Nodes.get ( layer ) );
+		return Collections.unmodifiableSortedSet ( toNodes ( getLayerRanks ( layer ) ) );
+	}
+	
+	private SortedSet<Node> toNodes ( BitSet ranks )
+	{
+		SortedSet<Node> result = new TreeSet<Node> ();
+		for ( int r = ranks.nextSetBit ( 0 ); r >= 0; r = ranks.nextSetBit ( r + 1 ) ) 
+			result.add ( graph.getNode ( graph.getRankedNode ( r ) ) );
+		return result;
 	}
 
 	/**
@@ -399,7 +485,41 @@ public class LayersBuilder
 		return maxLayer;
 	}
 
+	/**
+	 * If not null, this receives the duration of the {@link ExportPhase#LAYERING layering} and the no. of 
+	 * {@link ExportCounter#LAYER_SHIFTS shifts} it needed. Default is null.
+	 */
+	public ExportListener getExportListener ()
+	{
+		return exportListener;
+	}
+
+	/**
+	 * See {@link #getExportListener()}. This must be invoked before the layers are computed, i.e., before the first 
+	 * call to a method that returns them.
+	 */
+	public void setExportListener ( ExportListener exportListener )
+	{
+		this.exportListener = exportListener;
+	}
 		
+	/**
+	 * If not null, this is checked periodically while computing the layers, which is interrupted by a 
+	 * {@link java.util.concurrent.CancellationException} when the token is cancelled. Default is null.
+	 */
+	public CancellationToken getCancellationToken ()
+	{
+		return cancellationToken;
+	}
+
+	/**
+	 * See {@link #getCancellationToken()}. This must be invoked before the layers are computed.
+	 */
+	public void setCancellationToken ( CancellationToken cancellationToken )
+	{
+		this.cancellationToken = cancellationToken;
+	}
+
 	/**
 	 * A representation of the current graph layering, useful for debugging.
 	 * TODO: Move somewhere else?
@@ -413,9 +533,8 @@ public class LayersBuilder
 		{
 			result += "LAYER " + layer + ":\n";
 			result += "  ";
-			Set<Node> nodes = layer2Nodes.get ( layer );
-			if ( nodes == null ) continue;
-			for ( Node n: nodes )
+			if ( layer >= layer2Nodes.size () ) continue;
+			for ( Node n: toNodes ( layer2Nodes.get ( layer ) ) )
 				result += n + "  ";
 			result += "\n\n";
 		}
@@ -0,0 +1,417 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * <p>A compact column of string values, used by {@link StructuredTable} to store its rows.</p>
+ * 
+ * <p>The columns of an exported table are typically sparse (a column coming from a given node type is null in all 
+ * the rows that don't have such node) and long. So, instead of one reference per cell, we keep a bitmap of the 
+ * non-null cells and a dense array of the non-null values only (or their {@link StringDictionary} codes, when a 
+ * dictionary is used), plus the per-word counts of the bits set before each bitmap word (i.e., the rank), which allow 
+ * to find the value of a row in constant time. Appending values and nulls at the end (which is what happens when a 
+ * table is built) takes constant amortised time, while changing the null/non-null status of a cell in the middle, or 
+ * adding/removing a cell in the middle, costs time linear in the column size.</p>
+ * 
+ * <p>The first rows of the column can be {@link #spill(ColumnSpill, int) spilled to disk}, after which they can 
+ * still be read (from a memory-mapped file), but not changed anymore.</p> 
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+class StringColumn extends AbstractList<String> implements RandomAccess
+{
+	private static final String[] EMPTY_VALUES = new String [ 0 ];
+	private static final int[] EMPTY_CODES = new int [ 0 ];
+	private static final long[] EMPTY_BITS = new long [ 0 ];
+	private static final int[] EMPTY_RANKS = new int [ 0 ];
+	
+	/** The non-null values, in row order, values or codes are used, depending on the dictionary */
+	private String[] values = EMPTY_VALUES;
+	private int[] codes = EMPTY_CODES;
+	private int nvalues = 0;
+	private final StringDictionary dictionary;
+	
+	/** bit i is set if row offset + i is not null */
+	private long[] nonNulls = EMPTY_BITS;
+	
+	/** ranks [ w ] = no. of bits set in nonNulls [ 0 .. w - 1 ] */
+	private int[] ranks = EMPTY_RANKS;
+	
+	/** The no. of rows kept in memory, i.e., the rows from offset on */
+	private int size = 0;
+	
+	/** The rows before this were spilled to disk, in these blocks (rows having only nulls don't have any block) */
+	private int offset = 0;
+	private List<ColumnSpill.Block> spilledBlocks = Collections.emptyList ();
+	
+	
+	StringColumn () {
+		this ( (StringDictionary) null );
+	}
+
+	/**
+	 * If the dictionary isn't null, the values are stored as its codes.
+	 */
+	StringColumn ( StringDictionary dictionary ) {
+		this.dictionary = dictionary;
+	}
+
+	StringColumn ( StringColumn original ) 
+	{
+		this.dictionary = original.dictionary;
+		if ( dictionary == null ) 
+			this.values = Arrays.copyOf ( original.values, original.nvalues );
+		else
+			this.codes = Arrays.copyOf ( original.codes, original.nvalues );
+		this.nvalues = original.nvalues;
+		this.nonNulls = original.nonNulls.clone ();
+		this.ranks = original.ranks.clone ();
+		this.size = original.size;
+		this.offset = original.offset;
+		if ( !original.spilledBlocks.isEmpty () ) 
+			this.spilledBlocks = new ArrayList<ColumnSpill.Block> ( original.spilledBlocks );
+	}
+	
+	@Override
+	public int size () {
+		return offset + size;
+	}
+
+	@Override
+	public String get ( int index )
+	{
+		checkIndex ( index, offset + size );
+		if ( index < offset ) return getSpilled ( index );
+		index -= offset;
+		int w = index >>> 6;
+		long bit = 1L << index;
+		if ( ( nonNulls [ w ] & bit ) == 0 ) return null;
+		return getValue ( rank ( w, bit ) );
+	}
+	
+	/**
+	 * The position in values of the row corresponding to a word and bit.
+	 */
+	private int rank ( int w, long bit )
+	{
+		return ranks [ w ] + Long.bitCount ( nonNulls [ w ] & ( bit - 1 ) );
+	}
+
+	@Override
+	public String set ( int index, String value )
+	{
+		checkIndex ( index, offset + size );
+		checkNotSpilled ( index );
+		return setLocal ( index - offset, value );
+	}
+	
+	/**
+	 * Does the job of {@link #set(int, String)}, index is relative to the in-memory rows.
+	 */
+	private String setLocal ( int index, String value )
+	{
+		int w = index >>> 6;
+		long bit = 1L << index;
+		int vidx = rank ( w, bit );
+		
+		if ( ( nonNulls [ w ] & bit ) != 0 )
+		{
+			String old = getValue ( vidx );
+			if ( value != null )
+			{
+				if ( dictionary == null ) values [ vidx ] = value; else codes [ vidx ] = dictionary.encode ( value );
+			}
+			else 
+			{
+				// non-null => null, remove from the values
+				if ( dictionary == null ) 
+				{
+					System.arraycopy ( values, vidx + 1, values, vidx, nvalues - vidx - 1 );
+					values [ nvalues - 1 ] = null;
+				}
+				else
+					System.arraycopy ( codes, vidx + 1, codes, vidx, nvalues - vidx - 1 );
+				nvalues--;
+				nonNulls [ w ] &= ~bit;
+				addRanks ( w + 1, -1 );
+			}
+			return old;
+		}
+		
+		if ( value == null ) return null;
+		
+		// null => non-null, insert in the values
+		insertValue ( vidx, value );
+		nonNulls [ w ] |= bit;
+		addRanks ( w + 1, 1 );
+		return null;
+	}
+
+	@Override
+	public void add ( int index, String value )
+	{
+		checkIndex ( index, offset + size + 1 );
+		checkNotSpilled ( index );
+		index -= offset;
+		
+		if ( index == size ) 
+		{
+			// The common case, growing at the end
+			resizeLocal ( size + 1 );
+			if ( value != null ) setLocal ( index, value );
+			modCount++;
+			return;
+		}
+		
+		// Shift all the bits from the index on to the right
+		resizeLocal ( size + 1 );
+		int w = index >>> 6, nwords = words ( size );
+		for ( int i = nwords - 1; i > w; i-- )
+			nonNulls [ i ] = nonNulls [ i ] << 1 | nonNulls [ i - 1 ] >>> 63;
+		long lowMask = ( 1L << index ) - 1;
+		nonNulls [ w ] = nonNulls [ w ] & lowMask | ( nonNulls [ w ] & ~lowMask ) << 1;
+		recomputeRanks ( w + 1 );
+		
+		if ( value != null ) setLocal ( index, value );
+		modCount++;
+	}
+
+	@Override
+	public String remove ( int index )
+	{
+		String old = set ( index, null );
+		index -= offset;
+		
+		// Shift all the bits after the index to the left
+		int w = index >>> 6, nwords = words ( size );
+		long lowMask = ( 1L << index ) - 1;
+		nonNulls [ w ] = nonNulls [ w ] & lowMask | ( nonNulls [ w ] >>> 1 ) & ~lowMask;
+		for ( int i = w + 1; i < nwords; i++ )
+		{
+			nonNulls [ i - 1 ] |= nonNulls [ i ] << 63;
+			nonNulls [ i ] >>>= 1;
+		}
+		recomputeRanks ( w + 1 );
+		resizeLocal ( size - 1 );
+		modCount++;
+		return old;
+	}
+	
+	@Override
+	public void clear () 
+	{
+		offset = 0;
+		spilledBlocks = Collections.emptyList ();
+		resizeLocal ( 0 );
+		modCount++;
+	}
+
+	/**
+	 * Changes the size of the column, adding nulls at the end, or truncating it. 
+	 */
+	void resize ( int newSize )
+	{
+		checkNotSpilled ( newSize );
+		resizeLocal ( newSize - offset );
+	}
+	
+	/**
+	 * Does the job of {@link #resize(int)}, newSize is relative to the in-memory rows.
+	 */
+	private void resizeLocal ( int newSize )
+	{
+		if ( newSize < size )
+		{
+			// Clear the cells beyond the new size, so that they're null in case the column grows again
+			int w = newSize >>> 6, nwords = words ( size );
+			if ( w < nwords )
+			{
+				long bit = 1L << newSize;
+				int newNValues = ( newSize & 63 ) == 0 ? ranks [ w ] : rank ( w, bit );
+				if ( dictionary == null ) Arrays.fill ( values, newNValues, nvalues, null );
+				nvalues = newNValues;
+				if ( ( newSize & 63 ) != 0 ) nonNulls [ w++ ] &= bit - 1;
+				Arrays.fill ( nonNulls, w, nwords, 0L );
+				Arrays.fill ( ranks, w, nwords, nvalues );
+			}
+		}
+		else
+		{
+			int nwords = words ( newSize ), oldNWords = words ( size );
+			if ( nwords > nonNulls.length )
+			{
+				int capacity = Math.max ( nwords, nonNulls.length + ( nonNulls.length >> 1 ) + 1 ); 
+				nonNulls = Arrays.copyOf ( nonNulls, capacity );
+				ranks = Arrays.copyOf ( ranks, capacity );
+			}
+			// The ranks of the new words are all the same
+			Arrays.fill ( ranks, oldNWords, nwords, nvalues );
+		}
+		size = newSize;
+	}
+
+	/**
+	 * Writes the rows before upTo to the spill files and frees the memory they were taking. After this, those rows 
+	 * can be read, but not changed. If the column is shorter than upTo, it's extended with nulls. 
+	 */
+	void spill ( ColumnSpill spill, int upTo )
+	{
+		if ( upTo <= offset ) return;
+		if ( offset + size < upTo ) resize ( upTo );
+		
+		int n = upTo - offset;
+		int nspilled = n == size ? nvalues : rank ( n >>> 6, 1L << n );
+		if ( nspilled > 0 )
+		{
+			if ( spilledBlocks.isEmpty () ) spilledBlocks = new ArrayList<ColumnSpill.Block> ();
+			spilledBlocks.add ( spill.write ( this, offset, upTo ) );
+		}
+		
+		// Rebuild the in-memory part with the rows that remain, so that the old arrays can be released
+		String[] rest = new String [ size - n ];
+		for ( int i = 0; i < rest.length; i++ ) rest [ i ] = get ( upTo + i );
+		
+		values = EMPTY_VALUES;
+		codes = EMPTY_CODES;
+		nvalues = 0;
+		nonNulls = EMPTY_BITS;
+		ranks = EMPTY_RANKS;
+		size = 0;
+		offset = upTo;
+		
+		resizeLocal ( rest.length );
+		for ( int i = 0; i < rest.length; i++ ) 
+			if ( rest [ i ] != null ) setLocal ( i, rest [ i ] );
+	}
+	
+	/**
+	 * The no. of rows that were {@link #spill(ColumnSpill, int) spilled} to disk.
+	 */
+	int getSpilledSize () {
+		return offset;
+	}
+	
+	/**
+	 * Finds the row in the block that contains it, by means of binary search. 
+	 */
+	private String getSpilled ( int index )
+	{
+		int lo = 0, hi = spilledBlocks.size () - 1;
+		while ( lo <= hi )
+		{
+			int mid = ( lo + hi ) >>> 1;
+			ColumnSpill.Block block = spilledBlocks.get ( mid );
+			if ( index < block.fromRow ) hi = mid - 1;
+			else if ( index >= block.fromRow + block.nrows ) lo = mid + 1;
+			else return block.get ( index );
+		}
+		// No block, the row has a null
+		return null;
+	}
+
+	private String getValue ( int vidx ) {
+		return dictionary == null ? values [ vidx ] : dictionary.decode ( codes [ vidx ] );
+	}
+	
+	private void insertValue ( int vidx, String value )
+	{
+		if ( dictionary == null )
+		{
+			if ( nvalues == values.length ) 
+				values = Arrays.copyOf ( values, Math.max ( 4, values.length + ( values.length >> 1 ) ) );
+			System.arraycopy ( values, vidx, values, vidx + 1, nvalues - vidx );
+			values [ vidx ] = value;
+		}
+		else
+		{
+			if ( nvalues == codes.length ) 
+				codes = Arrays.copyOf ( codes, Math.max ( 4, codes.length + ( codes.length >> 1 ) ) );
+			System.arraycopy ( codes, vidx, codes, vidx + 1, nvalues - vidx );
+			codes [ vidx ] = dictionary.encode ( value );
+		}
+		nvalues++;
+	}
+
+	private void addRanks ( int fromWord, int delta )
+	{
+		for ( int i = fromWord, nwords = words ( size ); i < nwords; i++ ) ranks [ i ] += delta;
+	}
+	
+	private void recomputeRanks ( int fromWord )
+	{
+		for ( int i = Math.max ( fromWord, 1 ), nwords = words ( size ); i < nwords; i++ ) 
+			ranks [ i ] = ranks [ i - 1 ] + Long.bitCount ( nonNulls [ i - 1 ] );
+	}
+	
+	private static int words ( int nbits ) {
+		return ( nbits + 63 ) >>> 6;
+	}
+	
+	private void checkNotSpilled ( int index )
+	{
+		if ( index < offset ) throw new UnsupportedOperationException ( 
+			"Row " + index + " was spilled to disk and cannot be changed anymore" 
+		);
+	}
+	
+	private static void checkIndex ( int index, int size ) 
+	{
+		if ( index < 0 || index >= size ) throw new IndexOutOfBoundsException ( 
+			"Index " + index + " out of bounds for a column of size " + size 
+		);
+	}
+}
@@ -0,0 +1,113 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>A dictionary of strings, which maps every distinct string to an integer code, in [0, {@link #size()}).</p>
+ * 
+ * <p>This is used by {@link TableContents}, when {@link TableBuilder#isDictionaryEncoding()} is set, to store headers 
+ * and values as integer codes. In real experimental graphs, the same strings (e.g., organism names, ontology 
+ * references, protocol names) are repeated in many cells, often as different string objects, so this way every string 
+ * is kept once and headers can be compared by means of their codes.</p>
+ * 
+ * <p>This is not thread-safe.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class StringDictionary
+{
+	/**
+	 * The code used for nulls.
+	 */
+	public static final int NULL_CODE = -1;
+	
+	private final Map<String, Integer> codes = new HashMap<String, Integer> ();
+	private String[] strings = new String [ 16 ];
+	
+	/**
+	 * The code for the string, which is added to the dictionary if it's not there yet.  
+	 */
+	public int encode ( String s )
+	{
+		if ( s == null ) return NULL_CODE;
+		
+		Integer code = codes.get ( s );
+		if ( code != null ) return code;
+		
+		int newCode = codes.size ();
+		if ( newCode == strings.length ) strings = Arrays.copyOf ( strings, newCode * 2 );
+		strings [ newCode ] = s;
+		codes.put ( s, newCode );
+		return newCode;
+	}
+	
+	/**
+	 * The string having this code.
+	 */
+	public String decode ( int code )
+	{
+		if ( code == NULL_CODE ) return null;
+		if ( code < 0 || code >= codes.size () ) throw new IllegalArgumentException ( 
+			"The code " + code + " isn't in the string dictionary" 
+		);
+		return strings [ code ];
+	}
+	
+	/**
+	 * The number of strings in the dictionary.
+	 */
+	public int size () {
+		return codes.size ();
+	}
+}
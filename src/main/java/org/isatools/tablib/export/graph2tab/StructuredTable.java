@@ -56,8 +56,6 @@ import org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import uk.ac.ebi.utils.collections.ListUtils;
-
 /**
  * 
  * A Structured table. This is used internally by {@link TableBuilder#getTable()}. Essentially it allows to represent
@@ -77,8 +75,14 @@ public class StructuredTable
 {
 
 	private String header;
-	private final List<String> rows = new ArrayList<String> ();
+	private final StringColumn rows;
+	
+	/**
+	 * When not null, header and rows are encoded with this dictionary.
+	 */
+	private final StringDictionary dictionary;
 	private final List<StructuredTable> tail = new ArrayList<StructuredTable> ();
+	private final HeaderIndex tailIndex = new HeaderIndex ( tail );
 
 	protected final static Logger log = LoggerFactory.getLogger ( StructuredTable.class );
 
@@ -90,7 +94,8 @@ public class StructuredTable
 	public StructuredTable ( StructuredTable original )
 	{
 		this.header = original.header;
-		this.rows.addAll ( original.rows );
+		this.dictionary = original.dictionary;
+		this.rows = new StringColumn ( original.rows );
 		for ( StructuredTable stb: original.tail )
 			this.tail.add ( new StructuredTable ( stb ) );
 	}
@@ -108,7 +113,18 @@ public class StructuredTable
 	 */
 	public StructuredTable ( TabValueGroup tbg, int rowsSize )
 	{
-		this.header = StringUtils.defaultString ( tbg.getHeader () );
+		this ( tbg, rowsSize, null );
+	}
+
+	/**
+	 * Like {@link #StructuredTable(TabValueGroup, int)}, but the header and the values are stored as codes of the 
+	 * dictionary, if this isn't null. The dictionary is passed down to the tail. 
+	 */
+	public StructuredTable ( TabValueGroup tbg, int rowsSize, StringDictionary dictionary )
+	{
+		this.dictionary = dictionary;
+		setHeader ( StringUtils.defaultString ( tbg.getHeader () ) );
+		this.rows = new StringColumn ( dictionary );
 		if ( this.header.isEmpty () ) log.warn ( 
 			"Internal error in the graph2tab library, I've got an empty header from the input graph. This is most likely" +
 			" a bug in the graph2tab client package."
@@ -117,7 +133,7 @@ public class StructuredTable
 		addRowValue ( tbg.getValue (), rowsSize );
 		
 		for ( TabValueGroup tailTbg: tbg.getTail () )
-			this.tail.add ( new StructuredTable ( tailTbg, rowsSize ) );
+			this.tail.add ( new StructuredTable ( tailTbg, rowsSize, dictionary ) );
 	}
 	
 	/**
@@ -131,8 +147,13 @@ public class StructuredTable
 	 * You may want to change this during some post-processing re-arrangements.
 	 *  
 	 */
-	public void setHeader ( String header ) {
-		this.header = header;
+	public void setHeader ( String header ) 
+	{
+		if ( dictionary == null ) {
+			this.header = header;
+			return;
+		}
+		this.header = dictionary.decode ( dictionary.encode ( header ) );
 	}
 
 	
@@ -142,8 +163,10 @@ public class StructuredTable
 	 * {@link TableBuilder#getTable()}, which knows which row (== newSize) it is building. 
 	 *  
 	 */
-	public void addRowValue ( String value, int newSize ) {
-		ListUtils.set ( this.rows, newSize - 1, value );
+	public void addRowValue ( String value, int newSize ) 
+	{
+		if ( rows.size () < newSize ) rows.resize ( newSize );
+		rows.set ( newSize - 1, value );
 	}
 	
 	/**
@@ -158,6 +181,11 @@ public class StructuredTable
 	/**
 	 * The table values for this header (i.e., the values for the first single column).
 	 * This can be modified for re-arrangement operations, however do it at your own risk!
+	 * 
+	 * The values are kept in a compact form, where null cells take one bit, appending values and changing them is 
+	 * fast, while inserting or removing cells in the middle of the column (or turning them from/to null) is linear
+	 * in the column size. If the table contents were {@link TableContents#isSpilled() spilled to disk}, the spilled 
+	 * rows can only be read.
 	 */
 	public List<String> getRows () {
 		return rows;
@@ -191,13 +219,35 @@ public class StructuredTable
 	 * 
 	 */
 	public static void mergeTabValues ( List<StructuredTable> tables, int newSize, List<TabValueGroup> tbvs )
+	{
+		mergeTabValues ( tables, newSize, tbvs, null );
+	}
+	
+	/**
+	 * Like {@link #mergeTabValues(List, int, List)}, but the new tables use the dictionary to store their contents (if 
+	 * it's not null).
+	 */
+	public static void mergeTabValues ( 
+		List<StructuredTable> tables, int newSize, List<TabValueGroup> tbvs, StringDictionary dictionary 
+	)
 	{
 		if ( tables == null ) throw new RuntimeException ( 
 			"mergeRows() expects a non null table array as parameter" 
 		);
-		
+		mergeTabValues ( new HeaderIndex ( tables ), newSize, tbvs, dictionary );
+	}
+	
+	/**
+	 * Does the job of {@link #mergeTabValues(List, int, List, StringDictionary)}, using a header index over the 
+	 * tables to merge into, so that merging a node costs time proportional to the number of its values, no matter how 
+	 * many tables there are. The tails are merged by means of their own indexes. 
+	 */
+	static void mergeTabValues ( 
+		HeaderIndex tablesIndex, int newSize, List<TabValueGroup> tbvs, StringDictionary dictionary 
+	)
+	{
 		if ( tbvs == null ) {
-			mergeNullTabValues ( tables, newSize );
+			mergeNullTabValues ( tablesIndex.getTables (), newSize );
 			return;
 		}
 			
@@ -209,24 +259,17 @@ public class StructuredTable
 				" likely a bug in the graph2tab client package."
 			);
 			
-			boolean done = false;
-			
-			for ( StructuredTable table: tables )
+			StructuredTable table = tablesIndex.findFree ( rowHeader, newSize );
+			if ( table != null )
 			{
-				if ( !rowHeader.equals ( table.getHeader () ) ) continue;
-				if ( table.getRows ().size () < newSize )
-				{
-					// The header is still free for the row being built, so fill it. 
-					table.addRowValue ( tbg.getValue (), newSize );
-					mergeTabValues ( table.tail, newSize, tbg.getTail () );
-					done = true;
-					break;
-				}				
+				// The header is still free for the row being built, so fill it. 
+				table.addRowValue ( tbg.getValue (), newSize );
+				mergeTabValues ( table.tailIndex, newSize, tbg.getTail (), dictionary );
+				continue;
 			}
 
-			if ( done ) continue;
 			// else, we still have to fit the new header/value, so let's append it to the current array
-			tables.add ( new StructuredTable ( tbg, newSize ) );
+			tablesIndex.add ( new StructuredTable ( tbg, newSize, dictionary ) );
 		} // for rows
 	} // mergeRows()
 
@@ -261,11 +304,35 @@ public class StructuredTable
 	 */
 	public void exportAllRows ( List<String> existingRow, int irow )
 	{
-		existingRow.add ( ListUtils.get ( this.rows, irow ) );
+		existingRow.add ( irow < rows.size () ? rows.get ( irow ) : null );
 		for ( StructuredTable tailTb: tail )
 			tailTb.exportAllRows ( existingRow, irow );
 	}
 
+	/**
+	 * Collects the columns for this header ({@link #getRows()} and all the ones in {@link #getTail()}) into a plain 
+	 * list, in the same order used by {@link #exportAllHeaders(List)}. This allows to build the table rows without 
+	 * visiting the table structure for every row. Note that the collected columns may be shorter than the table, 
+	 * which means they have nulls at the end.  
+	 */
+	public void exportAllColumns ( List<List<String>> existingColumns )
+	{
+		existingColumns.add ( rows );
+		for ( StructuredTable tailTb: tail )
+			tailTb.exportAllColumns ( existingColumns );
+	}
+	
+	/**
+	 * Moves the rows before upTo to the spill files, for this column and, recursively, the tail. 
+	 * See {@link TableContents#getSpillHeapThreshold()}.
+	 */
+	void spill ( ColumnSpill spill, int upTo )
+	{
+		rows.spill ( spill, upTo );
+		for ( StructuredTable tailTb: tail )
+			tailTb.spill ( spill, upTo );
+	}
+
 	/**
 	 * Uses header, rows, tail, i.e. two structured columns are considered identical if they have the same 
 	 * header and row values, including the {@link StructuredTable#getTail()}.
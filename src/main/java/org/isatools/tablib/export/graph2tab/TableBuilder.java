@@ -51,15 +51,28 @@ package org.isatools.tablib.export.graph2tab;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileWriter;
+import java.io.FilterWriter;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.io.Writer;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 
 import org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator;
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowEngine;
+import org.isatools.tablib.export.graph2tab.monitoring.CompositeExportListener;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportCounter;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportListener;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportPhase;
 
 import com.opencsv.CSVWriter;
 
@@ -79,15 +92,36 @@ import com.opencsv.CSVWriter;
  * 
  * @author brandizi
  */
-public class TableBuilder
+public class TableBuilder implements AutoCloseable
 {
 	protected Set<Node> nodes;
 	protected final boolean isLayeringRequired; 
 	protected List<List<String>> table = null;
 	protected TableContents tableContents;
 	
+	private GraphSnapshot graph;
+	private GraphStatistics statistics = null;
 	private LayersBuilder layersBuilder;
 	private MinFlowCalculator minFlowCalc;
+	private MinFlowEngine minFlowEngine = MinFlowEngine.FORD_FULKERSON;
+	private ForkJoinPool forkJoinPool = null;
+	private TableLayout tableLayout;
+	private boolean isStreamingExport = false;
+	private boolean isDictionaryEncoding = false;
+	private double spillHeapThreshold = DEFAULT_SPILL_HEAP_THRESHOLD;
+	private File spillDirectory = null;
+	private ExportListener exportListener = ExportListener.newDefaultListener ();
+	private CancellationToken cancellationToken = null;
+	
+	/**
+	 * In {@link #isStreamingExport() streaming mode}, the output is flushed every time these rows are written.
+	 */
+	public static final int STREAMING_FLUSH_ROWS = 1000;
+
+	/**
+	 * The default for {@link #getSpillHeapThreshold()}, i.e., no spilling.
+	 */
+	public static final double DEFAULT_SPILL_HEAP_THRESHOLD = 0;
 	
 	
 	/**
@@ -112,8 +146,8 @@ public class TableBuilder
 	/**
 	 * The graph is worked out starting from the nodes you pass to this constructor. The sub-graphs that can be reached
 	 * going from these nodes to the left (i.e., exploring the outputs) and from the same nodes to the right (i.e., going
-	 * back through the inputs) is converted into a table. Because of the way the code works internally, if you pass the 
-	 * set of source nodes, i.e., those having no input, things will be a bit faster.
+	 * back through the inputs) is converted into a table. You can pass any set of nodes from which the graph can be 
+	 * reached this way (e.g., the sources, the sinks), the graph is read in linear time anyway.
 	 * 
 	 * @parameter isLayeringRequired true means that the graph may be uneven (with missing steps in the path from sources to sinks)
 	 * and therefore it will require that layers are computed via {@link LayersBuilder}. Set this parameter to false
@@ -126,6 +160,52 @@ public class TableBuilder
 	}
 
 	
+	/**
+	 * <p>Updates this builder after the exported graph has changed, so that the methods computing the table work on 
+	 * the new version of the graph from now on. nodes are the new nodes to start from (see 
+	 * {@link #TableBuilder(Set, boolean)}), changedNodes are those nodes which were added, or had their inputs, 
+	 * outputs or first value changed (including the nodes linked to added or removed nodes).</p>
+	 * 
+	 * <p>If the table was already computed, the new path cover is warm-started from the previous one (see 
+	 * {@link MinFlowCalculator#setWarmStart(MinFlowCalculator, Set)}): the graph components that weren't affected 
+	 * by the changes keep their previous rows, without any flow computation, and the other components are solved from 
+	 * scratch, so that the result is the same as the one of a new builder. The graph capture, the layering and the 
+	 * table contents are computed again, since the table columns are shared by all the graph components.</p> 
+	 * 
+	 * <p>As for {@link #close()}, the previous table is released.</p>
+	 */
+	public void update ( Set<Node> nodes, Set<Node> changedNodes )
+	{
+		MinFlowCalculator previousCalc = minFlowCalc;
+
+		this.nodes = nodes;
+		graph = null;
+		statistics = null;
+		minFlowCalc = null;
+		layersBuilder = null;
+		tableLayout = null;
+		close ();
+		
+		if ( previousCalc == null ) return;
+		initPathCover ();
+		minFlowCalc.setWarmStart ( previousCalc, changedNodes );
+	}
+	
+	/**
+	 * Releases the table computed so far, in particular, deletes the temporary files of its rows when they were 
+	 * {@link #getSpillHeapThreshold() spilled}, which otherwise are kept until the JVM exits (see 
+	 * {@link TableContents#close()}). You should call this when you're done with a table that might have been spilled, 
+	 * e.g., via a try-with-resources block. After this, the spilled tables returned by {@link #getTable()} cannot be 
+	 * read anymore, while the methods that compute the table can still be used, and compute it again.
+	 */
+	@Override
+	public void close ()
+	{
+		if ( tableContents != null ) tableContents.close ();
+		tableContents = null;
+		table = null;
+	}
+	
 	/**
 	 * The exported table, as a matrix of strings. Such result is built by means of {@link MinFlowCalculator#getMinPathCover()}
 	 * and applying the node merging procedures defined in {@link TableContents}. 
@@ -133,7 +213,32 @@ public class TableBuilder
 	public List<List<String>> getTable ()
 	{
 		if ( this.table != null ) return this.table;
-		return this.table = getTableContents().getTable ();
+		return this.table = getTableContents ().getTable ();
+	}
+	
+	/**
+	 * <p>The headers of {@link #getTable()}, computed without building the table.</p>
+	 * 
+	 * <p>This and {@link #getRowIterator()} are the streaming version of {@link #getTable()}: only the minimum flow 
+	 * is computed in advance, then the headers are computed with a first pass over the paths decomposed from the flow, 
+	 * which doesn't keep either the paths or the row values, then the rows are built one by one, when requested, by 
+	 * decomposing the flow again (see {@link MinFlowCalculator#getMinPathIterator()}). So, the memory used depends on 
+	 * the graph size (and the no. of columns), but not on the no. of rows. Note that these two methods work with the 
+	 * plain result of the path cover and don't consider any re-arrangement done by extensions of 
+	 * {@link #getTableContents()}.</p>
+	 */
+	public List<String> getHeaders ()
+	{
+		return getTableLayout ().getHeaders ();
+	}
+
+	/**
+	 * The rows of {@link #getTable()} (headers excluded), which are built on the fly while the iterator is used. See 
+	 * {@link #getHeaders()} for details. Every call returns a new iterator, which starts from the first row.
+	 */
+	public Iterator<List<String>> getRowIterator ()
+	{
+		return getTableLayout ().rowIterator ();
 	}
 	
 	/**
@@ -162,12 +267,65 @@ public class TableBuilder
 	 * 
 	 * This version allows you to first define the writer (and trigger your options) and then pass it.
 	 * More abstract versions available below.
+	 * 
+	 * If {@link #isStreamingExport()} is true, the table isn't built and the rows are written while they're computed, 
+	 * by means of {@link #getHeaders()} and {@link #getRowIterator()}.
 	 */
 	public void reportTSV ( CSVWriter out ) throws IOException
 	{
-		for ( List<String> row: getTable () )
-			out.writeNext ( (String[]) row.toArray ( new String [0] ) );
+		// Compute what's needed before the writing starts, so that it isn't counted as writing time (the rows are taken
+		// from the table contents during the writing)
+		if ( isStreamingExport ) getHeaders (); else getTableContents ();
+		long startTime = startPhase ( ExportPhase.TABLE_WRITING );
+
+		if ( isStreamingExport ) 
+			reportStreamedTSV ( out );
+		else
+		{
+			List<List<String>> table = getTable ();
+			int nrows = table.size () - 1, nwritten = -1; // -1 for the headers 
+			for ( List<String> row: table )
+			{
+				out.writeNext ( (String[]) row.toArray ( new String [0] ) );
+				if ( ++nwritten % ExportListener.PROGRESS_INTERVAL == 0 ) progress ( ExportPhase.TABLE_WRITING, nwritten, nrows );
+			}
+			flush ( out, nrows );
+			progress ( ExportPhase.TABLE_WRITING, nrows, nrows );
+		}
+		
+		finishPhase ( ExportPhase.TABLE_WRITING, startTime );
+	}
+	
+	/**
+	 * The streaming version of {@link #reportTSV(CSVWriter)}. The headers are written as soon as they're known and 
+	 * the output is flushed every {@link #STREAMING_FLUSH_ROWS} rows, so that the output can be consumed while it's 
+	 * being written.
+	 */
+	private void reportStreamedTSV ( CSVWriter out ) throws IOException
+	{
+		out.writeNext ( getHeaders ().toArray ( new String [ 0 ] ) );
+		flush ( out, 0 );
+		
+		int nrows = 0;
+		long totalRows = getTableLayout ().getRowCount ();
+		for ( Iterator<List<String>> rowItr = getRowIterator (); rowItr.hasNext (); )
+		{
+			out.writeNext ( rowItr.next ().toArray ( new String [ 0 ] ) );
+			if ( ++nrows % STREAMING_FLUSH_ROWS == 0 ) flush ( out, nrows );
+			if ( nrows % ExportListener.PROGRESS_INTERVAL == 0 ) progress ( ExportPhase.TABLE_WRITING, nrows, totalRows );
+		}
+		flush ( out, nrows );
+		progress ( ExportPhase.TABLE_WRITING, nrows, totalRows );
+	}
+	
+	/**
+	 * Flushes the output and reports it to the {@link #getExportListener() listener}, nrows is the number of rows 
+	 * written so far (headers excluded).
+	 */
+	private void flush ( CSVWriter out, int nrows ) throws IOException
+	{
 		out.flush ();
+		if ( exportListener != null ) exportListener.outputFlushed ( nrows );
 	}
 	
 	/**
@@ -179,7 +337,48 @@ public class TableBuilder
 	 */
 	public void reportTSV ( Writer out ) throws IOException
 	{
-		reportTSV ( new CSVWriter ( out, '\t', '"', '\\' ) );
+		if ( exportListener == null ) 
+		{
+			reportTSV ( new CSVWriter ( out, '\t', '"', '\\' ) );
+			return;
+		}
+		
+		CountingWriter countingOut = new CountingWriter ( out );
+		reportTSV ( new CSVWriter ( countingOut, '\t', '"', '\\' ) );
+		increaseCounter ( ExportCounter.CHARS_WRITTEN, countingOut.count );
+	}
+	
+	/**
+	 * Used by {@link TableBuilder#reportTSV(Writer)} to report {@link ExportCounter#CHARS_WRITTEN}.
+	 */
+	private static class CountingWriter extends FilterWriter
+	{
+		long count = 0;
+		
+		CountingWriter ( Writer out ) {
+			super ( out );
+		}
+
+		@Override
+		public void write ( int c ) throws IOException
+		{
+			super.write ( c );
+			count++;
+		}
+
+		@Override
+		public void write ( char[] cbuf, int off, int len ) throws IOException
+		{
+			super.write ( cbuf, off, len );
+			count += len;
+		}
+
+		@Override
+		public void write ( String str, int off, int len ) throws IOException
+		{
+			super.write ( str, off, len );
+			count += len;
+		}
 	}
 	
 	/**
@@ -192,7 +391,7 @@ public class TableBuilder
 	public String reportTSV () throws IOException
 	{
 		StringWriter sout = new StringWriter ();
-		reportTSV ( new CSVWriter ( sout, '\t', '"', '\\' ) );
+		reportTSV ( (Writer) sout );
 		return sout.toString ();
 	}
 
@@ -219,7 +418,7 @@ public class TableBuilder
 	
 	/** 
 	 * A wrapper of {@link MinFlowCalculator#outDot(String, LayersBuilder)}.
-	 * WARNING: you have to call getTable() before this method if you call it from outside.  
+	 * WARNING: you have to call getTable() (or {@link #getHeaders()}) before this method if you call it from outside.  
 	 */
 	public void outDot ( String filePath ) throws FileNotFoundException
 	{
@@ -228,13 +427,355 @@ public class TableBuilder
 	
 	/**
 	 * A wrapper of {@link MinFlowCalculator#outDot(PrintStream, LayersBuilder)}.
-	 * WARNING: you have to call getTable() before this method if you call it from outside.  
+	 * WARNING: you have to call getTable() (or {@link #getHeaders()}) before this method if you call it from outside.  
 	 */
 	public void outDot ( PrintStream out )
 	{
 		minFlowCalc.outDot ( out, layersBuilder );
 	}
 	
+	/**
+	 * The algorithm used to compute the minimum flow, and hence the rows, default is 
+	 * {@link MinFlowEngine#FORD_FULKERSON}.
+	 */
+	public MinFlowEngine getMinFlowEngine ()
+	{
+		return minFlowEngine;
+	}
+
+	/**
+	 * Changes the algorithm used to compute the minimum flow. This must be invoked before any method that computes
+	 * the table.
+	 */
+	public void setMinFlowEngine ( MinFlowEngine minFlowEngine )
+	{
+		if ( minFlowCalc != null ) throw new IllegalStateException ( 
+			"Cannot change the min flow algorithm after the table was computed" 
+		);
+		this.minFlowEngine = minFlowEngine;
+	}
+
+	/**
+	 * If this is true, the reportTSV() methods write the rows one by one while they are computed, instead of building 
+	 * the whole table first, so that the memory needed doesn't depend on the no. of rows (see {@link #getHeaders()}) 
+	 * and the output starts as soon as the headers are known, i.e., after the minimum flow and a first pass over the 
+	 * paths. The result is the same as the non-streaming mode, unless you extend 
+	 * {@link #getTableContents()} to re-arrange the table, which isn't considered by the streaming mode (see 
+	 * {@link #getHeaders()}). Default is false. 
+	 */
+	public boolean isStreamingExport ()
+	{
+		return isStreamingExport;
+	}
+
+	/**
+	 * See {@link #isStreamingExport()}.
+	 */
+	public void setStreamingExport ( boolean isStreamingExport )
+	{
+		this.isStreamingExport = isStreamingExport;
+	}
+
+	/**
+	 * If this is true, the {@link #getTableContents() table contents} are stored by means of a {@link StringDictionary}, 
+	 * i.e., every distinct header or value is kept once, and the table cells only contain integer codes. This saves 
+	 * a lot of memory when the same values are repeated in many cells (typical of experimental graphs), at the cost of 
+	 * a hash lookup per cell when the table is built. Default is false.
+	 */
+	public boolean isDictionaryEncoding ()
+	{
+		return isDictionaryEncoding;
+	}
+
+	/**
+	 * See {@link #isDictionaryEncoding()}. This must be invoked before any method that computes the table.
+	 */
+	public void setDictionaryEncoding ( boolean isDictionaryEncoding )
+	{
+		if ( tableContents != null ) throw new IllegalStateException ( 
+			"Cannot change the dictionary encoding after the table was computed" 
+		);
+		this.isDictionaryEncoding = isDictionaryEncoding;
+	}
+
+	/**
+	 * When the used heap reaches this fraction of the max heap, the rows of the {@link #getTableContents() table 
+	 * contents} that were built so far are moved to temporary files, and so are the next ones, so that the table is 
+	 * exported more slowly, rather than failing for lack of memory. The result is the same, but the rows of a spilled 
+	 * {@link #getTable() table} are read-only. 0 disables this behaviour and it's the default 
+	 * ({@link #DEFAULT_SPILL_HEAP_THRESHOLD}), since whether a table is spilled depends on the heap state. 
+	 * The used heap includes the garbage that wasn't collected yet, so this is rather coarse and values like 0.9 
+	 * might spill tables that would fit the memory. See {@link TableContents#getSpillHeapThreshold()} for details.
+	 */
+	public double getSpillHeapThreshold ()
+	{
+		return spillHeapThreshold;
+	}
+
+	/**
+	 * See {@link #getSpillHeapThreshold()}. This must be invoked before any method that computes the table.
+	 */
+	public void setSpillHeapThreshold ( double spillHeapThreshold )
+	{
+		if ( tableContents != null ) throw new IllegalStateException ( 
+			"Cannot change the spill heap threshold after the table was computed" 
+		);
+		if ( spillHeapThreshold < 0 || spillHeapThreshold > 1 ) throw new IllegalArgumentException ( 
+			"The spill heap threshold must be between 0 and 1, " + spillHeapThreshold + " is invalid" 
+		);
+		this.spillHeapThreshold = spillHeapThreshold;
+	}
+
+	/**
+	 * Where the temporary files for {@link #getSpillHeapThreshold()} are created, null (the default) means the 
+	 * system temporary directory.
+	 */
+	public File getSpillDirectory ()
+	{
+		return spillDirectory;
+	}
+
+	/**
+	 * See {@link #getSpillDirectory()}. This must be invoked before any method that computes the table.
+	 */
+	public void setSpillDirectory ( File spillDirectory )
+	{
+		if ( tableContents != null ) throw new IllegalStateException ( 
+			"Cannot change the spill directory after the table was computed" 
+		);
+		this.spillDirectory = spillDirectory;
+	}
+
+	/**
+	 * If not null, the rows are computed by working on the disconnected parts of the graph in parallel, using this
+	 * pool. See {@link MinFlowCalculator#getForkJoinPool()}. The layering is still computed over the whole graph, since 
+	 * the layers are the table columns, which are shared by all the graph components. Default is null.   
+	 */
+	public ForkJoinPool getForkJoinPool ()
+	{
+		return forkJoinPool;
+	}
+
+	/**
+	 * See {@link #getForkJoinPool()}. This must be invoked before any method that computes the table.
+	 */
+	public void setForkJoinPool ( ForkJoinPool forkJoinPool )
+	{
+		if ( minFlowCalc != null ) throw new IllegalStateException ( 
+			"Cannot change the fork/join pool after the table was computed" 
+		);
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * If not null, this receives the durations and the counters of the export phases, see {@link ExportListener}. 
+	 * Default is {@link ExportListener#newDefaultListener()}, which emits Java Flight Recorder events when it's 
+	 * available. Use {@link CompositeExportListener} if you want to set your own listener and keep the default one.
+	 */
+	public ExportListener getExportListener ()
+	{
+		return exportListener;
+	}
+
+	/**
+	 * See {@link #getExportListener()}. This must be invoked before any method that computes the table.
+	 */
+	public void setExportListener ( ExportListener exportListener )
+	{
+		if ( minFlowCalc != null ) throw new IllegalStateException ( 
+			"Cannot change the export listener after the table was computed" 
+		);
+		this.exportListener = exportListener;
+	}
+
+	/**
+	 * If not null, this is checked periodically while the table is computed or written, which is interrupted by a 
+	 * {@link CancellationException} when the token is cancelled, see {@link CancellationToken}. Default is null.
+	 */
+	public CancellationToken getCancellationToken ()
+	{
+		return cancellationToken;
+	}
+
+	/**
+	 * See {@link #getCancellationToken()}. This must be invoked before any method that computes the table.
+	 */
+	public void setCancellationToken ( CancellationToken cancellationToken )
+	{
+		if ( minFlowCalc != null ) throw new IllegalStateException ( 
+			"Cannot change the cancellation token after the table was computed" 
+		);
+		this.cancellationToken = cancellationToken;
+	}
+	
+	/**
+	 * <p>Computes {@link #getTable()} by means of the executor and returns a future for the result. If the future is 
+	 * cancelled before the table is ready, the computation stops, by means of the 
+	 * {@link #getCancellationToken() cancellation token} (a new one is set, if there isn't any yet), and this builder 
+	 * can't be used anymore.</p>
+	 *
+	 * <p>This must be invoked before any method that computes the table.</p> 
+	 */
+	public Future<List<List<String>>> buildAsync ( Executor executor )
+	{
+		if ( cancellationToken == null ) setCancellationToken ( new CancellationToken () );
+		final CancellationToken token = cancellationToken;
+		
+		FutureTask<List<List<String>>> result = new FutureTask<List<List<String>>> ( 
+			new Callable<List<List<String>>> () 
+			{
+				public List<List<String>> call () {
+					return getTable ();
+				}
+			}) 
+		{
+			@Override
+			public boolean cancel ( boolean mayInterruptIfRunning )
+			{
+				token.cancel ();
+				return super.cancel ( mayInterruptIfRunning );
+			}
+		};
+		
+		executor.execute ( result );
+		return result;
+	}
+
+	/**
+	 * Reports the start of a phase to the {@link #getExportListener() listener}, if any, and returns the start time.
+	 */
+	private long startPhase ( ExportPhase phase )
+	{
+		if ( exportListener == null ) return 0;
+		exportListener.phaseStarted ( phase );
+		return System.nanoTime ();
+	}
+
+	private void finishPhase ( ExportPhase phase, long startTime )
+	{
+		if ( exportListener == null ) return;
+		exportListener.phaseFinished ( phase, System.nanoTime () - startTime );
+	}
+
+	private void increaseCounter ( ExportCounter counter, long delta )
+	{
+		if ( exportListener != null ) exportListener.counterIncreased ( counter, delta );
+	}
+
+	/**
+	 * Checks the {@link #getCancellationToken() cancellation token} and reports the progress, if there are token and 
+	 * listener.
+	 */
+	private void progress ( ExportPhase phase, long value, long total )
+	{
+		if ( cancellationToken != null ) cancellationToken.check ();
+		if ( exportListener != null ) exportListener.progressed ( phase, value, total );
+	}
+
+	/**
+	 * The graph that is exported, as it was captured (if not already done) from the nodes passed to the constructor. 
+	 * This is where you can get figures like {@link GraphSnapshot#getNodeCount() the number of nodes} or 
+	 * {@link GraphSnapshot#getEdgeCount() edges}.
+	 */
+	public GraphSnapshot getGraph ()
+	{
+		if ( graph != null ) return graph;
+		
+		long startTime = startPhase ( ExportPhase.GRAPH_CAPTURE );
+		graph = new GraphSnapshot ( this.nodes );
+		increaseCounter ( ExportCounter.NODES, graph.getNodeCount () );
+		increaseCounter ( ExportCounter.EDGES, graph.getEdgeCount () );
+		finishPhase ( ExportPhase.GRAPH_CAPTURE, startTime );
+		
+		return graph;
+	}
+
+	/**
+	 * Figures about the graph that is exported, which don't require the table, e.g., bounds on its size. This 
+	 * {@link #getGraph() captures the graph}, if not already done, but doesn't compute anything else. 
+	 */
+	public GraphStatistics getStatistics ()
+	{
+		if ( statistics == null ) statistics = new GraphStatistics ( getGraph (), isLayeringRequired );
+		return statistics;
+	}
+
+	/**
+	 * The no. of rows in the table (excluding the headers), which is the value of the minimum flow (see 
+	 * {@link MinFlowCalculator#getMinFlowValue()}). If the table isn't computed yet, this only computes the minimum 
+	 * flow: no paths, no layering, no table, and {@link Node#getTabValues()} isn't invoked by graph2tab (the 
+	 * {@link Node} order might do it, when the graph is captured). Any later table computation reuses the flow. 
+	 */
+	public long getRowCount ()
+	{
+		initPathCover ();
+		return minFlowCalc.getMinFlowValue ();
+	}
+
+	/**
+	 * Sets up the path cover computation and the layering, if not already done. 
+	 */
+	private void initPathCover ()
+	{
+		if ( minFlowCalc != null ) return;
+		
+		// The graph is read once and then both the path cover and the layering work on this frozen version of it
+		GraphSnapshot graph = getGraph ();
+		minFlowCalc = new MinFlowCalculator ( graph, minFlowEngine );
+		minFlowCalc.setForkJoinPool ( forkJoinPool );
+		minFlowCalc.setExportListener ( exportListener );
+		minFlowCalc.setCancellationToken ( cancellationToken );
+		layersBuilder = isLayeringRequired ? new LayersBuilder ( graph ) : null;
+		if ( layersBuilder != null ) 
+		{
+			layersBuilder.setExportListener ( exportListener );
+			layersBuilder.setCancellationToken ( cancellationToken );
+		}
+	}
+	
+	/**
+	 * Computes the path cover and the layers, if not already done, so that the next phases don't include them.
+	 */
+	private List<List<Node>> computePathCover ()
+	{
+		initPathCover ();
+		List<List<Node>> result = minFlowCalc.getMinPathCover ();
+		if ( isLayeringRequired ) layersBuilder.getMaxLayer ();
+		return result;
+	}
+	
+	/**
+	 * The layout used by {@link #getHeaders()} and {@link #getRowIterator()}, computed on the first call.
+	 */
+	private TableLayout getTableLayout ()
+	{
+		if ( tableLayout != null ) return tableLayout;
+		
+		// Only the minimum flow is computed, the paths are decomposed from it twice, for the headers and for the rows, 
+		// without keeping them
+		initPathCover ();
+		final MinFlowCalculator calc = minFlowCalc;
+		calc.getMinFlowValue ();
+		if ( isLayeringRequired ) layersBuilder.getMaxLayer ();
+		
+		long startTime = startPhase ( ExportPhase.TABLE_MERGE );
+		tableLayout = new TableLayout ( 
+			new Iterable<List<Node>> () 
+			{
+				@Override
+				public Iterator<List<Node>> iterator () {
+					return calc.getMinPathIterator ();
+				}
+			}, 
+			layersBuilder 
+		);
+		long nrows = tableLayout.getRowCount ();
+		progress ( ExportPhase.TABLE_MERGE, nrows, nrows );
+		increaseCounter ( ExportCounter.ROWS, nrows );
+		finishPhase ( ExportPhase.TABLE_MERGE, startTime );
+		return tableLayout;
+	}
+
 	/**
 	 * Computes (if not already done) the final table and returns it in the form of a 
 	 * {@link TableContents nested per-column and per-layer structure}. This is invoked by {@link #getTable()}, which use
@@ -246,13 +787,16 @@ public class TableBuilder
 	{
 		if ( tableContents != null ) return tableContents;
 		
-		minFlowCalc = new MinFlowCalculator ( this.nodes );
-		layersBuilder = isLayeringRequired ? new LayersBuilder ( minFlowCalc.getEndNodes () ) : null;
+		List<List<Node>> paths = computePathCover ();
+		long startTime = startPhase ( ExportPhase.TABLE_MERGE );
 
-		tableContents = new TableContents ();
+		tableContents = new TableContents ( isDictionaryEncoding ? new StringDictionary () : null );
+		tableContents.setSpillHeapThreshold ( spillHeapThreshold );
+		tableContents.setSpillDirectory ( spillDirectory );
 		int nrows = 1; 
+		long nmerges = 0;
 		
-		for ( List<Node> path: minFlowCalc.getMinPathCover () )
+		for ( List<Node> path: paths )
 		{
 			int layer = 0, prevLayer = -1; 
 
@@ -262,12 +806,13 @@ public class TableBuilder
 				{
 					layer = layersBuilder.getLayer ( node );
 					// Start from the previous node layer and fill-in-the-blanks until you reach the current layer
-					for ( int layeri = prevLayer + 1; layeri < layer; layeri++ )
+					for ( int layeri = prevLayer + 1; layeri < layer; layeri++, nmerges++ )
 						tableContents.mergeNode ( layeri, null, nrows ); 
 					prevLayer = layer;
 				}
 				
 				tableContents.mergeNode ( layer, node, nrows );
+				nmerges++;
 	
 				// Hopefully some optimisation
 				if ( !isLayeringRequired ) layer++;
@@ -278,14 +823,19 @@ public class TableBuilder
 			{
 				// Fill-in-the-blanks until the last layer
 				int maxLayer = layersBuilder.getMaxLayer ();
-				for ( int layeri = prevLayer + 1; layeri <= maxLayer; layeri++ )
+				for ( int layeri = prevLayer + 1; layeri <= maxLayer; layeri++, nmerges++ )
 					tableContents.mergeNode ( layeri, null, nrows ); 
 			}
 			
+			if ( nrows % ExportListener.PROGRESS_INTERVAL == 0 ) progress ( ExportPhase.TABLE_MERGE, nrows, paths.size () );
 			nrows++;
 			
 		} // for each path		
 		
+		progress ( ExportPhase.TABLE_MERGE, paths.size (), paths.size () );
+		increaseCounter ( ExportCounter.MERGED_NODES, nmerges );
+		finishPhase ( ExportPhase.TABLE_MERGE, startTime );
+		
 		return tableContents;
 	}
 }
@@ -49,8 +49,14 @@
 package org.isatools.tablib.export.graph2tab;
 
 
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
 import java.util.*;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import uk.ac.ebi.utils.collections.ListUtils;
 
 
@@ -65,6 +71,10 @@ import uk.ac.ebi.utils.collections.ListUtils;
  * obtained from the initial input experimental work flow.  
  * <p/>
  * 
+ * If a {@link #getSpillHeapThreshold() heap threshold} is set, the completed rows are moved to temporary files when 
+ * the heap becomes too full, so that tables bigger than the available memory can be built.
+ * <p/>
+ * 
  * <dl>
  * <dt>date</dt>
  * <dd>Jun 27, 2011</dd>
@@ -72,20 +82,51 @@ import uk.ac.ebi.utils.collections.ListUtils;
  * 
  * @author brandizi
  */
-public class TableContents
+public class TableContents implements AutoCloseable
 {
 	/**
 	 * All the contents
 	 */
-	private final Map<Integer, List<StructuredTable>> layerContents = new HashMap<Integer, List<StructuredTable>> ();
+	private final List<List<StructuredTable>> layerContents = new ArrayList<List<StructuredTable>> ();
+	private final List<HeaderIndex> layerIndexes = new ArrayList<HeaderIndex> ();
 	private int nrows = 0;
-	private int maxLayer = -1;
+	private final StringDictionary dictionary;
+	
+	/**
+	 * The heap usage is checked every this no. of rows, see {@link #getSpillHeapThreshold()}.
+	 */
+	public static final int SPILL_CHECK_ROWS = 1024;
+	
+	private double spillHeapThreshold = 0;
+	private File spillDirectory = null;
+	private ColumnSpill spill = null;
+	private int spillWindow = 0, spilledRows = 0;
+
+	protected final static Logger log = LoggerFactory.getLogger ( TableContents.class );
+
+	public TableContents () {
+		this ( null );
+	}
+	
+	/**
+	 * If the dictionary isn't null, headers and values are stored as its codes, see {@link StringDictionary}.
+	 */
+	public TableContents ( StringDictionary dictionary ) {
+		this.dictionary = dictionary;
+	}
+	
+	/**
+	 * The dictionary used to store the table contents, null if they're stored as plain strings. 
+	 */
+	public StringDictionary getDictionary () {
+		return dictionary;
+	}
 
 	/**
 	 * @return The max layer index stored so far.
 	 */
 	public int getMaxLayer () {
-		return maxLayer;
+		return layerContents.size () - 1;
 	}
 	
 	/**
@@ -95,12 +136,13 @@ public class TableContents
 	 */
 	public List<StructuredTable> getLayerContent ( int layer )
 	{
-		List<StructuredTable> layerCont = layerContents.get ( layer );
-		if ( layerCont != null ) return layerCont;
-		
-		layerContents.put ( layer, layerCont = new ArrayList<StructuredTable> () );
-		if ( layer > maxLayer ) maxLayer = layer;
-		return layerCont;
+		while ( layerContents.size () <= layer ) 
+		{
+			List<StructuredTable> layerCont = new ArrayList<StructuredTable> ();
+			layerContents.add ( layerCont );
+			layerIndexes.add ( new HeaderIndex ( layerCont ) );
+		}
+		return layerContents.get ( layer );
 	}
 
 	/**
@@ -114,13 +156,114 @@ public class TableContents
 	 */
 	public void mergeNode ( int layer, Node node, int newRowsSize )
 	{
-		List<StructuredTable> layerCont = getLayerContent ( layer ); 
-		StructuredTable.mergeTabValues ( layerCont, newRowsSize, node == null ? null : node.getTabValues () );
+		// A new row, all the previous ones are complete
+		if ( newRowsSize > nrows && spillHeapThreshold > 0 ) checkSpill ( newRowsSize - 1 );
+		
+		getLayerContent ( layer ); 
+		StructuredTable.mergeTabValues ( 
+			layerIndexes.get ( layer ), newRowsSize, node == null ? null : node.getTabValues (), dictionary 
+		);
 
 		if ( newRowsSize > nrows ) nrows = newRowsSize;
 	}
 	
 	
+	/**
+	 * <p>If this is greater than 0, the table rows are moved to temporary files (see {@link #getSpillDirectory()}) 
+	 * when the used heap reaches this fraction of the maximum heap (as reported by the {@link java.lang.management.MemoryMXBean}), so 
+	 * that the table can still be built, more slowly, instead of running out of memory. Default is 0, i.e., never 
+	 * spill.</p>
+	 * 
+	 * <p>The heap is checked every {@link #SPILL_CHECK_ROWS} rows. When it's first found above the threshold, all 
+	 * the completed rows are spilled, then the spilling continues every time as many rows as a window are completed, 
+	 * where the window size is half the rows that were in memory when the threshold was reached. The spilled rows are 
+	 * read back from memory-mapped files, so the result is the same, but they cannot be changed anymore (i.e., 
+	 * re-arrangements of the table contents are only possible for the rows still in memory). This requires that the 
+	 * rows are merged in order, as {@link TableBuilder} does.</p> 
+	 */
+	public double getSpillHeapThreshold () {
+		return spillHeapThreshold;
+	}
+
+	/**
+	 * See {@link #getSpillHeapThreshold()}. This must be invoked before any node is merged.
+	 */
+	public void setSpillHeapThreshold ( double spillHeapThreshold )
+	{
+		if ( nrows > 0 ) throw new IllegalStateException ( 
+			"Cannot change the spill threshold after the table contents started being built" 
+		);
+		if ( spillHeapThreshold < 0 || spillHeapThreshold > 1 ) throw new IllegalArgumentException ( 
+			"The spill heap threshold must be between 0 and 1, " + spillHeapThreshold + " is invalid" 
+		);
+		this.spillHeapThreshold = spillHeapThreshold;
+	}
+
+	/**
+	 * Where the temporary files are created, when {@link #getSpillHeapThreshold() spilling} is needed. Null 
+	 * (the default) means the system temporary directory. 
+	 */
+	public File getSpillDirectory () {
+		return spillDirectory;
+	}
+
+	/**
+	 * See {@link #getSpillDirectory()}.
+	 */
+	public void setSpillDirectory ( File spillDirectory ) {
+		this.spillDirectory = spillDirectory;
+	}
+	
+	/**
+	 * True if some rows were moved to disk, see {@link #getSpillHeapThreshold()}.
+	 */
+	public boolean isSpilled () {
+		return spill != null;
+	}
+
+	/**
+	 * Deletes the temporary files where the rows were {@link #isSpilled() spilled}, if any, which otherwise are 
+	 * released only when the JVM exits. After this, the spilled rows cannot be read anymore, i.e., the results of 
+	 * {@link #getRows()} and {@link #getTable()} throw an {@link IllegalStateException} when you try to access them. 
+	 * This does nothing if the contents weren't spilled.
+	 */
+	@Override
+	public void close ()
+	{
+		if ( spill != null ) spill.close ();
+	}
+
+	/**
+	 * Spills the completed rows, if the heap is too full or if the spilling has started and the window is full. 
+	 */
+	private void checkSpill ( int ncompleted )
+	{
+		if ( spill == null )
+		{
+			if ( ncompleted == 0 || ncompleted % SPILL_CHECK_ROWS != 0 ) return;
+
+			MemoryUsage heap = ManagementFactory.getMemoryMXBean ().getHeapMemoryUsage ();
+			long maxHeap = heap.getMax () == -1 ? heap.getCommitted () : heap.getMax ();
+			if ( heap.getUsed () < spillHeapThreshold * maxHeap ) return;
+			
+			spill = new ColumnSpill ( spillDirectory );
+			spillWindow = Math.max ( SPILL_CHECK_ROWS, ncompleted / 2 );
+			log.info ( 
+				"The heap usage is {}/{} bytes after {} table rows, moving the completed rows to disk, every {} rows",
+				new Object[] { heap.getUsed (), maxHeap, ncompleted, spillWindow }
+			);
+		}
+		else if ( ncompleted - spilledRows < spillWindow ) 
+			return;
+		
+		for ( List<StructuredTable> layerCont: layerContents )
+			for ( StructuredTable table: layerCont )
+				table.spill ( spill, ncompleted );
+		spilledRows = ncompleted;
+		
+		log.debug ( "{} table rows spilled to disk, {} bytes", spilledRows, spill.getSpilledBytes () );
+	}
+	
 	/**
 	 * @return report of current contents
 	 * 
@@ -130,7 +273,7 @@ public class TableContents
 	{
 		StringBuilder sb = new StringBuilder ();
 		sb.append ( "-- ROWS: " + nrows + "\n\n" );
-		for ( int layer = 0; layer <= maxLayer; layer++ )
+		for ( int layer = 0; layer < layerContents.size (); layer++ )
 		{
 			List<StructuredTable> layerCont = layerContents.get ( layer );
 			sb.append ( "---- LAYER: " + layer + "\n" );
@@ -195,42 +338,91 @@ public class TableContents
 	 */
 	public List<String> getHeaders ()
 	{
-		List<String> result = new LinkedList<String> ();
-		for ( int layer = 0; layer <= maxLayer; layer++ )
-			for ( StructuredTable table: getLayerContent ( layer ) )
+		List<String> result = new ArrayList<String> ();
+		for ( List<StructuredTable> layerCont: layerContents )
+			for ( StructuredTable table: layerCont )
 				table.exportAllHeaders ( result );
 		return result;
 	}
 
+	/**
+	 * All the columns inside the nested structures, in the same order of {@link #getHeaders()}. 
+	 * See {@link StructuredTable#exportAllColumns(List)}.
+	 */
+	private List<List<String>> getColumns ()
+	{
+		List<List<String>> result = new ArrayList<List<String>> ();
+		for ( List<StructuredTable> layerCont: layerContents )
+			for ( StructuredTable table: layerCont )
+				table.exportAllColumns ( result );
+		return result;
+	}
+
 	/**
 	 * Reports all the row values inside the nested structures (i.e., list of {@link StructuredTable}) that are associated to 
 	 * the layers, for a given row index. That is, the row for the final result.
 	 *  
-	 * It does that by going through the recursive structure of {@link StructuredTable}. 
-	 * The result is computed at every call, there's no caching.
+	 * columns are those coming from {@link #getColumns()}, so that we don't need to go through the recursive structure 
+	 * of {@link StructuredTable} for every row. The result is computed at every call, there's no caching.
 	 * 
 	 */
-	private List<String> getRow ( int irow )
+	private static List<String> getRow ( List<List<String>> columns, int irow )
 	{
-		List<String> result = new LinkedList<String> ();
-		for ( int layer = 0; layer <= maxLayer; layer++ )
-			for ( StructuredTable table: getLayerContent ( layer ) )
-				table.exportAllRows ( result, irow );
+		List<String> result = new ArrayList<String> ( columns.size () );
+		for ( List<String> column: columns )
+			result.add ( irow < column.size () ? column.get ( irow ) : null );
 		return result;
 	}
 	
+	/**
+	 * Used when the contents are {@link #isSpilled() spilled}, instead of building all the rows in memory, builds 
+	 * every row when it's requested. 
+	 */
+	private static class RowsView extends AbstractList<List<String>> implements RandomAccess
+	{
+		private final List<String> headers;
+		private final List<List<String>> columns;
+		private final int nrows;
+		
+		/**
+		 * if headers is not null, it's returned as first row.
+		 */
+		RowsView ( List<String> headers, List<List<String>> columns, int nrows )
+		{
+			this.headers = headers;
+			this.columns = columns;
+			this.nrows = nrows;
+		}
+
+		@Override
+		public List<String> get ( int index )
+		{
+			if ( headers == null ) return getRow ( columns, index ); 
+			return index == 0 ? headers : getRow ( columns, index - 1 );
+		}
+
+		@Override
+		public int size () {
+			return headers == null ? nrows : nrows + 1;
+		}
+	}
+	
 	/**
 	 * Reports all the row values inside the nested structures (i.e., list of {@link StructuredTable}) that are 
 	 * associated to the layers. That is, the rows for the final result.
 	 *  
-	 * It does that by going through the recursive structure of {@link StructuredTable}. 
-	 * The result is computed at every call, there's no caching.
+	 * It does that by going through the recursive structure of {@link StructuredTable} once, to collect the columns. 
+	 * The result is computed at every call, there's no caching. If the contents are {@link #isSpilled() spilled}, the 
+	 * result is a read-only view, which builds the rows when they're requested.
 	 */
 	public List<List<String>> getRows ()
 	{
-		List<List<String>> result = new LinkedList<List<String>> ();
+		List<List<String>> columns = getColumns ();
+		if ( spill != null ) return new RowsView ( null, columns, nrows );
+		
+		List<List<String>> result = new ArrayList<List<String>> ( nrows );
 		for ( int irow = 0; irow < nrows; irow++ )
-			result.add ( getRow ( irow ) );
+			result.add ( getRow ( columns, irow ) );
 		return result;
 	}
 	
@@ -239,19 +431,23 @@ public class TableContents
 	 * Reports all the row values inside the nested structures (i.e., list of {@link StructuredTable}) that are 
 	 * associated to the layers. That is, the rows for the final result.
 	 *  
-	 * It does that by going through the recursive structure of {@link StructuredTable}. Note that it doesn't call
-	 * {@link #getRows()} but re-does a loop over {@link #getRow(int)}, in order to save a bit of memory.
+	 * It does that by going through the recursive structure of {@link StructuredTable} once. Note that it doesn't call
+	 * {@link #getRows()} but re-does a loop over {@link #getRow(List, int)}, in order to save a bit of memory.
 	 *  
-	 * The result is computed at every call, there's no caching.
+	 * The result is computed at every call, there's no caching. As for {@link #getRows()}, the result is a 
+	 * read-only view if the contents are {@link #isSpilled() spilled}.
 	 */
 	public List<List<String>> getTable ()
 	{
-		List<List<String>> result = new LinkedList<List<String>> ();
+		if ( spill != null ) return new RowsView ( getHeaders (), getColumns (), nrows );
+		
+		List<List<String>> result = new ArrayList<List<String>> ( nrows + 1 );
 
 		result.add ( getHeaders () );
 		
+		List<List<String>> columns = getColumns ();
 		for ( int irow = 0; irow < nrows; irow++ )
-			result.add ( getRow ( irow ) );
+			result.add ( getRow ( columns, irow ) );
 
 		return result;
 		
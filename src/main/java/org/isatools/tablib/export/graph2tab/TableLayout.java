@@ -0,0 +1,328 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.lang.StringUtils;
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator;
+
+/**
+ * <p>The header layout of the table that {@link TableBuilder} builds, which is used to stream the table rows one by 
+ * one, without keeping the whole table in memory, as it happens with {@link TableContents}.</p>
+ * 
+ * <p>The paths are read from an {@link Iterable}, which is iterated twice, so they don't need to be in memory either:
+ * {@link TableBuilder} passes one that decomposes the minimum flow again at every iteration (see 
+ * {@link MinFlowCalculator#getMinPathIterator()}), so the memory used doesn't depend on the no. of rows.</p>
+ * 
+ * <p>The layout is computed with a first pass over the path cover, where the {@link Node#getTabValues() node values} 
+ * are merged into a header-only version of the {@link StructuredTable} nesting, using the same merging criteria 
+ * of {@link StructuredTable#mergeTabValues(List, int, List)}. Since that procedure only appends new columns at the end 
+ * of a list, a header/value pair is placed in the first column having the same header and not already filled for the 
+ * current row, both when the columns are being created and when they are all known. So, {@link #rowIterator()} 
+ * re-does the same placement against the final layout, obtaining the same rows that {@link TableContents#getTable()} 
+ * returns, with no need to keep the values of previous rows.</p>
+ * 
+ * <p>As in {@link HeaderIndex}, the columns of a list are grouped by header and, within a row, the columns of a group 
+ * are used in order, so placing a value only needs a per-group cursor.</p> 
+ * 
+ * <p>This means that {@link Node#getTabValues()} is invoked twice per row, once in the first pass, once when the row 
+ * is built.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+class TableLayout
+{
+	/**
+	 * A column in the layout, the equivalent of a {@link StructuredTable} with no rows. 
+	 */
+	private static class Column
+	{
+		final String header;
+		
+		/** The position in the final table */
+		int position;
+		
+		final ColumnList tail = new ColumnList ();
+		
+		Column ( String header ) {
+			this.header = header;
+		}
+	}
+
+	/**
+	 * The columns having the same header in a {@link ColumnList}.
+	 */
+	private static class ColumnGroup
+	{
+		/** The order of creation, used to index the per-row state of groups */
+		final int id;
+		final List<Column> columns = new ArrayList<Column> ( 2 );
+		
+		ColumnGroup ( int id ) {
+			this.id = id;
+		}
+	}
+	
+	/**
+	 * A list of columns (i.e., a layer or a column tail), with its columns grouped by header.
+	 */
+	private static class ColumnList
+	{
+		final List<Column> columns = new ArrayList<Column> ();
+		final Map<String, ColumnGroup> groups = new HashMap<String, ColumnGroup> ();
+	}
+	
+	private final Iterable<List<Node>> paths;
+	private final LayersBuilder layersBuilder;
+	private long nrows = 0;
+	
+	private final List<ColumnList> layerColumns = new ArrayList<ColumnList> ();
+	private int ncolumns = 0, ngroups = 0;
+	private final List<String> headers;
+	
+	/**
+	 * @param paths the path cover, typically coming from {@link MinFlowCalculator#getMinPathIterator()}. This is 
+	 *        iterated once here and then once per {@link #rowIterator()} call, every iteration must return the same 
+	 *        paths in the same order.
+	 * @param layersBuilder the layering for the paths nodes, null if the layering isn't required, i.e., if the 
+	 *        nodes in the paths have to be laid out in consecutive layers. 
+	 */
+	TableLayout ( Iterable<List<Node>> paths, LayersBuilder layersBuilder )
+	{
+		this.paths = paths;
+		this.layersBuilder = layersBuilder;
+		
+		RowBuilder schemaBuilder = new RowBuilder ( true );
+		for ( List<Node> path: paths )
+		{
+			schemaBuilder.buildRow ( path );
+			nrows++;
+		}
+		
+		List<String> hdrs = new ArrayList<String> ( ncolumns );
+		for ( ColumnList columns: layerColumns )
+			setPositions ( columns, hdrs );
+		headers = Collections.unmodifiableList ( hdrs );
+	}
+
+	/**
+	 * Assigns the final positions, following the same order that {@link StructuredTable#exportAllHeaders(List)} uses. 
+	 */
+	private static void setPositions ( ColumnList columns, List<String> headers )
+	{
+		for ( Column col: columns.columns )
+		{
+			col.position = headers.size ();
+			headers.add ( col.header );
+			setPositions ( col.tail, headers );
+		}
+	}
+
+	/**
+	 * The no. of rows in the table, headers excluded.
+	 */
+	long getRowCount ()
+	{
+		return nrows;
+	}
+	
+	/**
+	 * The table headers, the same as {@link TableContents#getHeaders()}. Unmodifiable.
+	 */
+	List<String> getHeaders ()
+	{
+		return headers;
+	}
+	
+	/**
+	 * Iterates over the table rows (headers excluded), building each row when it's requested. Every iterator keeps its 
+	 * own state, so you can have multiple iterators over the same layout.  
+	 */
+	Iterator<List<String>> rowIterator ()
+	{
+		final Iterator<List<Node>> pathItr = paths.iterator ();
+		final RowBuilder rowBuilder = new RowBuilder ( false ); 
+		
+		return new Iterator<List<String>> () 
+		{
+			@Override
+			public boolean hasNext () {
+				return pathItr.hasNext ();
+			}
+
+			@Override
+			public List<String> next () 
+			{
+				if ( !pathItr.hasNext () ) throw new NoSuchElementException ( "No more rows in the table" );
+				return Arrays.asList ( rowBuilder.buildRow ( pathItr.next () ) );
+			}
+
+			@Override
+			public void remove () {
+				throw new UnsupportedOperationException ( "Can't remove rows from the exported table" );
+			}
+		};
+	}
+
+	
+	/**
+	 * Places the values of a path into the columns. During the first pass (i.e., when it's used by the constructor), it 
+	 * creates the columns needed to the row. 
+	 */
+	private class RowBuilder
+	{
+		/**
+		 * If groupStamps [ group.id ] == rowStamp, then groupCursors [ group.id ] is the next group column to be used 
+		 * in the current row, else it's 0.
+		 */
+		private int[] groupStamps, groupCursors;
+		private int rowStamp = 0;
+		private final boolean isSchemaPass;
+		private String[] row;
+		
+		RowBuilder ( boolean isSchemaPass )
+		{
+			this.isSchemaPass = isSchemaPass;
+			int size = isSchemaPass ? 16 : ngroups;
+			groupStamps = new int [ size ];
+			groupCursors = new int [ size ];
+		}
+		
+		/**
+		 * @return the row values for the path, or null when this is the first pass. 
+		 */
+		String[] buildRow ( List<Node> path )
+		{
+			rowStamp++;
+			row = isSchemaPass ? null : new String [ ncolumns ];
+			
+			int layer = 0;
+			for ( Node node: path )
+			{
+				if ( layersBuilder != null ) layer = layersBuilder.getLayer ( node );
+				place ( getLayerColumns ( layer ), node.getTabValues () );
+				layer++;
+			}
+			return row;
+		}
+		
+		/**
+		 * The same as {@link StructuredTable#mergeTabValues(List, int, List)}.
+		 */
+		private void place ( ColumnList columns, List<TabValueGroup> tbvs )
+		{
+			if ( tbvs == null ) return;
+			
+			for ( TabValueGroup tbg: tbvs )
+			{
+				String header = StringUtils.defaultString ( tbg.getHeader () );
+				
+				ColumnGroup group = columns.groups.get ( header );
+				if ( group == null ) 
+				{
+					checkSchemaPass ( header );
+					columns.groups.put ( header, group = new ColumnGroup ( ngroups++ ) );
+					if ( group.id == groupStamps.length ) 
+					{
+						groupStamps = Arrays.copyOf ( groupStamps, group.id * 2 );
+						groupCursors = Arrays.copyOf ( groupCursors, group.id * 2 );
+					}
+				}
+				
+				int gid = group.id, cursor = groupStamps [ gid ] == rowStamp ? groupCursors [ gid ] : 0;
+				Column column;
+				if ( cursor < group.columns.size () )
+					column = group.columns.get ( cursor );
+				else 
+				{
+					checkSchemaPass ( header );
+					column = new Column ( header );
+					ncolumns++;
+					columns.columns.add ( column );
+					group.columns.add ( column );
+				}
+				groupStamps [ gid ] = rowStamp;
+				groupCursors [ gid ] = cursor + 1;
+				
+				if ( row != null ) row [ column.position ] = tbg.getValue ();
+				place ( column.tail, tbg.getTail () );
+			}
+		}
+		
+		private void checkSchemaPass ( String header )
+		{
+			if ( isSchemaPass ) return;
+			throw new IllegalStateException ( 
+				"Internal error: the table row for the header '" + header + "' doesn't match the table layout, " 
+				+ "probably the input graph was changed after the layout computation"
+			);
+		}
+		
+		private ColumnList getLayerColumns ( int layer )
+		{
+			if ( layer < layerColumns.size () ) return layerColumns.get ( layer );
+			if ( !isSchemaPass ) throw new IllegalStateException ( 
+				"Internal error: the layer " + layer + " isn't in the table layout, probably the input graph was changed " 
+				+ "after the layout computation"
+			);
+			while ( layerColumns.size () <= layer ) layerColumns.add ( new ColumnList () );
+			return layerColumns.get ( layer );
+		}
+	} // class RowBuilder
+	
+}
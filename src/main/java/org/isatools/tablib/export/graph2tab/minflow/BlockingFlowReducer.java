@@ -0,0 +1,377 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.minflow;
+
+import java.util.Arrays;
+
+import org.isatools.tablib.export.graph2tab.CancellationToken;
+import org.isatools.tablib.export.graph2tab.GraphSnapshot;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportListener;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportPhase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Reduces a feasible flow to the minimum flow, using the {@link MinFlowEngine#BLOCKING_FLOW} approach.</p>
+ * 
+ * <p>Reducing a flow means sending some flow backward, i.e., we compute a maximum flow from a virtual source s to a 
+ * virtual sink t over the residual network. This has the following arcs:</p>
+ * 
+ * <ul>
+ *   <li>s -&gt; src for every graph source, with capacity equal to the outgoing flow of src (i.e., how much 
+ *   we can decrease that outflow)</li>
+ *   <li>i -&gt; j for every graph edge, with capacity flow(i, j) - 1 (the lower bound is 1 for all the real 
+ *   edges), sending flow here means decreasing the flow of the edge</li>
+ *   <li>j -&gt; i for every graph edge, with infinite capacity (there are no upper bounds), sending flow here means 
+ *   increasing the flow of the edge</li>
+ *   <li>snk -&gt; t for every graph sink, with capacity equal to the incoming flow of snk</li>
+ * </ul>
+ *    
+ * <p>Every phase computes the distance of the nodes from s, considering only arcs with a positive capacity, and then 
+ * saturates (blocks) all the paths that go through increasing distances (the level graph), by means of a depth-first
+ * search that keeps a current-arc pointer per node, so that no arc is tried twice in the same phase after it has 
+ * failed. Arcs toward t are always part of the level graph, no matter the distance of the sink they come from, 
+ * this way, every phase saturates the level graphs of all the graph components independently of one another.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+class BlockingFlowReducer
+{
+	private final GraphSnapshot graph;
+	private final FlowManager flowMgr;
+	
+	/**
+	 * The virtual source and sink
+	 */
+	private final int s, t;
+	
+	/**
+	 * The capacity left on s -&gt; src and snk -&gt; t, indexed by the ids of src and snk.
+	 */
+	private final int[] sourceCaps, sinkCaps;
+	
+	/**
+	 * The distance from s, -1 for unreachable nodes and for nodes which were found to be dead ends in the current phase.
+	 */
+	private final int[] levels;
+	
+	/**
+	 * The current arc of every node, an arc index as explained in {@link #getArcCount(int)}.
+	 */
+	private final int[] cursors;
+	
+	private static final int INFINITE = Integer.MAX_VALUE;
+	
+	private int phaseCount = 0, augmentingPathCount = 0;
+	
+	private ExportListener exportListener = null;
+	private CancellationToken cancellationToken = null;
+	
+	protected final Logger log = LoggerFactory.getLogger ( this.getClass () );
+
+	
+	BlockingFlowReducer ( GraphSnapshot graph, FlowManager flowMgr )
+	{
+		this.graph = graph;
+		this.flowMgr = flowMgr;
+		
+		int nnodes = graph.getNodeCount ();
+		s = nnodes; t = nnodes + 1;
+		
+		levels = new int [ nnodes + 2 ];
+		cursors = new int [ nnodes + 2 ];
+		
+		// The deficit of a source is its outflow and the deficit of a sink is its inflow with opposite sign. Isolated 
+		// nodes are both, with 0 capacities.
+		sourceCaps = new int [ nnodes ];
+		for ( int i = 0, nsrcs = graph.getSourceCount (); i < nsrcs; i++ )
+		{
+			int src = graph.getSource ( i );
+			sourceCaps [ src ] = flowMgr.getDeficit ( src );
+		}
+		sinkCaps = new int [ nnodes ];
+		for ( int i = 0, nsinks = graph.getSinkCount (); i < nsinks; i++ )
+		{
+			int snk = graph.getSink ( i );
+			sinkCaps [ snk ] = -flowMgr.getDeficit ( snk );
+		}
+	}
+	
+	/**
+	 * Runs the phases until there is no flow to cancel anymore, returns the amount of flow that was cancelled. 
+	 * initialFlow is the value of the flow to reduce, which is used to report the progress after every phase.
+	 */
+	int reduce ( long initialFlow )
+	{
+		int result = 0;
+		for ( int phase = 0; computeLevels (); phase++ )
+		{
+			phaseCount++;
+			int phaseFlow = blockingFlow ();
+			if ( log.isDebugEnabled () ) 
+				log.trace ( "Blocking flow phase " + phase + " cancelled a flow of " + phaseFlow );
+			result += phaseFlow;
+			
+			if ( cancellationToken != null ) cancellationToken.check ();
+			if ( exportListener != null ) 
+				exportListener.progressed ( ExportPhase.FLOW_REDUCTION, initialFlow - result, initialFlow );
+		}
+		return result;
+	}
+	
+	/**
+	 * Set by {@link MinFlowCalculator}, to report the progress. 
+	 */
+	void setExportListener ( ExportListener exportListener )
+	{
+		this.exportListener = exportListener;
+	}
+
+	/**
+	 * Set by {@link MinFlowCalculator}, checked after every phase and every {@link ExportListener#PROGRESS_INTERVAL} 
+	 * augmenting paths. 
+	 */
+	void setCancellationToken ( CancellationToken cancellationToken )
+	{
+		this.cancellationToken = cancellationToken;
+	}
+	
+	/**
+	 * The phases run by {@link #reduce(long)}.
+	 */
+	int getPhaseCount () {
+		return phaseCount;
+	}
+
+	/**
+	 * The paths along which {@link #reduce(long)} cancelled some flow.
+	 */
+	int getAugmentingPathCount () {
+		return augmentingPathCount;
+	}
+
+	/**
+	 * Breadth-first visit from s over the arcs that have a positive residual capacity. Returns true if t is reachable.
+	 * 
+	 */
+	private boolean computeLevels ()
+	{
+		Arrays.fill ( levels, -1 );
+		Arrays.fill ( cursors, 0 );
+		
+		boolean isSinkReachable = false;
+		int[] queue = new int [ graph.getNodeCount () ];
+		int head = 0, tail = 0;
+		
+		levels [ s ] = 0;
+		for ( int i = 0, nsrcs = graph.getSourceCount (); i < nsrcs; i++ )
+		{
+			int src = graph.getSource ( i );
+			if ( sourceCaps [ src ] == 0 ) continue;
+			levels [ src ] = 1;
+			queue [ tail++ ] = src;
+		}
+		
+		while ( head < tail )
+		{
+			int u = queue [ head++ ];
+			
+			for ( int k = 0, narcs = getArcCount ( u ); k < narcs; k++ )
+			{
+				if ( getResidual ( u, k ) == 0 ) continue;
+				int v = getArcTarget ( u, k );
+				if ( v == t ) { isSinkReachable = true; continue; }
+				if ( levels [ v ] != -1 ) continue;
+				levels [ v ] = levels [ u ] + 1;
+				queue [ tail++ ] = v;
+			}
+		}
+		return isSinkReachable;
+	}
+
+	/**
+	 * Finds a blocking flow over the current level graph, by means of repeated depth-first searches from s, which are 
+	 * based on an explicit stack. Returns the flow that was cancelled.
+	 */
+	private int blockingFlow ()
+	{
+		int result = 0;
+		
+		// The nodes in the current path, with the arc taken from every node 
+		int[] pathNodes = new int [ 16 ], pathArcs = new int [ 16 ];
+		int top = 0, u = s;
+		
+		while ( true )
+		{
+			if ( u == t )
+			{
+				// Augmenting path found, cancel its bottleneck
+				int delta = INFINITE;
+				for ( int i = 0; i < top; i++ )
+				{
+					int res = getResidual ( pathNodes [ i ], pathArcs [ i ] );
+					if ( res < delta ) delta = res;
+				}
+				for ( int i = 0; i < top; i++ ) 
+					push ( pathNodes [ i ], pathArcs [ i ], delta );
+				result += delta;
+				if ( ++augmentingPathCount % ExportListener.PROGRESS_INTERVAL == 0 && cancellationToken != null ) 
+					cancellationToken.check ();
+				
+				// Restart from the tail of the first saturated arc 
+				int i = 0;
+				while ( getResidual ( pathNodes [ i ], pathArcs [ i ] ) > 0 ) i++;
+				top = i;
+				u = pathNodes [ i ];
+				continue;
+			}
+			
+			// Advance the current arc until an arc of the level graph is found 
+			int narcs = getArcCount ( u ), k = cursors [ u ], v = -1;
+			for ( ; k < narcs; k++ )
+			{
+				if ( getResidual ( u, k ) == 0 ) continue;
+				v = getArcTarget ( u, k );
+				if ( v == t || levels [ v ] == levels [ u ] + 1 ) break;
+			}
+			cursors [ u ] = k;
+			
+			if ( k < narcs )
+			{
+				// Go ahead
+				if ( top == pathNodes.length ) {
+					pathNodes = Arrays.copyOf ( pathNodes, top * 2 );
+					pathArcs = Arrays.copyOf ( pathArcs, top * 2 );
+				}
+				pathNodes [ top ] = u;
+				pathArcs [ top++ ] = k;
+				u = v;
+				continue;
+			}
+			
+			// Dead end, if it's s, the phase is over, else remove the node from the level graph and go back
+			if ( u == s ) break;
+			levels [ u ] = -1;
+			u = pathNodes [ --top ];
+			cursors [ u ]++;
+		}
+		
+		return result;
+	}
+	
+	
+	/**
+	 * <p>The number of residual arcs leaving u. Arcs are indexed this way:</p>
+	 * 
+	 * <ul>
+	 *   <li>for s, arc i goes to the i-th graph source</li>
+	 *   <li>for a graph node with outdeg outputs and indeg inputs, arcs 0 to outdeg - 1 follow its outgoing edges, the
+	 *   next indeg arcs go backward, along the incoming edges, finally, if the node is a sink, the last arc goes to t.</li>
+	 * </ul> 
+	 * 
+	 */
+	private int getArcCount ( int u )
+	{
+		if ( u == s ) return graph.getSourceCount ();
+		int nouts = graph.getOutDegree ( u );
+		return nouts + graph.getInDegree ( u ) + ( nouts == 0 ? 1 : 0 );
+	}
+	
+	private int getArcTarget ( int u, int k )
+	{
+		if ( u == s ) return graph.getSource ( k );
+		
+		int nouts = graph.getOutDegree ( u );
+		if ( k < nouts ) return graph.getEdgeTarget ( graph.getOutEdgesStart ( u ) + k );
+		
+		k -= nouts;
+		if ( k < graph.getInDegree ( u ) ) return graph.getEdgeSource ( graph.getInEdge ( graph.getInEdgesStart ( u ) + k ) );
+		
+		return t;
+	}
+	
+	private int getResidual ( int u, int k )
+	{
+		if ( u == s ) return sourceCaps [ graph.getSource ( k ) ];
+		
+		int nouts = graph.getOutDegree ( u );
+		if ( k < nouts ) return flowMgr.getFlow ( graph.getOutEdgesStart ( u ) + k ) - 1;
+		
+		k -= nouts;
+		if ( k < graph.getInDegree ( u ) ) return INFINITE;
+		
+		return sinkCaps [ u ];
+	}
+
+	/**
+	 * Sends delta through an arc, i.e., it changes the underlining flow accordingly.
+	 */
+	private void push ( int u, int k, int delta )
+	{
+		if ( u == s ) {
+			sourceCaps [ graph.getSource ( k ) ] -= delta;
+			return;
+		}
+		
+		int nouts = graph.getOutDegree ( u );
+		if ( k < nouts ) {
+			flowMgr.increaseFlow ( graph.getOutEdgesStart ( u ) + k, -delta );
+			return;
+		}
+		
+		k -= nouts;
+		if ( k < graph.getInDegree ( u ) ) {
+			flowMgr.increaseFlow ( graph.getInEdge ( graph.getInEdgesStart ( u ) + k ), delta );
+			return;
+		}
+		
+		sinkCaps [ u ] -= delta;
+	}
+}
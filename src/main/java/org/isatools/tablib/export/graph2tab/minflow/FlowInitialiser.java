@@ -50,18 +50,17 @@ package org.isatools.tablib.export.graph2tab.minflow;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.PrintStream;
-import java.util.Deque;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.LinkedList;
-import java.util.Map;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.SortedSet;
-import java.util.TreeSet;
 
+import org.isatools.tablib.export.graph2tab.CancellationToken;
+import org.isatools.tablib.export.graph2tab.GraphSnapshot;
 import org.isatools.tablib.export.graph2tab.LayersBuilder;
 import org.isatools.tablib.export.graph2tab.Node;
 import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportListener;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportPhase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,14 +77,29 @@ import org.slf4j.LoggerFactory;
  */
 class FlowInitialiser
 {
-	private final FlowManager flowMgr = new FlowManager ();
-	private final Set<Node> nodes;
+	private final FlowManager flowMgr;
+	private final GraphSnapshot graph;
 	
-	private SortedSet<Node> startNodes = new TreeSet<Node> ();
-	private Set<Node> endNodes = new HashSet<Node> ();
-
 	private boolean isInitialised = false;
 
+	/**
+	 * Working structures for {@link #initFlow()}: which nodes already had their outputs loaded with the minimum flow, 
+	 * the nodes to be reviewed by the left-ward walk, with the position of the last push of every node, the 
+	 * stack used by the walks.
+	 */
+	private boolean[] isLoaded;
+	private int[] reviewNodes, lastReviewPos;
+	private int reviewTop;
+	private int[] stackNodes, stackCursors;
+	
+	/**
+	 * The nodes loaded by {@link #initFlowRight(int)}, out of the nodes having outputs, which are reported as progress.
+	 */
+	private int loadedCount, loadableCount;
+	
+	private ExportListener exportListener = null;
+	private CancellationToken cancellationToken = null;
+
 	protected final Logger log = LoggerFactory.getLogger ( this.getClass () );
 
 	/**
@@ -93,7 +107,16 @@ class FlowInitialiser
 	 */
 	FlowInitialiser ( Set<Node> nodes ) 
 	{
-		this.nodes = nodes;
+		this ( new GraphSnapshot ( nodes ) );
+	}
+
+	/**
+	 * Works on a graph that was already captured.
+	 */
+	FlowInitialiser ( GraphSnapshot graph ) 
+	{
+		this.graph = graph;
+		this.flowMgr = new FlowManager ( graph );
 	}
 	
 	/**
@@ -101,12 +124,20 @@ class FlowInitialiser
 	 */
 	Set<Node> getNodes ()
 	{
-		return nodes;
+		return graph.getSeedNodes ();
 	}
 
 	/**
-	 * The right-most nodes in the graph (or sinks), i.e., those nodes that have no real outputs attached. These are found
-	 * during the flow initialisation, if you call this method the flow is initialised by means of {@link #initFlow()}.
+	 * The graph this initialiser works on. 
+	 */
+	GraphSnapshot getGraph ()
+	{
+		return graph;
+	}
+	
+	/**
+	 * The right-most nodes in the graph (or sinks), i.e., those nodes that have no real outputs attached. This is a 
+	 * wrapper of {@link GraphSnapshot#getSinkNodes()}.
 	 * 
 	 * Note that a node can be both a start and an end node, this happens when the node is isolated, it has no inputs 
 	 * and no outputs.
@@ -114,13 +145,12 @@ class FlowInitialiser
 	 */
 	Set<Node> getEndNodes ()
 	{
-		if ( !isInitialised ) initFlow ();
-		return endNodes;
+		return graph.getSinkNodes ();
 	}
 
 	/**
-	 * The left-most nodes in the graph (or sources), i.e. those nodes that are not preceded by any input. These are found
-	 * during the flow initialisation, if you call this method the flow is initialised by means of {@link #initFlow()}.
+	 * The left-most nodes in the graph (or sources), i.e. those nodes that are not preceded by any input. This is a 
+	 * wrapper of {@link GraphSnapshot#getSourceNodes()}.
 	 * 
 	 * The result is sorted, to reflect the order given by the {@link Node} interface (which extends {@link Comparable}).
 	 * 
@@ -130,42 +160,61 @@ class FlowInitialiser
 	 */
 	SortedSet<Node> getStartNodes () 
 	{
-		if ( !isInitialised ) initFlow ();
-		return startNodes;
+		return graph.getSourceNodes ();
 	}
 	
 	/**
-	 * Depth-first walk from a given node toward left and through inputs.
+	 * The flow manager that is used here to store the computed flow.
 	 * 
 	 */
-	private void findStartNodes ( Node node ) 
+	FlowManager getFlowManager ()
 	{
-		Set<Node> ins = node.getInputs ();
-		
-		if ( ins.isEmpty () ) {
-			startNodes.add ( node );
-			return;
-		}
-		
-		for ( Node in: ins ) findStartNodes ( in );
-		
-		return;
+		if ( !isInitialised ) initFlow ();
+		return flowMgr;
 	}
-
+	
 	/**
-	 * The flow manager that is used here to store the computed flow.
+	 * The flow manager used here, without computing the initial flow, which is set from outside (see 
+	 * {@link MinFlowCalculator#setForkJoinPool(java.util.concurrent.ForkJoinPool)}). After this call, this 
+	 * initialiser doesn't touch the flow anymore.
 	 * 
 	 */
-	FlowManager getFlowManager ()
+	FlowManager takeFlowManager ()
 	{
-		if ( !isInitialised ) initFlow ();
+		isInitialised = true;
 		return flowMgr;
 	}
 	
 	/**
-	 * Initialises the flow by first calling {@link #initFlowRight(Node, Deque)} on all the start nodes, and then 
-	 * calling {@link #initFlowLeft(Node)} on all the nodes returned by the fist method in its dequeue parameter (so, these
-	 * nodes are re-visited in LIFO order, that is the right-most ones first).
+	 * Set by {@link MinFlowCalculator}, used to report the progress. 
+	 */
+	void setExportListener ( ExportListener exportListener )
+	{
+		this.exportListener = exportListener;
+	}
+
+	/**
+	 * Set by {@link MinFlowCalculator}, checked while the progress is reported. 
+	 */
+	void setCancellationToken ( CancellationToken cancellationToken )
+	{
+		this.cancellationToken = cancellationToken;
+	}
+
+	private void progress ()
+	{
+		if ( cancellationToken != null ) cancellationToken.check ();
+		if ( exportListener != null ) 
+			exportListener.progressed ( ExportPhase.FLOW_INITIALISATION, loadedCount, loadableCount );
+	}
+
+	/**
+	 * Initialises the flow by first running a right-ward walk from all the start nodes (see 
+	 * {@link #initFlowRight(int)}), and then running a left-ward walk (see {@link #initFlowLeft(int)}) from the nodes 
+	 * that the first walk collected in {@link #reviewNodes} (so, these nodes are re-visited in LIFO order, that is the 
+	 * right-most ones first).
+	 * 
+	 * Both walks are done with explicit stacks, so that the graph depth isn't limited by the thread stack size.
 	 *  
 	 */
 	private void initFlow ()
@@ -173,15 +222,105 @@ class FlowInitialiser
 		if ( isInitialised ) return;
 		isInitialised = true;
 
-		// Initialise start-nodes, moved here from getStartNodes(), after Adam Faulconbridge notes about that method's 
-		// performance 
-		for ( Node n: nodes ) findStartNodes ( n );
+		int nnodes = graph.getNodeCount ();
+		isLoaded = new boolean [ nnodes ];
+		reviewNodes = new int [ 16 ];
+		reviewTop = 0;
+		lastReviewPos = new int [ nnodes ];
+		Arrays.fill ( lastReviewPos, -1 );
+		
+		stackNodes = new int [ 16 ];
+		stackCursors = new int [ 16 ];
+		
+		loadedCount = 0;
+		loadableCount = nnodes - graph.getSinkCount ();
+
+		for ( int i = 0, nsrcs = graph.getSourceCount (); i < nsrcs; i++ ) 
+			walkRight ( graph.getSource ( i ) );
+		
+		for ( int nreviews = 1; reviewTop > 0; nreviews++ ) 
+		{
+			if ( cancellationToken != null && nreviews % ExportListener.PROGRESS_INTERVAL == 0 ) cancellationToken.check ();
+			
+			int node = reviewNodes [ --reviewTop ];
+			// A node can be pushed more than once, only its latest push counts. When the earlier ones come up, the node 
+			// was already balanced by the left-ward walk, so they would be no-ops anyway.
+			if ( lastReviewPos [ node ] != reviewTop ) continue;
+			lastReviewPos [ node ] = -1;
+			walkLeft ( node );
+		}
+		
+		// Free the working structures
+		isLoaded = null; reviewNodes = null; lastReviewPos = null; stackNodes = null; stackCursors = null;
+		
+		progress ();
+	}
+
+	/**
+	 * Depth-first visit from node toward the right, which calls {@link #initFlowRight(int)} on each visited node, 
+	 * in the same order that a recursive visit would have. 
+	 */
+	private void walkRight ( int node )
+	{
+		if ( !initFlowRight ( node ) ) return;
+		
+		int top = push ( 0, node, graph.getOutEdgesStart ( node ) );
+		while ( top > 0 )
+		{
+			int n = stackNodes [ top - 1 ], e = stackCursors [ top - 1 ];
+			if ( e == graph.getOutEdgesEnd ( n ) ) { top--; continue; }
+			stackCursors [ top - 1 ]++;
+			
+			int out = graph.getEdgeTarget ( e );
+			if ( initFlowRight ( out ) ) top = push ( top, out, graph.getOutEdgesStart ( out ) );
+		}
+	}
 
-		Deque<Node> reviewNodes = new LinkedList<Node> ();
-		for ( Node n: startNodes ) initFlowRight ( n, reviewNodes );
-		while ( !reviewNodes.isEmpty () ) initFlowLeft ( reviewNodes.pop () );
+	/**
+	 * Depth-first visit from node toward the left, which calls {@link #initFlowLeft(int)} on each visited node, 
+	 * in the same order that a recursive visit would have. 
+	 */
+	private void walkLeft ( int node )
+	{
+		if ( !initFlowLeft ( node ) ) return;
+		
+		int top = push ( 0, node, graph.getInEdgesStart ( node ) );
+		while ( top > 0 )
+		{
+			int n = stackNodes [ top - 1 ], i = stackCursors [ top - 1 ];
+			if ( i == graph.getInEdgesEnd ( n ) ) { top--; continue; }
+			stackCursors [ top - 1 ]++;
+			
+			int in = graph.getEdgeSource ( graph.getInEdge ( i ) );
+			if ( initFlowLeft ( in ) ) top = push ( top, in, graph.getInEdgesStart ( in ) );
+		}
+	}
+	
+	/**
+	 * Pushes a node and its edge cursor on the walk stack, growing it if needed, returns the new stack size. 
+	 */
+	private int push ( int top, int node, int cursor )
+	{
+		if ( top == stackNodes.length ) 
+		{
+			stackNodes = Arrays.copyOf ( stackNodes, top * 2 );
+			stackCursors = Arrays.copyOf ( stackCursors, top * 2 );
+		}
+		stackNodes [ top ] = node;
+		stackCursors [ top ] = cursor;
+		return top + 1;
 	}
 
+	/**
+	 * Marks a node for the left-ward phase, see {@link #initFlow()}.
+	 */
+	private void pushReviewNode ( int node )
+	{
+		if ( reviewTop == reviewNodes.length ) reviewNodes = Arrays.copyOf ( reviewNodes, reviewTop * 2 );
+		lastReviewPos [ node ] = reviewTop;
+		reviewNodes [ reviewTop++ ] = node;
+	}
+	
 
 	/**
 	 * Initially it walks the graph from sources to sinks (left-to-right). For every visited node, it loads every incoming 
@@ -189,78 +328,90 @@ class FlowInitialiser
 	 * outgoing edges have at least flow level of 1 and the incoming/outgoing flows through the node is balances 
 	 * (i.e., equal). This is not always possible (if the incoming nodes are too few to support all the necessary 
 	 * outgoing flow), so a backward walk may be necessary for certain nodes and will be ran at the end of the 
-	 * right-ward one ({@link #initFlowLeft(Node)}.
+	 * right-ward one ({@link #initFlowLeft(int)}.
 	 * 
-	 * @param node
-	 * @param reviewNodes this is used to mark the nodes that have to be re-visited in right-ward fashion by 
-	 * {@link #initFlowLeft(Node)}.
+	 * Nodes that have to be re-visited in left-ward fashion by {@link #initFlowLeft(int)} are marked by means of
+	 * {@link #pushReviewNode(int)}.
+	 * 
+	 * @return true if the walk has to go ahead with the node's outputs, false if the right graph doesn't need to 
+	 * change.
 	 * 
 	 */
-	private void initFlowRight ( Node node, Deque<Node> reviewNodes )
+	private boolean initFlowRight ( int node )
 	{
-		SortedSet<Node> ins = node.getInputs (), outs = node.getOutputs ();
-		int nins = ins.size (), nouts = outs.size ();
+		int outStart = graph.getOutEdgesStart ( node ), outEnd = graph.getOutEdgesEnd ( node );
+		int nins = graph.getInDegree ( node ), nouts = outEnd - outStart;
 		
 		// End node, end of rightward travel, this includes the rare case of isolated nodes
-		if ( nouts == 0 ) {
-			endNodes.add ( node );
-			return;
-		}	
+		if ( nouts == 0 ) return false;
+		
+		// Already loaded and still balanced, nothing to do here, nor in the right graph. This is the same as the 
+		// check below, without needing to look at the outputs again.
+		if ( isLoaded [ node ] && flowMgr.getDeficit ( node ) == 0 ) return false;
+		
+		Node n = graph.getNode ( node );
 		
 		// First, saturate the outgoing edges with the minimum flow, unless this was already done in another visit
 		//
-		if ( log.isDebugEnabled () ) log.trace ( "Loading Outputs for '" + node + "'" );
+		if ( log.isDebugEnabled () ) log.trace ( "Loading Outputs for '" + n + "'" );
 		boolean flowChanged = false;
-		for ( Node out: outs )
-			if ( flowMgr.getFlow ( node, out ) == 0 ) {
-				flowMgr.updateFlow ( node, out, 1 );
-				flowChanged = true;
+		if ( !isLoaded [ node ] )
+		{
+			for ( int e = outStart; e < outEnd; e++ )
+				if ( flowMgr.getFlow ( e ) == 0 ) {
+					flowMgr.updateFlow ( e, 1 );
+					flowChanged = true;
+				}
+			isLoaded [ node ] = true;
+			if ( ++loadedCount % ExportListener.PROGRESS_INTERVAL == 0 ) progress ();
 		}
 			
 		// Then, let's see what deficit we have at the node now 
 		//
 		int deficit = flowMgr.getDeficit ( node );
-		if ( log.isDebugEnabled () ) log.trace ( "Working deficit of " + deficit + " for '" + node + "'" );
+		if ( log.isDebugEnabled () ) log.trace ( "Working deficit of " + deficit + " for '" + n + "'" );
 		
 		// If nothing happened and the node is balanced, we don't have to go ahead with this path, all the left graph
 		// won't change anyway
-		if ( !flowChanged && deficit == 0 ) return;
+		if ( !flowChanged && deficit == 0 ) return false;
 		
 		if ( deficit > 0 && nins != 0 )
 		{
 			// If it's not a source (for which the deficit is always >= 0), then 
 			// we cannot balance the right graph with the flow that have come from the left side so far, so let's review 
 			// this later, in a left-ward walk (via calls to setInitialFlowLeft())
-			reviewNodes.push ( node );
+			pushReviewNode ( node );
 		}
 		else if ( deficit < 0 )
 		{
 			// Distribute the excess of input over the outputs. Try to do an even distribution, in order to maximise the 
 			// likelihood that we have a minimum flow as soon as the initialisation is finished.
 			//
-			if ( log.isDebugEnabled () ) log.trace ( "Distributing excess of input for '" + node + "'" );
+			if ( log.isDebugEnabled () ) log.trace ( "Distributing excess of input for '" + n + "'" );
 			
 			deficit = -deficit;
 			int dquota = deficit / nouts, rquota = deficit % nouts;
-			for ( Node out: outs )
+			for ( int e = outStart; e < outEnd; e++ )
 			{
-				flowMgr.increaseFlow ( node, out, dquota );
-				if ( rquota-- > 0 ) flowMgr.increaseFlow ( node, out, 1 );
+				flowMgr.increaseFlow ( e, dquota );
+				if ( rquota-- > 0 ) flowMgr.increaseFlow ( e, 1 );
 			}
 		}
 
 		// else deficit became 0 after output loading, propagate the change(s) made on the right of the node to the full 
 		// right graph
-		for ( Node out: outs ) initFlowRight ( out, reviewNodes );
+		return true;
 	}
 
 	/**
 	 * Does the left-ward visit that may be necessary after the initial left-to-right walk 
-	 * (see {@link #initFlowRight(Node, Deque)}). Here the excess of otuput is redistributed to the inputs (i.e., the 
+	 * (see {@link #initFlowRight(int)}). Here the excess of otuput is redistributed to the inputs (i.e., the 
 	 * incoming flow is increased) and this changes id propagated back to the sources. 
 	 * 
+	 * @return true if the walk has to propagate the changes to the node's inputs.
+	 * 
 	 */
-	private void initFlowLeft ( Node node )
+	private boolean initFlowLeft ( int node )
 	{
 		int deficit = flowMgr.getDeficit ( node );
 		
@@ -268,7 +419,7 @@ class FlowInitialiser
 		// reviewNodes), but then it was by some other routes. We don't need to continue toward left from this 
 		// particular node, if there is still some unbalanced node on its left graph, it will be dealt with by a call
 		// that picks up that node from reviewNodes (in initFlow() )
-		if ( deficit == 0 ) return;
+		if ( deficit == 0 ) return false;
 		
 		// We have a formal proof that this doesn't happen at this point. If it does, it is hardly due to the algorithm on
 		// itself, can be because of underlining reasons (e.g., bad set of initial nodes, problem with Node implementation).
@@ -284,23 +435,25 @@ class FlowInitialiser
 		// deficit > 0
 		// Distribute the excess of outputs over the inputs, so that it spreads toward the sources and the node is balanced
 		//
-		Set<Node> ins = node.getInputs ();
-		int nins = ins.size ();
+		int inStart = graph.getInEdgesStart ( node ), inEnd = graph.getInEdgesEnd ( node );
+		int nins = inEnd - inStart;
 		// Source, we've finished and it's normal that deficit > 0 here 
-		if ( nins == 0 ) return; 
+		if ( nins == 0 ) return false; 
 		
-		if ( log.isDebugEnabled () ) log.trace ( "Distributing excess of input " + deficit + " for '" + node + "'" );
+		if ( log.isDebugEnabled () ) 
+			log.trace ( "Distributing excess of input " + deficit + " for '" + graph.getNode ( node ) + "'" );
 
 		// Same approach as above
 		int dquota = deficit / nins, rquota = deficit % nins;
-		for ( Node in: ins )
+		for ( int i = inStart; i < inEnd; i++ )
 		{
-			flowMgr.increaseFlow ( in, node, dquota );
-			if ( rquota-- > 0 ) flowMgr.increaseFlow ( in, node, 1 );
+			int e = graph.getInEdge ( i );
+			flowMgr.increaseFlow ( e, dquota );
+			if ( rquota-- > 0 ) flowMgr.increaseFlow ( e, 1 );
 		}
 
-		// Propagate the above changes to the right
-		for ( Node in: ins ) initFlowLeft ( in );
+		// Propagate the above changes to the left
+		return true;
 	}
 
 	
@@ -316,19 +469,35 @@ class FlowInitialiser
 	
 	/**
 	* A facility useful for debugging. Outputs a syntax that can be used by GraphViz to show the graph being built.
-	* The graph will be layered if you pass a LayersBuilder. 
+	* The graph will be layered if you pass a LayersBuilder. Nodes are identified by their {@link GraphSnapshot} id. 
 	* 
 	*/
 	public void outDot ( PrintStream out, LayersBuilder layersBuilder )
 	{
-		Map<Node, Integer> ids = new HashMap<Node, Integer> ();
-		Set<Node> visited = new HashSet<Node> ();
-	
+		// The rainbow can help in tracking the graph manually.
+		final String[] colors = { "black", "red", "blue", "magenta", "green", "orange", "purple", "turquoise" };
+
 		out.println ( "strict digraph ExperimentalPipeline {" );
 		out.println ( "  graph [rankdir=LR];" );
 	
-		for ( Node node: getStartNodes () )
-			outDot ( out, ids, visited, node );
+		for ( int nodeid = 0, nnodes = graph.getNodeCount (); nodeid < nnodes; nodeid++ )
+		{
+			String nodelbl = graph.getNode ( nodeid ).toString ();
+			String color = colors [ nodeid % colors.length ];
+			out.println ( "  " + nodeid + 
+				"[label = \"" + nodelbl + "\", style = filled, color = " + color + ", fillcolor = white ];" );
+		}
+		
+		for ( int nodeid = 0, nnodes = graph.getNodeCount (); nodeid < nnodes; nodeid++ )
+		{
+			for ( int e = graph.getOutEdgesStart ( nodeid ), outEnd = graph.getOutEdgesEnd ( nodeid ); e < outEnd; e++ )
+			{
+				int outid = graph.getEdgeTarget ( e );
+				String color = colors[ ( nodeid + outid ) % colors.length];
+				int arcFlow = flowMgr.getFlow ( e );
+				out.println ( "  " + nodeid + " -> " + outid + "[label = \""+ arcFlow + "\" color = " + color + "];" );
+			}
+		}
 	
 		// Adds up the layers if available
 		if ( layersBuilder != null )
@@ -345,7 +514,7 @@ class FlowInitialiser
 				out.println ( "    // layer " + layer );
 				out.print ( "    { rank = same" );
 				for ( Node node: lnodes ) {
-					int nodeid = ids.get ( node );
+					int nodeid = graph.getNodeId ( node );
 					out.print ( "; " + nodeid );
 				}
 				out.println ( " }\n" );
@@ -355,49 +524,4 @@ class FlowInitialiser
 	
 		out.println ( "}" );
 	}
-	
-	/**
-	* @see #outDot(PrintStream, LayersBuilder)
-	*/
-	private void outDot ( PrintStream out, Map<Node, Integer> ids, Set<Node> visited, Node node )
-	{
-		if ( visited.contains ( node ) ) return;
-		
-		visited.add ( node );
-	
-		// The rainbow can help in tracking the graph manually.
-		final String[] colors = { "black", "red", "blue", "magenta", "green", "orange", "purple", "turquoise" };
-	
-		String nodelbl = node.toString ();
-		Integer nodeid = ids.get ( node );
-		if ( nodeid == null )
-		{
-			nodeid = ids.size ();
-			ids.put ( node, nodeid );
-			String color = colors [ nodeid % colors.length ];
-			out.println ( "  " + nodeid + 
-				"[label = \"" + nodelbl + "\", style = filled, color = " + color + ", fillcolor = white ];" );
-		}
-	
-		for ( Node nout: node.getOutputs () )
-		{
-			Integer outid = ids.get ( nout );
-			if ( outid == null )
-			{
-				outid = ids.size ();
-				ids.put ( nout, outid );
-				String outlbl = nout.toString ();
-				String color = colors [ outid % colors.length ];
-				out.println ( "  " + outid + 
-					"[label = \"" + outlbl + "\", style = filled, color = " + color + ", fillcolor = white ];" );
-			}
-	
-			String color = colors[ ( nodeid + outid ) % colors.length];
-
-			int arcFlow = flowMgr.getFlow ( node, nout );
-			out.println ( "  " + nodeid + " -> " + outid + "[label = \""+ arcFlow + "\" color = " + color + "];" );
-			
-			outDot ( out, ids, visited, nout );
-		}
-	}		
 }
@@ -47,24 +47,20 @@ The ISA Team and the ISA software suite have been funded by the EU Carcinogenomi
 */
 package org.isatools.tablib.export.graph2tab.minflow;
 
-import java.io.PrintStream;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
-
+import org.isatools.tablib.export.graph2tab.GraphSnapshot;
 import org.isatools.tablib.export.graph2tab.Node;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import uk.ac.ebi.utils.collections.ObjectStore;
-
 /**
  * 
  * A flow manager, used to compute the minimum flow by {@link MinFlowCalculator}. It just maps nodes and arcs of a
  * graph to node deficits and arc flows. It doesn't manage flow bounds, since in our scope of graph-to-table conversion
  * the lower bound is implicitly 1 (or 0, when virtual source and virtual sink are involved) and the upper bound is 
  * infinite.
+ * 
+ * Flows and deficits are plain integer arrays, indexed by the edge and node ids of the {@link GraphSnapshot} 
+ * this manager is about. This is the innermost bookkeeping of the min-flow computation, so we avoid any boxing here.
  *
  * <dl><dt>date</dt><dd>Aug 18, 2011</dd></dl>
  * @author brandizi
@@ -74,22 +70,43 @@ class FlowManager
 {
 	protected final Logger log = LoggerFactory.getLogger ( this.getClass () );
 	
-	private ObjectStore<Node, Node, Integer> flows = new ObjectStore<Node, Node, Integer> ();
-	private Map<Node, Integer> deficits = new HashMap<Node, Integer> ();
-  
+	private final GraphSnapshot graph;
+	private final int[] flows;
+	private final int[] deficits;
+	
+	FlowManager ( GraphSnapshot graph )
+	{
+		this.graph = graph;
+		flows = new int [ graph.getEdgeCount () ];
+		deficits = new int [ graph.getNodeCount () ];
+	}
+	
 	/**
-	 * The flow through an edge. Our graphs have at most one arc between any two distinct nodes, so we don't need an
-	 * explicit representation of edges.
-	 * 
-	 * The result is an object and not a primitive integer for internal reasons about performance.
+	 * The flow through an edge. 
+	 */
+	int getFlow ( int edge )
+	{
+		return flows [ edge ];
+	}
+
+	/**
+	 * The flow through the (n1, n2) arc. Our graphs have at most one arc between any two distinct nodes, so this is
+	 * a wrapper of {@link #getFlow(int)} based on {@link GraphSnapshot#findEdge(Node, Node)}. It returns 0 if there 
+	 * is no such arc.
 	 * 
 	 */
-	Integer getFlow ( Node n1, Node n2 )
+	int getFlow ( Node n1, Node n2 )
 	{
-		Integer flow = flows.get ( n1, n2 );
-		if ( flow != null ) return flow;
-		flows.put ( n1, n2, 0 );
-		return 0;
+		int edge = graph.findEdge ( n1, n2 );
+		return edge == -1 ? 0 : flows [ edge ];
+	}
+		
+	/**
+	 * A copy of all the edge flows, indexed by edge id.
+	 */
+	int[] copyFlows ()
+	{
+		return flows.clone ();
 	}
 		
 	/**
@@ -100,58 +117,55 @@ class FlowManager
 	 * In order to ensure good performance, the deficits are kept in an internal structure and updated by 
 	 * flow-changing methods. They're never computed.
 	 * 
-	 * The result is an object and not a primitive integer for internal reasons about performance.
-	 * 
 	 */
-	Integer getDeficit ( Node n )
+	int getDeficit ( int node )
 	{
-		Integer deficit = deficits.get ( n );
-		if ( deficit != null ) return deficit;
-		deficits.put ( n, 0 );
-		return 0;
+		return deficits [ node ];
 	}
 	
 	/**
-	 * Increase the flow in the (n1, n2) arc by delta. If delta is negative, the flow is automatically decreased instead.
+	 * Increase the flow in the edge by delta. If delta is negative, the flow is automatically decreased instead.
 	 * This updates the deficits at the edge ends too.
 	 * 
 	 */
-	int increaseFlow ( Node n1, Node n2, int delta )
+	int increaseFlow ( int edge, int delta )
 	{
-		int flow = getFlow ( n1, n2 );
+		int flow = flows [ edge ];
 		if ( delta == 0 ) return flow;
 
 		int newFlow = flow + delta;
-		flows.put ( n1, n2, newFlow );
+		flows [ edge ] = newFlow;
 
-		int deficit1New = getDeficit ( n1 ) + delta; deficits.put ( n1, deficit1New );
-		int deficit2New = getDeficit ( n2 ) - delta; deficits.put ( n2, deficit2New );
+		int n1 = graph.getEdgeSource ( edge ), n2 = graph.getEdgeTarget ( edge );
+		int deficit1New = deficits [ n1 ] += delta;
+		int deficit2New = deficits [ n2 ] -= delta;
 				
 		if ( log.isDebugEnabled () )
-			log.trace ( "Flow in '" + n1 + "' => '" + n2 + "' increased to " + newFlow 
+			log.trace ( "Flow in '" + graph.getNode ( n1 ) + "' => '" + graph.getNode ( n2 ) + "' increased to " + newFlow 
 					+ " (def1 = " + deficit1New + ", def2 = " + deficit2New + ")");
 		
 		return newFlow;
 	}
 	
 	/**
-	 * Set the flow through the (n1, n2) arc to the new flow.
+	 * Set the flow through the edge to the new flow.
 	 * This updates the deficits at the edge ends too.
 	 * 
 	 */
-	int updateFlow ( Node n1, Node n2, int newFlow )
+	int updateFlow ( int edge, int newFlow )
 	{
-		int flow = getFlow ( n1, n2 );
+		int flow = flows [ edge ];
 		
 		if ( flow == newFlow ) return 0;
 		int delta = newFlow - flow;
-		flows.put ( n1, n2, newFlow );
+		flows [ edge ] = newFlow;
 		
-		int deficit1New = getDeficit ( n1 ) + delta; deficits.put ( n1, deficit1New );
-		int deficit2New = getDeficit ( n2 ) - delta; deficits.put ( n2, deficit2New );
+		int n1 = graph.getEdgeSource ( edge ), n2 = graph.getEdgeTarget ( edge );
+		int deficit1New = deficits [ n1 ] += delta;
+		int deficit2New = deficits [ n2 ] -= delta;
 
 		if ( log.isDebugEnabled () )
-			log.trace ( "Flow in '" + n1 + "' => '" + n2 + "' set to " + newFlow 
+			log.trace ( "Flow in '" + graph.getNode ( n1 ) + "' => '" + graph.getNode ( n2 ) + "' set to " + newFlow 
 				+ " (def1 = " + deficit1New + ", def2 = " + deficit2New + ")" );
 		return delta;
 	}
@@ -49,16 +49,26 @@ package org.isatools.tablib.export.graph2tab.minflow;
 
 import java.io.FileNotFoundException;
 import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Deque;
-import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import java.util.SortedSet;
+
+import org.isatools.tablib.export.graph2tab.CancellationToken;
+import org.isatools.tablib.export.graph2tab.GraphSnapshot;
 import org.isatools.tablib.export.graph2tab.LayersBuilder;
 import org.isatools.tablib.export.graph2tab.Node;
 import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportCounter;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportListener;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportPhase;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,7 +93,8 @@ import org.slf4j.LoggerFactory;
  * 
  * <ul>
  *   <li>The choice of the FF algorithm depends on the fact that it performs well in the typical case of 
- *   experimental flow graphs. This will be explained in further documentation about this library.</li>
+ *   experimental flow graphs. This will be explained in further documentation about this library. For graphs where 
+ *   this isn't the case, you can switch to {@link MinFlowEngine#BLOCKING_FLOW}.</li>
  *    
  *   <li>Isolated nodes are ignored in practice, you need to pass them to the constructor of this class and they will be
  * part of the minimum path set that is returned as final solution by {@link #getMinPathCover()}.</li>
@@ -100,12 +111,41 @@ import org.slf4j.LoggerFactory;
  */
 public class MinFlowCalculator
 {
+	private final GraphSnapshot graph;
+	private final MinFlowEngine engine;
 	private final FlowInitialiser initialiser;
 	private FlowManager flowMgr;
-	private List<List<Node>> minPathCover = new LinkedList<List<Node>> ();
+	private List<List<Node>> minPathCover = new ArrayList<List<Node>> ();
+	private ForkJoinPool forkJoinPool = null;
+	private ExportListener exportListener = null;
+	private CancellationToken cancellationToken = null;
+	
+	/**
+	 * When working in parallel, we don't split graph components into smaller tasks than this (in terms of no. of nodes). 
+	 */
+	private static final int PARALLEL_GRAIN_NODES = 1000;
+
+	/**
+	 * The calculator of a previous version of the graph and the nodes changed since then, see 
+	 * {@link #setWarmStart(MinFlowCalculator, Set)}.
+	 */
+	private MinFlowCalculator previousCalc = null;
+	private Set<Node> changedNodes = null;
+	
+	/**
+	 * When there is a warm start and the graph is an unchanged component of the previous graph, its previous minimum 
+	 * flow, indexed by edge id, see {@link #initWarmFlows()}.
+	 */
+	private int[] warmFlows = null;
 
 	private boolean isInitialised = false; 
 	
+	/**
+	 * The minimum flow value, i.e., the no. of paths in the cover, -1 until it's computed, see 
+	 * {@link #getMinFlowValue()}.
+	 */
+	private long minFlowValue = -1;
+	
 	protected final Logger log = LoggerFactory.getLogger ( this.getClass () );
 
 	/**
@@ -113,58 +153,80 @@ public class MinFlowCalculator
 	 */
 	public MinFlowCalculator ( Set<Node> nodes )
 	{
-		initialiser = new FlowInitialiser ( nodes );
+		this ( new GraphSnapshot ( nodes ) );
+	}
+
+	/**
+	 * Works on a graph that was already captured, e.g., by {@link TableBuilder}. Uses 
+	 * {@link MinFlowEngine#FORD_FULKERSON}.
+	 */
+	public MinFlowCalculator ( GraphSnapshot graph )
+	{
+		this ( graph, MinFlowEngine.FORD_FULKERSON );
+	}
+
+	/**
+	 * Works on a graph that was already captured and uses the specified algorithm to find the minimum flow.
+	 */
+	public MinFlowCalculator ( GraphSnapshot graph, MinFlowEngine engine )
+	{
+		this.graph = graph;
+		this.engine = engine;
+		initialiser = new FlowInitialiser ( graph );
 	}
 	
 	/**
 	 * FF step where a decreasing path is found by attempting to go from any source to any sink. If such a path is found, 
-	 * it will be in result and the method will return the minimum decrease that such path makes it possible.
+	 * it will be in result (as a sequence of edge ids) and the method will return the minimum decrease that such path 
+	 * makes it possible.
 	 * 
 	 * If it returns -2, it means no decreasing path was found, it returns -1 when it gets an end/sink node as parameter. 
-	 * These parameters are used during the recursion and by {@link #findMinFlow()}, to know that there isn't any path 
-	 * any more. 
+	 * These parameters are used by {@link #findMinFlow()}, to know that there isn't any path any more.
+	 * 
+	 * The path is built by always following the first outgoing edge that can be decreased, so this is a plain loop
+	 * toward the right, no matter how deep the graph is.
 	 * 
 	 */
-	private int findPath ( Node n, Deque<Node> result )
+	private int findPath ( int n, Deque<Integer> result )
 	{
-		Set<Node> nouts = n.getOutputs ();
+		int minResidual = -1;
 		
-		// Path search ends with sink nodes (-1 as return value).
-		if ( nouts.isEmpty () ) {
-			result.push ( n );
-			return -1;
-		}
-		
-		for ( Node nout: nouts )
+		// Path search ends with sink nodes
+		for ( int outStart, outEnd; ( outStart = graph.getOutEdgesStart ( n ) ) != ( outEnd = graph.getOutEdgesEnd ( n ) ); )
 		{
+			int e = outStart;
+			
 			// the dual (nout, n) arc has an infinite capacity, so ti can receive as much flow as needed, hence the residue
 			// flow reduces to this formula in our context
-			int residualFlow = flowMgr.getFlow ( n, nout ) - 1;
-			if ( residualFlow == 0 ) continue;
-			int forwardMin = findPath ( nout, result );
-			
-			// No path could be built, so backtrack the failure
-			if ( forwardMin == -2 ) return -2;
+			int residualFlow = 0;
+			for ( ; e < outEnd; e++ )
+				if ( ( residualFlow = flowMgr.getFlow ( e ) - 1 ) != 0 ) break;
+
+			// -2 = dead end, no path could be built
+			if ( e == outEnd ) {
+				result.clear ();
+				return -2;
+			}
 			
 			// Otherwise, add a step to the path and try to go ahead, mark the minimum computed so far.
-			result.push ( n );
-			return forwardMin == -1 || residualFlow < forwardMin ? residualFlow : forwardMin;
+			result.add ( e );
+			if ( minResidual == -1 || residualFlow < minResidual ) minResidual = residualFlow;
+			n = graph.getEdgeTarget ( e );
 		}
-		// -2 = dead end
-		return -2;
+		return minResidual;
 	}
 
 	/**
-	 * A wrapper of {@link #findPath(Node, Deque)} that starts from all the source nodes, until a valid decreasing path is 
+	 * A wrapper of {@link #findPath(int, Deque)} that starts from all the source nodes, until a valid decreasing path is 
 	 * found. In such a case it returns the minimum residual for such a path (i.e., the same result returned by 
-	 * {@link #findPath(Node, Deque) findPath( source, empty-queue) }). Returns -2 when no such path exists.
+	 * {@link #findPath(int, Deque) findPath( source, empty-queue) }). Returns -2 when no such path exists.
 	 * 
 	 */
-	private int findPath ( Deque<Node> result )
+	private int findPath ( Deque<Integer> result )
 	{
-		for ( Node src: initialiser.getStartNodes () )
+		for ( int i = 0, nsrcs = graph.getSourceCount (); i < nsrcs; i++ )
 		{
-			int srcMin = findPath ( src, result );
+			int srcMin = findPath ( graph.getSource ( i ), result );
 			if ( srcMin > 0 ) {
 				log.trace ( "Returng residual path of value " + srcMin + ": " + result );
 				return srcMin;
@@ -181,22 +243,55 @@ public class MinFlowCalculator
 	 */
 	private void findMinFlow ()
 	{
+		if ( warmFlows != null )
+		{
+			flowMgr = initialiser.takeFlowManager ();
+			for ( int e = 0, nedges = warmFlows.length; e < nedges; e++ ) 
+				flowMgr.updateFlow ( e, warmFlows [ e ] );
+			warmFlows = null;
+			return;
+		}
+
+		long startTime = startPhase ( ExportPhase.FLOW_INITIALISATION );
 		flowMgr = initialiser.getFlowManager ();
+		finishPhase ( ExportPhase.FLOW_INITIALISATION, startTime );
+		
+		startTime = startPhase ( ExportPhase.FLOW_REDUCTION );
+		int niterations = 0, npaths = 0;
 		
-		Deque<Node> path = new LinkedList<Node> ();
-		for ( int minResidual; ( minResidual = -findPath ( path ) ) < 0; )
+		// The flow value is only needed for the progress
+		long initialFlow = exportListener == null ? 0 : getFlowValue (), flow = initialFlow;
+		
+		if ( engine == MinFlowEngine.BLOCKING_FLOW ) 
+		{
+			BlockingFlowReducer reducer = new BlockingFlowReducer ( graph, flowMgr );
+			reducer.setExportListener ( exportListener );
+			reducer.setCancellationToken ( cancellationToken );
+			flow -= reducer.reduce ( initialFlow );
+			niterations = reducer.getPhaseCount ();
+			npaths = reducer.getAugmentingPathCount ();
+		}
+		else
 		{
-			Node prevNode = null;
-			for ( Iterator<Node> pItr = path.iterator (); pItr.hasNext (); )
+			Deque<Integer> path = new LinkedList<Integer> ();
+			for ( int minResidual; ( minResidual = -findPath ( path ) ) < 0; )
 			{
-				if ( prevNode == null ) { prevNode = pItr.next (); continue; }
-
-				Node node = pItr.next ();
-				flowMgr.increaseFlow ( prevNode, node, minResidual );
-				prevNode = node;
+				if ( cancellationToken != null ) cancellationToken.check ();
+				
+				for ( int e: path ) flowMgr.increaseFlow ( e, minResidual );
+				path.clear ();
+				
+				flow += minResidual;
+				if ( ++niterations % ExportListener.PROGRESS_INTERVAL == 0 ) 
+					progress ( ExportPhase.FLOW_REDUCTION, flow, initialFlow );
 			}
-			path.clear ();
+			npaths = niterations;
 		}
+		progress ( ExportPhase.FLOW_REDUCTION, flow, initialFlow );
+
+		increaseCounter ( ExportCounter.REDUCTION_ITERATIONS, niterations );
+		increaseCounter ( ExportCounter.AUGMENTING_PATHS, npaths );
+		finishPhase ( ExportPhase.FLOW_REDUCTION, startTime );
 	}
   
 	/**
@@ -206,6 +301,11 @@ public class MinFlowCalculator
 	 * going toward right as long as possible, mark a new solution when you reach any sink, stop when you cannot build any
 	 * further path this way.
 	 * 
+	 * Sources are taken in their order, and every source is used until its outgoing flow is exhausted. Since the flow 
+	 * left on the edges can only decrease, every node keeps a cursor to its first outgoing edge that still has some flow 
+	 * and this makes the time needed for every path proportional to its length. The decreased flows are a copy, the 
+	 * minimum flow is left untouched.  
+	 * 
 	 * Note that the above procedure adds isolated nodes to the solution automatically, as long as these are present in the 
 	 * initial set of nodes passed to the constructor of this class. 
 	 * 
@@ -214,82 +314,387 @@ public class MinFlowCalculator
 	{
 		if ( isInitialised ) return minPathCover;
 		
-		findMinFlow ();
-		
-		minPathCover = new LinkedList<List<Node>> ();
-		// While you have paths, add them up
-		Set<Node> addedIsolatedNodes = new HashSet<Node> ();
-		for ( List<Node> path; ( path = findMinPath ( addedIsolatedNodes ) ) != null; minPathCover.add ( path ) );
+		// If the minimum flow is already available (see getMinFlowValue()), only the decomposition is left, which gives
+		// the same paths that the components would give, since the paths are taken in the order of the sources anyway  
+		List<GraphSnapshot> components = minFlowValue != -1 ? null : getComponentsToSolve ();
+		if ( components == null || components.size () == 1 ) 
+		{
+			if ( minFlowValue == -1 ) findSingleMinFlow ();
+			
+			long startTime = startPhase ( ExportPhase.PATH_DECOMPOSITION );
+			minPathCover = findMinPaths ();
+			increaseCounter ( ExportCounter.ROWS, minPathCover.size () );
+			finishPhase ( ExportPhase.PATH_DECOMPOSITION, startTime );
+		}
+		else
+			minPathCover = findComponentsMinPaths ( components );
 		
 		isInitialised = true;
+		minFlowValue = minPathCover.size ();
+		// Don't keep the chain of previous versions
+		previousCalc = null;
+		changedNodes = null;
 		
 		return minPathCover;
 	}
-
 	
 	/**
-	 * A wrapper of {@link #findMinPath(Node)} that starts from the graph sources and return the first path that is able
-	 * to find (or null if none).
-	 *  
-	 * @param addedIsolatedNodes is used to let the method which isolated nodes (no input, no output) have already been
-	 * added in previous invocations. This is needed to avoid infinite degenerate path additions.
+	 * <p>The value of the minimum flow, which is the no. of paths in {@link #getMinPathCover()}, i.e., the no. of rows 
+	 * in the final table. If the path cover isn't available yet, this computes the minimum flow only (per component, 
+	 * when {@link #setForkJoinPool(ForkJoinPool) components are computed separately}), without decomposing it into 
+	 * paths, and hence without building any path or invoking {@link Node#getTabValues()}. The flow is kept, so that a 
+	 * later {@link #getMinPathCover()} only has to decompose it.</p>
+	 */
+	public long getMinFlowValue ()
+	{
+		if ( minFlowValue != -1 ) return minFlowValue;
+		
+		List<GraphSnapshot> components = getComponentsToSolve ();
+		if ( components == null || components.size () == 1 ) 
+			findSingleMinFlow ();
+		else
+			solveComponents ( components, null );
+		
+		minFlowValue = getFlowValue ();
+		previousCalc = null;
+		changedNodes = null;
+
+		return minFlowValue;
+	}
+
+	/**
+	 * <p>Iterates over the paths of {@link #getMinPathCover()}, in the same order. If the path cover wasn't computed 
+	 * yet, this only computes the minimum flow (see {@link #getMinFlowValue()}) and then every path is decomposed from 
+	 * the flow when it's requested, so that the paths don't need to be kept in memory. In this case, every call 
+	 * returns a new iterator, which decomposes the flow again, on its own copy of the flows, so the memory it uses 
+	 * depends on the graph size only.</p>
 	 * 
+	 * <p>This doesn't report any decomposition phase to the {@link #getExportListener() listener}, since the paths 
+	 * are decomposed while the caller uses them.</p>
+	 */
+	public Iterator<List<Node>> getMinPathIterator ()
+	{
+		if ( isInitialised ) return Collections.unmodifiableList ( minPathCover ).iterator ();
+		getMinFlowValue ();
+		return new PathIterator ();
+	}
+	
+	/**
+	 * The components to be solved separately, or null if the graph is solved as a whole, i.e., when there isn't either 
+	 * a fork/join pool or a warm start.
+	 */
+	private List<GraphSnapshot> getComponentsToSolve ()
+	{
+		return forkJoinPool == null && previousCalc == null ? null : graph.getComponents ();
+	}
+	
+	/**
+	 * Computes the minimum flow of the whole graph, with the warm start, if any.
+	 */
+	private void findSingleMinFlow ()
+	{
+		if ( previousCalc != null ) initWarmFlows ();
+		findMinFlow ();
+	}
+
+	/**
+	 * The no. of paths that the current flow yields, i.e., the sum of the flows leaving the sources, plus the isolated 
+	 * nodes, which are paths too.
+	 */
+	private long getFlowValue ()
+	{
+		long result = 0;
+		for ( int i = 0, nsrcs = graph.getSourceCount (); i < nsrcs; i++ )
+			result += Math.max ( 1, flowMgr.getDeficit ( graph.getSource ( i ) ) );
+		return result;
+	}
+	
+	/**
+	 * Does the job of {@link #getMinPathCover()} once the minimum flow is available.
+	 */
+	private List<List<Node>> findMinPaths ()
+	{
+		List<List<Node>> result = new ArrayList<List<Node>> ();
+		
+		long npaths = exportListener == null ? 0 : getFlowValue ();
+		
+		for ( Iterator<List<Node>> pathItr = new PathIterator (); pathItr.hasNext (); )
+		{
+			result.add ( pathItr.next () );
+			if ( result.size () % ExportListener.PROGRESS_INTERVAL == 0 ) 
+				progress ( ExportPhase.PATH_DECOMPOSITION, result.size (), npaths );
+		}
+		
+		progress ( ExportPhase.PATH_DECOMPOSITION, result.size (), npaths );
+		return result;
+	}
+	
+	/**
+	 * Decomposes the minimum flow into paths, one path per {@link #next()} call, see {@link #getMinPathCover()}. 
+	 * Works on a copy of the flows, so the minimum flow is left untouched.
 	 */
-	private List<Node> findMinPath ( Set<Node> addedIsolatedNodes )
+	private class PathIterator implements Iterator<List<Node>>
 	{
-		for ( Node src: initialiser.getStartNodes () )
+		private final int[] remainingFlows = flowMgr.copyFlows ();
+		private final int[] cursors = new int [ graph.getNodeCount () ];
+		
+		/** The index of the source whose paths are being built */
+		private int sourceIdx = 0;
+		
+		PathIterator ()
 		{
-			if ( addedIsolatedNodes.contains ( src ) ) continue;
+			for ( int n = 0; n < cursors.length; n++ ) cursors [ n ] = graph.getOutEdgesStart ( n );
+		}
 
-			if ( src.getInputs ().isEmpty () && src.getOutputs ().isEmpty () )
+		@Override
+		public boolean hasNext ()
+		{
+			for ( int nsrcs = graph.getSourceCount (); sourceIdx < nsrcs; sourceIdx++ )
 			{
-				// If it's an isolated node, keep track of it and then return the corresponding path.
-				addedIsolatedNodes.add ( src );
-				List<Node> path = new LinkedList<Node> ();
-				path.add ( src );
-				return path;
+				// An isolated node is a path, which is returned once, the other sources have paths as long as they have 
+				// some outgoing flow left
+				int src = graph.getSource ( sourceIdx );
+				if ( graph.getOutDegree ( src ) == 0 || nextFlowEdge ( src, cursors, remainingFlows ) != -1 ) return true;
 			}
+			return false;
+		}
+
+		@Override
+		public List<Node> next ()
+		{
+			if ( !hasNext () ) throw new NoSuchElementException ( "No more paths in the minimum path cover" );
+			if ( cancellationToken != null ) cancellationToken.check ();
+
+			int src = graph.getSource ( sourceIdx );
+			if ( graph.getOutDegree ( src ) != 0 ) return findMinPath ( src, cursors, remainingFlows );
 			
-			List<Node> path = findMinPath ( src );
-			if ( path == null ) continue;
-			
+			// If it's an isolated node, the corresponding path is the node alone.
+			List<Node> path = new ArrayList<Node> ( 1 );
+			path.add ( graph.getNode ( src ) );
+			sourceIdx++;
 			return path;
 		}
-		return null;
+
+		@Override
+		public void remove () {
+			throw new UnsupportedOperationException ( "Can't remove paths from the minimum path cover" );
+		}
+	}
+	
+	/**
+	 * <p>Computes {@link #getMinPathCover()} by working on each of the graph components separately and in parallel, 
+	 * using the {@link #setForkJoinPool(ForkJoinPool) fork/join pool}.</p> 
+	 * 
+	 * <p>This gives the same result of the sequential computation, since the flow algorithms never cross the component
+	 * boundaries and the operations on a component don't depend on anything outside it: the order of sources is 
+	 * kept within every component and then the paths computed for the components are merged following the sources 
+	 * order. The minimum flow of every component is copied into the flow manager of this calculator.</p>
+	 * 
+	 * <p>This is also used for {@link #setWarmStart(MinFlowCalculator, Set) warm starts}, in which case the components 
+	 * are solved sequentially when there is no fork/join pool.</p>
+	 * 
+	 */
+	private List<List<Node>> findComponentsMinPaths ( List<GraphSnapshot> components )
+	{
+		int ncomps = components.size ();
+		List<List<List<Node>>> componentPaths = new ArrayList<List<List<Node>>> ( ncomps );
+		for ( int c = 0; c < ncomps; c++ ) componentPaths.add ( null );
+		
+		solveComponents ( components, componentPaths );
+		
+		// Every path starts from a source, so we can pick the paths from the components in the same order that the 
+		// sequential algorithm would use
+		List<List<Node>> result = new ArrayList<List<Node>> ();
+		int[] pathCursors = new int [ ncomps ];
+		for ( int i = 0, nsrcs = graph.getSourceCount (); i < nsrcs; i++ )
+		{
+			int src = graph.getSource ( i ), c = graph.getComponentIndex ( src );
+			Node srcNode = graph.getNode ( src );
+			List<List<Node>> paths = componentPaths.get ( c );
+			for ( int np = paths.size (); pathCursors [ c ] < np && paths.get ( pathCursors [ c ] ).get ( 0 ) == srcNode; )
+				result.add ( paths.get ( pathCursors [ c ]++ ) );
+		}
+		
+		return result;
 	}
+	
+	/**
+	 * Computes the minimum flow of every component and copies it into the flow manager of this calculator, using the 
+	 * fork/join pool, if any. If componentPaths isn't null, the component paths are computed too and stored there.
+	 */
+	private void solveComponents ( List<GraphSnapshot> components, List<List<List<Node>>> componentPaths )
+	{
+		flowMgr = initialiser.takeFlowManager ();
+		
+		int ncomps = components.size ();
+		int[] nodeOffsets = new int [ ncomps + 1 ];
+		for ( int c = 0; c < ncomps; c++ ) 
+			nodeOffsets [ c + 1 ] = nodeOffsets [ c ] + components.get ( c ).getNodeCount ();
 
+		if ( forkJoinPool == null )
+			solveComponents ( components, componentPaths, 0, ncomps );
+		else
+			forkJoinPool.invoke ( new ComponentsSolver ( components, componentPaths, nodeOffsets, 0, ncomps ) );
+	}
+	
 	/**
-	 * The recursive step of {@link #getMinPathCover()}, see there.
+	 * Solves a range of components, see {@link MinFlowCalculator#findComponentsMinPaths(List)}.
 	 */
-	private List<Node> findMinPath ( Node n  )
+	private class ComponentsSolver extends RecursiveAction
 	{
-		Set<Node> nouts = n.getOutputs ();
+		private static final long serialVersionUID = 7470946221383939453L;
+		
+		private final List<GraphSnapshot> components;
+		private final List<List<List<Node>>> componentPaths;
+		private final int[] nodeOffsets;
+		private final int from, to;
 		
-		// End of travel, this is a new solution, start building it.
-		if ( nouts.isEmpty () ) 
+		ComponentsSolver ( 
+			List<GraphSnapshot> components, List<List<List<Node>>> componentPaths, int[] nodeOffsets, int from, int to 
+		)
+		{
+			this.components = components;
+			this.componentPaths = componentPaths;
+			this.nodeOffsets = nodeOffsets;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute ()
 		{
-			List<Node> result = new LinkedList<Node> ();
-			result.add ( n );
-			return result;
+			if ( to - from > 1 && nodeOffsets [ to ] - nodeOffsets [ from ] > PARALLEL_GRAIN_NODES )
+			{
+				int mid = ( from + to ) / 2;
+				invokeAll ( 
+					new ComponentsSolver ( components, componentPaths, nodeOffsets, from, mid ),
+					new ComponentsSolver ( components, componentPaths, nodeOffsets, mid, to )
+				);
+				return;
+			}
+			solveComponents ( components, componentPaths, from, to );
 		}
+	}
 
-		for ( Node nout: nouts )
+	/**
+	 * Computes the flows (and the paths, if componentPaths isn't null) of the components in [from, to), see 
+	 * {@link #findComponentsMinPaths(List)}. 
+	 */
+	private void solveComponents ( 
+		List<GraphSnapshot> components, List<List<List<Node>>> componentPaths, int from, int to 
+	)
+	{
+		for ( int c = from; c < to; c++ )
+		{
+			if ( cancellationToken != null ) cancellationToken.check ();
+			
+			GraphSnapshot component = components.get ( c );
+			MinFlowCalculator componentCalc = new MinFlowCalculator ( component, engine );
+			componentCalc.setExportListener ( exportListener );
+			componentCalc.setCancellationToken ( cancellationToken );
+			if ( previousCalc != null ) componentCalc.setWarmStart ( previousCalc, changedNodes );
+			if ( componentPaths == null ) componentCalc.getMinFlowValue ();
+			else componentPaths.set ( c, componentCalc.getMinPathCover () );
+			
+			// Components have disjoint nodes and edges, so there are no conflicts in doing this in parallel
+			for ( int e = 0, nedges = component.getEdgeCount (); e < nedges; e++ )
+				flowMgr.updateFlow ( component.getParentEdgeId ( e ), componentCalc.flowMgr.getFlow ( e ) );
+		}
+	}
+	
+	/**
+	 * <p>Prepares the {@link #setWarmStart(MinFlowCalculator, Set) warm start} of this calculator, which is invoked 
+	 * on a single component (or on a graph made of one component only).</p>
+	 * 
+	 * <p>If the component is exactly one component of the previous graph (same nodes and edges) and none of its nodes 
+	 * was changed, the previous flow is already the minimum flow (the flow algorithms don't depend on anything outside 
+	 * a component), so nothing has to be computed. Otherwise, the component is solved from scratch: reducing the 
+	 * previous flow, after having balanced it, could end up with a flow higher than the one found from scratch, since 
+	 * the {@link MinFlowEngine#FORD_FULKERSON default reduction} isn't exact, which would make the result depend on the 
+	 * graph history.</p>
+	 */
+	private void initWarmFlows ()
+	{
+		GraphSnapshot previousGraph = previousCalc.graph;
+		FlowManager previousFlows = previousCalc.flowMgr;
+		
+		int nnodes = graph.getNodeCount (), nedges = graph.getEdgeCount ();
+		warmFlows = new int [ nedges ];
+		boolean isSameComponent = true;
+		int previousComp = -1;
+		
+		for ( int n = 0; n < nnodes; n++ )
 		{
-			if ( flowMgr.getFlow ( n, nout ) == 0 ) continue;
+			Node node = graph.getNode ( n );
+			int pn = previousGraph.getNodeId ( node );
+			
+			if ( pn == -1 || changedNodes.contains ( node ) ) 
+				isSameComponent = false;
+			else if ( isSameComponent )
+			{
+				int pc = previousGraph.getComponentIndex ( pn );
+				if ( previousComp == -1 ) previousComp = pc;
+				else if ( pc != previousComp ) isSameComponent = false;
+			}
 			
+			for ( int e = graph.getOutEdgesStart ( n ), end = graph.getOutEdgesEnd ( n ); e < end; e++ )
+			{
+				int pe = pn == -1 
+					? -1 : previousGraph.findEdge ( pn, previousGraph.getNodeId ( graph.getNode ( graph.getEdgeTarget ( e ) ) ) );
+				if ( pe == -1 ) isSameComponent = false;
+				else warmFlows [ e ] = previousFlows.getFlow ( pe );
+			}
+			if ( !isSameComponent ) break;
+		}
+		
+		// All the nodes and edges here were in the same previous component, if the sizes are the same too, then it is 
+		// the same component
+		if ( isSameComponent && previousComp != -1 ) 
+		{
+			GraphSnapshot previousComponent = previousGraph.getComponents ().get ( previousComp );
+			isSameComponent = previousComponent.getNodeCount () == nnodes && previousComponent.getEdgeCount () == nedges;
+		}
+		if ( !isSameComponent ) warmFlows = null;
+	}
+	
+	/**
+	 * The path-building step of {@link #getMinPathCover()}, see there. It starts from n, which is assumed to have 
+	 * some outgoing flow left and always reaches a sink, since the flow is balanced at every node. 
+	 */
+	private List<Node> findMinPath ( int n, int[] cursors, int[] remainingFlows )
+	{
+		List<Node> result = new ArrayList<Node> ();
+		result.add ( graph.getNode ( n ) );
+		
+		// End of travel when we reach a sink
+		while ( graph.getOutDegree ( n ) != 0 )
+		{
 			// Go through the first edge still having a positive flow, decrease it so that one more visit is traced.
-			flowMgr.increaseFlow ( n, nout, -1 );
+			int e = nextFlowEdge ( n, cursors, remainingFlows );
+			if ( e == -1 ) throw new IllegalStateException ( 
+				"Internal error: I found a node with no outgoing flow while building the graph paths, this is likely due to " +
+				"some problem with the Node implementation, check the way you customised graph2tab for your particular " +
+				"use case." 
+			);
+			remainingFlows [ e ]--;
 			
-			List<Node> path = findMinPath ( nout );
-			if ( path == null ) continue;
-
-			// Compute the solution as the current node plus what it was found by the right-ward recursion.
-			path.add ( 0, n );
-			return path;
+			n = graph.getEdgeTarget ( e );
+			result.add ( graph.getNode ( n ) );
 		}
 		
-		// No solution if we reach this point, return null to mark that.
-		return null;
+		return result;
+	}
+	
+	/**
+	 * Moves the cursor of n to the first outgoing edge that has some flow left and returns such edge, -1 if there isn't
+	 * any. 
+	 */
+	private int nextFlowEdge ( int n, int[] cursors, int[] remainingFlows )
+	{
+		int e = cursors [ n ], outEnd = graph.getOutEdgesEnd ( n );
+		while ( e < outEnd && remainingFlows [ e ] == 0 ) e++;
+		cursors [ n ] = e;
+		return e == outEnd ? -1 : e;
 	}
 	
 	/**
@@ -302,6 +707,126 @@ public class MinFlowCalculator
 		return initialiser.getNodes ();
 	}
 
+	/**
+	 * If this is set, {@link #getMinPathCover()} works on the {@link GraphSnapshot#getComponents() graph components} 
+	 * in parallel, using this pool. The result is the same as the sequential computation. Default is null, which means
+	 * no parallelism.
+	 */
+	public ForkJoinPool getForkJoinPool ()
+	{
+		return forkJoinPool;
+	}
+
+	/**
+	 * See {@link #getForkJoinPool()}. This must be invoked before {@link #getMinPathCover()}.
+	 */
+	public void setForkJoinPool ( ForkJoinPool forkJoinPool )
+	{
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * If not null, this receives the durations and the counters of the flow phases, from 
+	 * {@link ExportPhase#FLOW_INITIALISATION} to {@link ExportPhase#PATH_DECOMPOSITION}. When the graph components are 
+	 * computed separately, these are reported per component. Default is null.
+	 */
+	public ExportListener getExportListener ()
+	{
+		return exportListener;
+	}
+
+	/**
+	 * See {@link #getExportListener()}. This must be invoked before {@link #getMinPathCover()}.
+	 */
+	public void setExportListener ( ExportListener exportListener )
+	{
+		this.exportListener = exportListener;
+		initialiser.setExportListener ( exportListener );
+	}
+	
+	/**
+	 * If not null, this is checked periodically while computing the path cover, which is interrupted by a 
+	 * {@link java.util.concurrent.CancellationException} when the token is cancelled. Default is null.
+	 */
+	public CancellationToken getCancellationToken ()
+	{
+		return cancellationToken;
+	}
+
+	/**
+	 * See {@link #getCancellationToken()}. This must be invoked before {@link #getMinPathCover()}.
+	 */
+	public void setCancellationToken ( CancellationToken cancellationToken )
+	{
+		this.cancellationToken = cancellationToken;
+		initialiser.setCancellationToken ( cancellationToken );
+	}
+
+	/**
+	 * Reports the start of a phase to the {@link #getExportListener() listener}, if any, and returns the start time.
+	 */
+	private long startPhase ( ExportPhase phase )
+	{
+		if ( exportListener == null ) return 0;
+		exportListener.phaseStarted ( phase );
+		return System.nanoTime ();
+	}
+
+	private void finishPhase ( ExportPhase phase, long startTime )
+	{
+		if ( exportListener == null ) return;
+		exportListener.phaseFinished ( phase, System.nanoTime () - startTime );
+	}
+
+	private void increaseCounter ( ExportCounter counter, long delta )
+	{
+		if ( exportListener != null ) exportListener.counterIncreased ( counter, delta );
+	}
+
+	/**
+	 * Checks the {@link #getCancellationToken() cancellation token} and reports the progress, if there are token and 
+	 * listener.
+	 */
+	private void progress ( ExportPhase phase, long value, long total )
+	{
+		if ( cancellationToken != null ) cancellationToken.check ();
+		if ( exportListener != null ) exportListener.progressed ( phase, value, total );
+	}
+
+	/**
+	 * <p>Makes this calculator start from the minimum flow computed by another calculator, for a previous version of 
+	 * the graph. changedNodes are the nodes whose inputs, outputs or {@link Node#compareTo(Node) order} changed since 
+	 * then (added nodes and the nodes they're linked to included). This must be invoked before 
+	 * {@link #getMinPathCover()}. If previousCalc didn't compute its path cover yet, this is done now.</p>
+	 * 
+	 * <p>This is meant for graphs that change a little between two exports. The graph components that didn't change 
+	 * reuse their previous flow as it is, and hence give the same paths they gave in the previous graph, while the 
+	 * components touched by the changes are solved from scratch. So, the result is the same as a calculator without 
+	 * warm start would give, but only the changed components are computed.</p>
+	 */
+	public void setWarmStart ( MinFlowCalculator previousCalc, Set<Node> changedNodes )
+	{
+		previousCalc.getMinPathCover ();
+		this.previousCalc = previousCalc;
+		this.changedNodes = changedNodes;
+	}
+	
+	/**
+	 * The algorithm used to compute the minimum flow.
+	 */
+	public MinFlowEngine getEngine ()
+	{
+		return engine;
+	}
+
+	/**
+	 * The graph this calculator works on.
+	 */
+	public GraphSnapshot getGraph ()
+	{
+		return graph;
+	}
+
 	/**
 	 * The left-most, source nodes, i.e., those nodes that have no real input. This is actually a wrapper of 
 	 * {@link FlowInitialiser#getStartNodes()}.
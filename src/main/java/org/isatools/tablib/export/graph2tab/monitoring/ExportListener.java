@@ -0,0 +1,177 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.monitoring;
+
+import org.isatools.tablib.export.graph2tab.Node;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Receives the durations and the counters of the export phases, e.g., to send them to a monitoring system. You can 
+ * set a listener via {@link org.isatools.tablib.export.graph2tab.TableBuilder#setExportListener(ExportListener)}. 
+ * All the methods do nothing by default, so that you can override only what you need. See {@link ExportMetrics} 
+ * for a listener that collects everything.</p>
+ * 
+ * <p>The flow phases are computed per graph component when the components are computed separately (see 
+ * {@link org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator#getForkJoinPool()}), in which case they're 
+ * reported once per component and, if there is a fork/join pool, from multiple threads at the same time, so 
+ * listeners must be thread-safe. Moreover, phases don't overlap within the same thread, e.g., the path cover is 
+ * computed before starting the {@link ExportPhase#TABLE_MERGE table merge}, and the counters of a phase are reported 
+ * before its end, from the same thread, except {@link ExportCounter#CHARS_WRITTEN}, which is reported after the 
+ * writing.</p>
+ * 
+ * <p>By default, {@link org.isatools.tablib.export.graph2tab.TableBuilder} uses {@link #newDefaultListener()}.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public abstract class ExportListener
+{
+	/**
+	 * {@link #progressed(ExportPhase, long, long)} is invoked every these units of work and at the end of a phase. 
+	 * The {@link org.isatools.tablib.export.graph2tab.CancellationToken cancellation token} is checked at the same 
+	 * points, and at the start of every flow iteration, layer shift and graph component.
+	 */
+	public static final int PROGRESS_INTERVAL = 1024;
+	
+	/**
+	 * A phase is about to start. 
+	 */
+	public void phaseStarted ( ExportPhase phase ) 
+	{
+	}
+	
+	/**
+	 * A phase has finished after the given time.
+	 */
+	public void phaseFinished ( ExportPhase phase, long nanos ) 
+	{
+	}
+
+	/**
+	 * A counter was increased. The counters are reported with the total of a phase (or of a component), not for every 
+	 * single event.
+	 */
+	public void counterIncreased ( ExportCounter counter, long delta ) 
+	{
+	}
+	
+	/**
+	 * <p>The progress within a phase, value units of work out of total, where the units depend on the phase:</p>
+	 * 
+	 * <ul>
+	 *   <li>{@link ExportPhase#FLOW_INITIALISATION}: the nodes which had their initial flow set, out of the nodes with 
+	 *   outputs</li>
+	 *   <li>{@link ExportPhase#FLOW_REDUCTION}: the current flow, i.e., the no. of rows it would yield. This goes down 
+	 *   from total, the initial flow, to the minimum flow, and it's reported every {@link #PROGRESS_INTERVAL} 
+	 *   iterations (every phase, for {@link org.isatools.tablib.export.graph2tab.minflow.MinFlowEngine#BLOCKING_FLOW})
+	 *   </li>
+	 *   <li>{@link ExportPhase#PATH_DECOMPOSITION}: the rows extracted from the flow, out of the rows to extract</li>
+	 *   <li>{@link ExportPhase#LAYERING}: the layers processed, out of the layers computed so far</li>
+	 *   <li>{@link ExportPhase#TABLE_MERGE}: the rows merged into the table, out of the rows</li>
+	 *   <li>{@link ExportPhase#TABLE_WRITING}: the rows written, out of the rows</li>
+	 * </ul>
+	 * 
+	 * <p>As for the phases, the progress of the flow phases is reported per graph component, when the components are 
+	 * computed separately.</p>
+	 */
+	public void progressed ( ExportPhase phase, long value, long total )
+	{
+	}
+
+	/**
+	 * The node was shifted to the next layer, because of its type, together with shiftedNodes - 1 nodes on its right, 
+	 * see {@link org.isatools.tablib.export.graph2tab.LayersBuilder}. This is invoked for every shift, so it should 
+	 * return quickly.
+	 */
+	public void layerShifted ( Node node, int shiftedNodes )
+	{
+	}
+	
+	/**
+	 * The output of {@link org.isatools.tablib.export.graph2tab.TableBuilder#reportTSV(com.opencsv.CSVWriter)} was 
+	 * flushed, after having written the headers and rowsWritten rows.
+	 */
+	public void outputFlushed ( long rowsWritten )
+	{
+	}
+	
+	
+	private static final boolean IS_JFR_AVAILABLE = isJfrAvailable ();
+	
+	/**
+	 * A new {@link JfrExportListener}, if the Java Flight Recorder API is available in this JVM (Java 11 or later, 
+	 * recent updates of Java 8) and it isn't disabled with -Dgraph2tab.jfr=false, null otherwise. The listener is 
+	 * instantiated via reflection, so that its class isn't loaded by older JVMs.
+	 */
+	public static ExportListener newDefaultListener ()
+	{
+		if ( !IS_JFR_AVAILABLE ) return null;
+		try {
+			return (ExportListener) Class.forName ( ExportListener.class.getPackage ().getName () + ".JfrExportListener" )
+				.getDeclaredConstructor ().newInstance ();
+		}
+		catch ( ReflectiveOperationException ex ) {
+			throw new IllegalStateException ( "Internal error: can't instantiate the JFR export listener: " + ex.getMessage (), ex );
+		}
+	}
+	
+	private static boolean isJfrAvailable ()
+	{
+		if ( !Boolean.parseBoolean ( System.getProperty ( "graph2tab.jfr", "true" ) ) ) return false;
+		try {
+			Class.forName ( "jdk.jfr.Event" );
+			return true;
+		}
+		catch ( ClassNotFoundException ex ) 
+		{
+			LoggerFactory.getLogger ( ExportListener.class ).debug ( "JFR not available, export events disabled" );
+			return false;
+		}
+	}
+}
@@ -0,0 +1,91 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.monitoring;
+
+/**
+ * The phases of an export that are reported to {@link ExportListener}. 
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public enum ExportPhase
+{
+	/** The discovery of the graph nodes and edges, see {@link org.isatools.tablib.export.graph2tab.GraphSnapshot} */
+	GRAPH_CAPTURE,
+	
+	/** The computation of the initial flow, see {@link org.isatools.tablib.export.graph2tab.minflow.MinFlowCalculator} */
+	FLOW_INITIALISATION,
+	
+	/** The reduction of the initial flow to the minimum flow */
+	FLOW_REDUCTION,
+	
+	/** 
+	 * The decomposition of the minimum flow into the path cover, i.e., the table rows. This isn't reported in 
+	 * {@link org.isatools.tablib.export.graph2tab.TableBuilder#isStreamingExport() streaming mode}, where the paths 
+	 * are decomposed during {@link #TABLE_MERGE} and {@link #TABLE_WRITING}, without keeping them. 
+	 */
+	PATH_DECOMPOSITION,
+	
+	/** The computation of the layers, see {@link org.isatools.tablib.export.graph2tab.LayersBuilder} */
+	LAYERING,
+	
+	/** 
+	 * The merge of the node values into the table columns, i.e., the building of 
+	 * {@link org.isatools.tablib.export.graph2tab.TableContents}, or the computation of the headers in 
+	 * {@link org.isatools.tablib.export.graph2tab.TableBuilder#isStreamingExport() streaming mode}, which includes the 
+	 * decomposition of the minimum flow into paths.
+	 */
+	TABLE_MERGE,
+	
+	/** 
+	 * The writing of the table by {@link org.isatools.tablib.export.graph2tab.TableBuilder#reportTSV(com.opencsv.CSVWriter)}, 
+	 * which includes the building of the rows from the table contents, or from the paths in streaming mode.
+	 */
+	TABLE_WRITING
+}
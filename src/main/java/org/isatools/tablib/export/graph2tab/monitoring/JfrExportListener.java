@@ -0,0 +1,280 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.monitoring;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+import org.isatools.tablib.export.graph2tab.Node;
+
+/**
+ * <p>Emits Java Flight Recorder events for the export, so that slow exports can be diagnosed from the recordings 
+ * (e.g., with JDK Mission Control), with no need for trace logging. The events are:</p>
+ * 
+ * <ul>
+ *   <li><b>org.isatools.graph2tab.ExportPhase</b>, for every {@link ExportPhase} (or every graph component, for the 
+ *   flow phases computed per component), with the size of the graph, the rows computed so far and the counters 
+ *   reported during the phase. The default threshold is 1 ms, so that graphs with many small components don't 
+ *   flood the recording.</li>
+ *   <li><b>org.isatools.graph2tab.LayerShift</b>, for every shift of a node to the next layer that moves at least 
+ *   {@link #getLargeShiftNodes()} nodes.</li>
+ *   <li><b>org.isatools.graph2tab.TableFlush</b>, for every flush of the exported table, lasting from the previous 
+ *   flush (or the start of the writing), with the rows written so far.</li>
+ * </ul>
+ * 
+ * <p>When the events aren't being recorded, this costs little more than the timing of the phases. This class needs 
+ * the jdk.jfr module, you should get it via {@link ExportListener#newDefaultListener()}, which checks it's available. 
+ * It is thread-safe.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class JfrExportListener extends ExportListener
+{
+	@Name ( "org.isatools.graph2tab.ExportPhase" )
+	@Label ( "Export Phase" )
+	@Category ( "graph2tab" )
+	@Description ( "A phase of the export of a graph into a table" )
+	@Threshold ( "1 ms" )
+	@StackTrace ( false )
+	static class ExportPhaseEvent extends Event
+	{
+		@Label ( "Phase" )
+		String phase;
+		
+		@Label ( "Graph Nodes" )
+		long graphNodes;
+		
+		@Label ( "Graph Edges" )
+		long graphEdges;
+		
+		@Label ( "Rows" )
+		@Description ( "The rows computed so far" )
+		long rows;
+		
+		@Label ( "Reduction Iterations" )
+		long reductionIterations;
+		
+		@Label ( "Augmenting Paths" )
+		long augmentingPaths;
+		
+		@Label ( "Layer Shifts" )
+		long layerShifts;
+		
+		@Label ( "Merged Nodes" )
+		long mergedNodes;
+	}
+	
+	@Name ( "org.isatools.graph2tab.LayerShift" )
+	@Label ( "Layer Shift" )
+	@Category ( "graph2tab" )
+	@Description ( "A node shifted to the next layer, together with many nodes on its right" )
+	@StackTrace ( false )
+	static class LayerShiftEvent extends Event
+	{
+		@Label ( "Node" )
+		String node;
+
+		@Label ( "Node Type" )
+		String nodeType;
+		
+		@Label ( "Shifted Nodes" )
+		int shiftedNodes;
+		
+		@Label ( "Graph Nodes" )
+		long graphNodes;
+	}
+	
+	@Name ( "org.isatools.graph2tab.TableFlush" )
+	@Label ( "Table Flush" )
+	@Category ( "graph2tab" )
+	@Description ( "The writing of the exported table, from the previous flush" )
+	@StackTrace ( false )
+	static class TableFlushEvent extends Event
+	{
+		@Label ( "Rows Written" )
+		long rowsWritten;
+
+		@Label ( "Graph Nodes" )
+		long graphNodes;
+	}
+	
+	/**
+	 * The default for {@link #getLargeShiftNodes()}.
+	 */
+	public static final int DEFAULT_LARGE_SHIFT_NODES = 1000;
+	
+	private volatile int largeShiftNodes = DEFAULT_LARGE_SHIFT_NODES;
+	
+	private final AtomicLong graphNodes = new AtomicLong (), graphEdges = new AtomicLong (), rows = new AtomicLong ();
+	
+	/**
+	 * Phases don't overlap within a thread, so one event per thread is enough.
+	 */
+	private final ThreadLocal<ExportPhaseEvent> phaseEvents = new ThreadLocal<ExportPhaseEvent> ();
+	private final ThreadLocal<TableFlushEvent> flushEvents = new ThreadLocal<TableFlushEvent> ();
+	
+	@Override
+	public void phaseStarted ( ExportPhase phase )
+	{
+		if ( phase == ExportPhase.GRAPH_CAPTURE )
+		{
+			// A new graph, e.g., after TableBuilder.update()
+			graphNodes.set ( 0 );
+			graphEdges.set ( 0 );
+			rows.set ( 0 );
+		}
+		else if ( phase == ExportPhase.TABLE_WRITING ) 
+		{
+			TableFlushEvent flushEvent = new TableFlushEvent ();
+			flushEvent.begin ();
+			flushEvents.set ( flushEvent );
+		}
+
+		ExportPhaseEvent event = new ExportPhaseEvent ();
+		if ( !event.isEnabled () ) return;
+		event.phase = phase.name ();
+		event.begin ();
+		phaseEvents.set ( event );
+	}
+
+	@Override
+	public void phaseFinished ( ExportPhase phase, long nanos )
+	{
+		if ( phase == ExportPhase.TABLE_WRITING ) flushEvents.remove ();
+		
+		ExportPhaseEvent event = phaseEvents.get ();
+		if ( event == null ) return;
+		phaseEvents.remove ();
+		
+		event.end ();
+		if ( !event.shouldCommit () ) return;
+		event.graphNodes = graphNodes.get ();
+		event.graphEdges = graphEdges.get ();
+		event.rows = rows.get ();
+		event.commit ();
+	}
+
+	@Override
+	public void counterIncreased ( ExportCounter counter, long delta )
+	{
+		switch ( counter ) 
+		{
+			case NODES: graphNodes.addAndGet ( delta ); return;
+			case EDGES: graphEdges.addAndGet ( delta ); return;
+			case ROWS: rows.addAndGet ( delta ); return;
+			default: 
+		}
+		
+		ExportPhaseEvent event = phaseEvents.get ();
+		if ( event == null ) return;
+		
+		switch ( counter ) 
+		{
+			case REDUCTION_ITERATIONS: event.reductionIterations += delta; break;
+			case AUGMENTING_PATHS: event.augmentingPaths += delta; break;
+			case LAYER_SHIFTS: event.layerShifts += delta; break;
+			case MERGED_NODES: event.mergedNodes += delta; break;
+			default:
+		}
+	}
+
+	@Override
+	public void layerShifted ( Node node, int shiftedNodes )
+	{
+		if ( shiftedNodes < largeShiftNodes ) return;
+		
+		LayerShiftEvent event = new LayerShiftEvent ();
+		if ( !event.shouldCommit () ) return;
+		event.node = String.valueOf ( node );
+		event.nodeType = node.getType ();
+		event.shiftedNodes = shiftedNodes;
+		event.graphNodes = graphNodes.get ();
+		event.commit ();
+	}
+
+	@Override
+	public void outputFlushed ( long rowsWritten )
+	{
+		TableFlushEvent event = flushEvents.get ();
+		if ( event == null ) return;
+		
+		event.end ();
+		if ( event.shouldCommit () ) 
+		{
+			event.rowsWritten = rowsWritten;
+			event.graphNodes = graphNodes.get ();
+			event.commit ();
+		}
+		
+		// The next flush event starts here
+		event = new TableFlushEvent ();
+		event.begin ();
+		flushEvents.set ( event );
+	}
+
+	/**
+	 * The minimum no. of nodes that a shift has to move to the next layer for emitting an event about it, default is 
+	 * {@link #DEFAULT_LARGE_SHIFT_NODES}.
+	 */
+	public int getLargeShiftNodes () {
+		return largeShiftNodes;
+	}
+
+	public void setLargeShiftNodes ( int largeShiftNodes ) {
+		this.largeShiftNodes = largeShiftNodes;
+	}
+}
@@ -0,0 +1,335 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.synthetic;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import org.isatools.tablib.export.graph2tab.DefaultTabValueGroup;
+import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TabValueGroup;
+
+/**
+ * <p>A seedable generator of synthetic experimental graphs, to be used for testing and benchmarking. A graph has a 
+ * {@link SyntheticGraphShape shape}, a size and a random seed, and the same parameters always yield the same graph.</p>
+ * 
+ * <p>Nothing is stored here: {@link #getNodes()} and {@link #getSources()} are views that create 
+ * {@link SyntheticNode flyweight nodes} while you iterate them, and the links and values of a node are computed when 
+ * they're asked, so that multi-million node graphs can be tested without keeping a second copy of them in memory 
+ * (the components of graph2tab, such as {@link org.isatools.tablib.export.graph2tab.TableBuilder}, will still build 
+ * their own structures).</p>
+ * 
+ * <p>Every node yields {@link #getValueGroupsWidth()} value groups, the first being a name like 'Sample Name', the 
+ * others being characteristics with values repeated across nodes, as it happens in real graphs. Every group is nested 
+ * {@link #getValueGroupsDepth()} levels deep, e.g., with a 'Term Source REF' and a 'Term Accession Number' for 
+ * depth = 3.</p> 
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class SyntheticGraph
+{
+	private final SyntheticGraphShape shape;
+	private final int size, blockSize;
+	private final long seed;
+	
+	private int valueGroupsWidth = 1, valueGroupsDepth = 1;
+	private volatile int sourcesCount = -1;
+	
+	
+	/**
+	 * Uses the {@link SyntheticGraphShape#getDefaultBlockSize() default block size}.
+	 */
+	public SyntheticGraph ( SyntheticGraphShape shape, int size, long seed )
+	{
+		this ( shape, size, seed, shape.getDefaultBlockSize () );
+	}
+	
+	/**
+	 * @param size the number of nodes, which is rounded down to a multiple of the block size. 
+	 * @param blockSize the size of the disconnected blocks the graph is made of, which might be adjusted to the 
+	 *        shape, see {@link SyntheticGraphShape}.
+	 */
+	public SyntheticGraph ( SyntheticGraphShape shape, int size, long seed, int blockSize )
+	{
+		if ( shape == null ) throw new IllegalArgumentException ( "A synthetic graph needs a shape" );
+		
+		this.shape = shape;
+		this.seed = seed;
+		this.blockSize = shape.normaliseBlockSize ( blockSize );
+		if ( size < this.blockSize ) throw new IllegalArgumentException ( 
+			"Can't build a synthetic graph of " + size + " nodes, the block size for it is " + this.blockSize 
+		);
+		this.size = size - size % this.blockSize;
+	}
+
+	public SyntheticGraphShape getShape () {
+		return shape;
+	}
+
+	/**
+	 * The number of nodes.
+	 */
+	public int getSize () {
+		return size;
+	}
+
+	public int getBlockSize () {
+		return blockSize;
+	}
+
+	public long getSeed () {
+		return seed;
+	}
+
+	/**
+	 * The number of value groups each node has, 1 (the name only) by default.
+	 */
+	public int getValueGroupsWidth () {
+		return valueGroupsWidth;
+	}
+
+	public void setValueGroupsWidth ( int valueGroupsWidth )
+	{
+		if ( valueGroupsWidth < 1 ) throw new IllegalArgumentException ( "The value groups width must be at least 1" );
+		this.valueGroupsWidth = valueGroupsWidth;
+	}
+
+	/**
+	 * The nesting level of each value group, 1 (no nested values) by default. 
+	 */
+	public int getValueGroupsDepth () {
+		return valueGroupsDepth;
+	}
+
+	public void setValueGroupsDepth ( int valueGroupsDepth )
+	{
+		if ( valueGroupsDepth < 1 ) throw new IllegalArgumentException ( "The value groups depth must be at least 1" );
+		this.valueGroupsDepth = valueGroupsDepth;
+	}
+
+	/**
+	 * A node, which is created on the fly.
+	 */
+	public SyntheticNode getNode ( int id )
+	{
+		if ( id < 0 || id >= size ) throw new IllegalArgumentException ( 
+			"Node id " + id + " is out of the synthetic graph range [0, " + size + ")" 
+		);
+		return new SyntheticNode ( this, id );
+	}
+	
+	/**
+	 * All the nodes, in id order. This is a read-only view, which creates the nodes while iterating it.
+	 */
+	public Set<Node> getNodes ()
+	{
+		return new AbstractSet<Node> () 
+		{
+			@Override
+			public Iterator<Node> iterator () {
+				return new NodeIterator ( false );
+			}
+
+			@Override
+			public int size () {
+				return size;
+			}
+
+			@Override
+			public boolean contains ( Object o ) {
+				return o instanceof SyntheticNode && ( (SyntheticNode) o ).getGraph () == SyntheticGraph.this;
+			}
+		};
+	}
+	
+	/**
+	 * The nodes without inputs, in id order, which is all {@link org.isatools.tablib.export.graph2tab.TableBuilder} 
+	 * needs. This is a read-only view like {@link #getNodes()}, its size is computed with a scan the first time it's 
+	 * asked.
+	 */
+	public Set<Node> getSources ()
+	{
+		return new AbstractSet<Node> () 
+		{
+			@Override
+			public Iterator<Node> iterator () {
+				return new NodeIterator ( true );
+			}
+
+			@Override
+			public int size () 
+			{
+				if ( sourcesCount == -1 ) 
+				{
+					int count = 0;
+					for ( int id = 0; id < size; id++ ) if ( isSource ( id ) ) count++;
+					sourcesCount = count;
+				}
+				return sourcesCount;
+			}
+
+			@Override
+			public boolean contains ( Object o ) 
+			{
+				if ( !( o instanceof SyntheticNode ) ) return false;
+				SyntheticNode node = (SyntheticNode) o;
+				return node.getGraph () == SyntheticGraph.this && isSource ( node.getId () );
+			}
+		};
+	}
+	
+	private boolean isSource ( int id ) {
+		return shape.getInputs ( this, id ).length == 0;
+	}
+	
+	/**
+	 * Iterates over the graph ids, possibly skipping the non-source nodes.
+	 */
+	private class NodeIterator implements Iterator<Node>
+	{
+		private final boolean sourcesOnly;
+		private int nextId = -1;
+		
+		NodeIterator ( boolean sourcesOnly ) 
+		{
+			this.sourcesOnly = sourcesOnly;
+			advance ();
+		}
+		
+		private void advance () 
+		{
+			for ( nextId++; sourcesOnly && nextId < size && !isSource ( nextId ); nextId++ );
+		}
+
+		public boolean hasNext () {
+			return nextId < size;
+		}
+
+		public Node next ()
+		{
+			if ( !hasNext () ) throw new NoSuchElementException ( "No more nodes in the synthetic graph" );
+			Node result = new SyntheticNode ( SyntheticGraph.this, nextId );
+			advance ();
+			return result;
+		}
+
+		public void remove () {
+			throw new UnsupportedOperationException ( "Synthetic graphs are read-only" );
+		}
+	}
+	
+	/**
+	 * Builds the values for {@link SyntheticNode#getTabValues()}.
+	 */
+	List<TabValueGroup> getTabValues ( SyntheticNode node )
+	{
+		int id = node.getId ();
+		String type = node.getType ();
+		boolean isProtocol = "Protocol".equals ( type );
+		
+		List<TabValueGroup> result = new ArrayList<TabValueGroup> ( valueGroupsWidth );
+		result.add ( newValueGroup ( 
+			isProtocol ? "Protocol REF" : type + " Name", 
+			isProtocol ? "protocol " + ( random ( id, 100 ) & 7 ) : "node " + id, 
+			id, 0 
+		));
+		for ( int i = 1; i < valueGroupsWidth; i++ )
+			result.add ( newValueGroup ( 
+				"Characteristic [ Property " + i + " ]", "value " + ( random ( id, 100 + i ) & 15 ), id, i 
+		));
+		
+		return Collections.unmodifiableList ( result );
+	}
+	
+	/**
+	 * A group with its nested values, {@link #getValueGroupsDepth()} levels deep.
+	 */
+	private TabValueGroup newValueGroup ( String header, String value, int id, int groupIndex )
+	{
+		TabValueGroup tail = null;
+		for ( int level = valueGroupsDepth - 1; level > 0; level-- )
+		{
+			String tailHeader, tailValue;
+			long rnd = random ( id, ( groupIndex + 1 ) * 1000 + level );
+			if ( level == 1 ) { 
+				tailHeader = "Term Source REF"; tailValue = "source " + ( rnd & 3 );
+			}
+			else if ( level == 2 ) {
+				tailHeader = "Term Accession Number"; tailValue = "acc " + ( rnd & 255 );
+			}
+			else {
+				tailHeader = "Comment [ Level " + level + " ]"; tailValue = "comment " + ( rnd & 7 );
+			}
+			tail = tail == null 
+				? new DefaultTabValueGroup ( tailHeader, tailValue ) 
+				: new DefaultTabValueGroup ( tailHeader, tailValue, tail );
+		}
+		return tail == null 
+			? new DefaultTabValueGroup ( header, value ) 
+			: new DefaultTabValueGroup ( header, value, tail );
+	}
+	
+	/**
+	 * A pseudo-random number that depends on the seed, a node and a salt, which is used to pick different things for 
+	 * the same node (SplitMix64 finaliser). 
+	 */
+	long random ( int node, int salt )
+	{
+		long z = seed + 0x9E3779B97F4A7C15L * ( ( (long) node << 16 ) + salt + 1 );
+		z = ( z ^ ( z >>> 30 ) ) * 0xBF58476D1CE4E5B9L;
+		z = ( z ^ ( z >>> 27 ) ) * 0x94D049BB133111EBL;
+		return ( z ^ ( z >>> 31 ) ) >>> 1;
+	}
+}
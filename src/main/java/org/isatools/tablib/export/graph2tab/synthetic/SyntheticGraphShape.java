@@ -0,0 +1,375 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.synthetic;
+
+import java.util.Arrays;
+
+/**
+ * <p>The shapes of the graphs built by {@link SyntheticGraph}. Every shape is made of blocks of 
+ * {@link SyntheticGraph#getBlockSize()} consecutive nodes, which are not linked to each other. The links within a 
+ * block are computed from the node ids (and the random seed) every time they're needed, so that nothing has to be 
+ * stored.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public enum SyntheticGraphShape
+{
+	/**
+	 * Every block is a chain, i.e., a deep graph with a single row.
+	 */
+	DEEP_CHAINS ( 1000, 1 )
+	{
+		@Override
+		int[] getInputs ( SyntheticGraph graph, int node )
+		{
+			return localIndex ( graph, node ) == 0 ? NO_NODES : new int[] { node - 1 };
+		}
+
+		@Override
+		int[] getOutputs ( SyntheticGraph graph, int node )
+		{
+			return localIndex ( graph, node ) == graph.getBlockSize () - 1 ? NO_NODES : new int[] { node + 1 };
+		}
+
+		@Override
+		int getLayer ( SyntheticGraph graph, int node )
+		{
+			return localIndex ( graph, node );
+		}
+	},
+	
+	/**
+	 * The first node of every block is linked to all the others, i.e., a wide fan-out, yielding one row per output.
+	 */
+	FAN_OUT ( 51, 2 )
+	{
+		@Override
+		int[] getInputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			return local == 0 ? NO_NODES : new int[] { node - local };
+		}
+
+		@Override
+		int[] getOutputs ( SyntheticGraph graph, int node )
+		{
+			if ( localIndex ( graph, node ) != 0 ) return NO_NODES;
+			return range ( node + 1, node + graph.getBlockSize () );
+		}
+
+		@Override
+		int getLayer ( SyntheticGraph graph, int node )
+		{
+			return localIndex ( graph, node ) == 0 ? 0 : 1;
+		}
+	},
+
+	/**
+	 * All the nodes in a block are linked to the last one, i.e., a wide fan-in, like many samples pooled together.
+	 */
+	FAN_IN ( 51, 2 )
+	{
+		@Override
+		int[] getInputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node ), last = graph.getBlockSize () - 1;
+			if ( local != last ) return NO_NODES;
+			return range ( node - last, node );
+		}
+
+		@Override
+		int[] getOutputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node ), last = graph.getBlockSize () - 1;
+			return local == last ? NO_NODES : new int[] { node - local + last };
+		}
+
+		@Override
+		int getLayer ( SyntheticGraph graph, int node )
+		{
+			return localIndex ( graph, node ) == graph.getBlockSize () - 1 ? 1 : 0;
+		}
+	},
+	
+	/**
+	 * Every block is a chain of diamonds, a -&gt; { b, c } -&gt; d, with d being the a of the next diamond. The block 
+	 * size is rounded to 3k + 1, i.e., k diamonds. 
+	 */
+	DIAMONDS ( 91, 4 )
+	{
+		@Override
+		int normaliseBlockSize ( int blockSize )
+		{
+			return super.normaliseBlockSize ( blockSize - ( blockSize - 1 ) % 3 );
+		}
+
+		@Override
+		int[] getInputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			if ( local == 0 ) return NO_NODES;
+			
+			int a = node - ( local - 1 ) % 3 - 1;
+			// d comes from b and c, while b and c come from a
+			return ( local - 1 ) % 3 == 2 ? new int[] { a + 1, a + 2 } : new int[] { a };
+		}
+
+		@Override
+		int[] getOutputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			// b or c
+			if ( local % 3 != 0 ) return new int[] { node + 3 - local % 3 };
+			// a, unless it is the last d 
+			return local + 3 < graph.getBlockSize () ? new int[] { node + 1, node + 2 } : NO_NODES;
+		}
+
+		@Override
+		int getLayer ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			if ( local == 0 ) return 0;
+			return 2 * ( ( local - 1 ) / 3 ) + ( ( local - 1 ) % 3 == 2 ? 2 : 1 );
+		}
+	},
+	
+	/**
+	 * <p>Every block is a pipeline of 6 steps (sources, samples, extracts, labeled extracts, assays, data), where the 
+	 * nodes of a step are linked to 1 or 2 random nodes of the previous step, or, sometimes, of the step before it, so 
+	 * that some paths miss some steps and {@link org.isatools.tablib.export.graph2tab.LayersBuilder layering} is 
+	 * needed.</p> 
+	 *
+	 * <p>Nodes have the step as their {@link org.isatools.tablib.export.graph2tab.Node#getOrder() order}, except some 
+	 * random nodes in the sample and labeled extract steps, which are protocol applications, with no order.</p>
+	 */
+	UNEVEN ( 12, 6 )
+	{
+		@Override
+		int[] getInputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			int layer = getLayer ( graph, node );
+			if ( layer == 0 ) return NO_NODES;
+			
+			int[] result = new int [ 2 ];
+			int nresult = 0;
+			for ( int i = 0, npicks = 1 + (int) ( graph.random ( node, 0 ) & 1 ); i < npicks; i++ )
+			{
+				long rnd = graph.random ( node, i + 1 );
+				int inLayer = layer >= 2 && ( rnd & 3 ) == 0 ? layer - 2 : layer - 1;
+				int inStart = layerStart ( graph, inLayer ), inEnd = layerStart ( graph, inLayer + 1 );
+				int in = node - local + inStart + (int) ( ( rnd >>> 2 ) % ( inEnd - inStart ) );
+				if ( nresult == 0 || result [ 0 ] != in ) result [ nresult++ ] = in;
+			}
+			
+			result = Arrays.copyOf ( result, nresult );
+			Arrays.sort ( result );
+			return result;
+		}
+
+		@Override
+		int[] getOutputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			int layer = getLayer ( graph, node );
+			int outStart = node - local + layerStart ( graph, layer + 1 ), outEnd = node - local + layerStart ( graph, layer + 3 );
+			return findOutputs ( graph, node, outStart, outEnd );
+		}
+
+		@Override
+		int getLayer ( SyntheticGraph graph, int node )
+		{
+			return localIndex ( graph, node ) * STEPS / graph.getBlockSize ();
+		}
+		
+		@Override
+		String getType ( SyntheticGraph graph, int node )
+		{
+			int layer = getLayer ( graph, node );
+			if ( ( layer == 1 || layer == 3 ) && ( graph.random ( node, 3 ) & 3 ) == 0 ) return PROTOCOL_TYPE;
+			return TYPES [ layer ];
+		}
+
+		@Override
+		int getOrder ( SyntheticGraph graph, int node )
+		{
+			return PROTOCOL_TYPE.equals ( getType ( graph, node ) ) ? -1 : getLayer ( graph, node );
+		}
+
+		/**
+		 * The first local index in a layer, up to {@link #STEPS}.
+		 */
+		private int layerStart ( SyntheticGraph graph, int layer )
+		{
+			int blockSize = graph.getBlockSize ();
+			return layer >= STEPS ? blockSize : ( layer * blockSize + STEPS - 1 ) / STEPS;
+		}
+	},
+	
+	/**
+	 * Many small components: every node in a block has a random input among the previous nodes of the same block, 
+	 * or, sometimes, no input at all, so blocks are split into components of a few nodes and isolated nodes.
+	 */
+	SMALL_COMPONENTS ( 4, 1 )
+	{
+		@Override
+		int[] getInputs ( SyntheticGraph graph, int node )
+		{
+			int local = localIndex ( graph, node );
+			long rnd = graph.random ( node, 0 );
+			if ( local == 0 || ( rnd & 3 ) == 0 ) return NO_NODES;
+			return new int[] { node - local + (int) ( ( rnd >>> 2 ) % local ) };
+		}
+
+		@Override
+		int[] getOutputs ( SyntheticGraph graph, int node )
+		{
+			int blockEnd = node - localIndex ( graph, node ) + graph.getBlockSize ();
+			return findOutputs ( graph, node, node + 1, blockEnd );
+		}
+
+		@Override
+		int getLayer ( SyntheticGraph graph, int node )
+		{
+			int layer = 0;
+			for ( int[] ins; ( ins = getInputs ( graph, node ) ).length != 0; node = ins [ 0 ] ) layer++;
+			return layer;
+		}
+	};
+
+	
+	private static final int[] NO_NODES = new int [ 0 ];
+
+	private static final int STEPS = 6;
+	private static final String[] TYPES = { "Source", "Sample", "Extract", "Labeled Extract", "Assay", "Data File" };
+	private static final String PROTOCOL_TYPE = "Protocol";
+	
+	private final int defaultBlockSize, minBlockSize;
+	
+	private SyntheticGraphShape ( int defaultBlockSize, int minBlockSize )
+	{
+		this.defaultBlockSize = defaultBlockSize;
+		this.minBlockSize = minBlockSize;
+	}
+	
+	/**
+	 * The block size used when none is given to {@link SyntheticGraph}. 
+	 */
+	public int getDefaultBlockSize ()
+	{
+		return defaultBlockSize;
+	}
+
+	/**
+	 * The block size that is actually used for the requested one.
+	 */
+	int normaliseBlockSize ( int blockSize )
+	{
+		return Math.max ( minBlockSize, blockSize );
+	}
+
+	/**
+	 * The ids of the input nodes, in increasing order.
+	 */
+	abstract int[] getInputs ( SyntheticGraph graph, int node );
+	
+	/**
+	 * The ids of the output nodes, in increasing order.
+	 */
+	abstract int[] getOutputs ( SyntheticGraph graph, int node );
+	
+	/**
+	 * The distance from the block sources, or an approximation of it, which is used for the node type.
+	 */
+	abstract int getLayer ( SyntheticGraph graph, int node );
+	
+	/**
+	 * By default, one of the ISA-like types, based on {@link #getLayer(SyntheticGraph, int)}.
+	 */
+	String getType ( SyntheticGraph graph, int node )
+	{
+		return TYPES [ getLayer ( graph, node ) % TYPES.length ];
+	}
+
+	/**
+	 * -1 by default, i.e., the layering doesn't consider types. 
+	 */
+	int getOrder ( SyntheticGraph graph, int node )
+	{
+		return -1;
+	}
+	
+	/**
+	 * Finds the nodes in [from, to) that have node among their inputs.
+	 */
+	int[] findOutputs ( SyntheticGraph graph, int node, int from, int to )
+	{
+		int[] result = NO_NODES;
+		for ( int out = from; out < to; out++ )
+			if ( Arrays.binarySearch ( getInputs ( graph, out ), node ) >= 0 )
+			{
+				result = Arrays.copyOf ( result, result.length + 1 );
+				result [ result.length - 1 ] = out;
+			}
+		return result;
+	}
+
+	static int localIndex ( SyntheticGraph graph, int node )
+	{
+		return node % graph.getBlockSize ();
+	}
+
+	static int[] range ( int from, int to )
+	{
+		int[] result = new int [ to - from ];
+		for ( int i = 0; i < result.length; i++ ) result [ i ] = from + i;
+		return result;
+	}
+}
@@ -0,0 +1,153 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.synthetic;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TabValueGroup;
+
+/**
+ * <p>A node of a {@link SyntheticGraph}. This is a flyweight, which keeps only its graph and its id. Everything else, 
+ * including the links to other nodes, is computed when requested, so you might get different, but equal, instances 
+ * for the same node.</p>
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public final class SyntheticNode implements Node
+{
+	private static final SortedSet<Node> NO_NODES = Collections.unmodifiableSortedSet ( new TreeSet<Node> () );
+
+	private final SyntheticGraph graph;
+	private final int id;
+
+	SyntheticNode ( SyntheticGraph graph, int id )
+	{
+		this.graph = graph;
+		this.id = id;
+	}
+
+	public SyntheticGraph getGraph () {
+		return graph;
+	}
+
+	/**
+	 * The node index in its graph, from 0 to {@link SyntheticGraph#getSize()} - 1.
+	 */
+	public int getId () {
+		return id;
+	}
+
+	public SortedSet<Node> getInputs ()
+	{
+		return toNodes ( graph.getShape ().getInputs ( graph, id ) );
+	}
+
+	public SortedSet<Node> getOutputs ()
+	{
+		return toNodes ( graph.getShape ().getOutputs ( graph, id ) );
+	}
+
+	public List<TabValueGroup> getTabValues ()
+	{
+		return graph.getTabValues ( this );
+	}
+
+	public String getType ()
+	{
+		return graph.getShape ().getType ( graph, id );
+	}
+
+	public int getOrder ()
+	{
+		return graph.getShape ().getOrder ( graph, id );
+	}
+
+	private SortedSet<Node> toNodes ( int[] ids )
+	{
+		if ( ids.length == 0 ) return NO_NODES;
+		SortedSet<Node> result = new TreeSet<Node> ();
+		for ( int nodeId: ids ) result.add ( new SyntheticNode ( graph, nodeId ) );
+		return Collections.unmodifiableSortedSet ( result );
+	}
+
+	/**
+	 * Uses the id, synthetic nodes cannot be compared to nodes of other types. 
+	 */
+	public int compareTo ( Node other )
+	{
+		if ( this == other ) return 0;
+		return Integer.compare ( id, ( (SyntheticNode) other ).id );
+	}
+
+	@Override
+	public boolean equals ( Object obj )
+	{
+		if ( this == obj ) return true;
+		if ( !( obj instanceof SyntheticNode ) ) return false;
+		SyntheticNode other = (SyntheticNode) obj;
+		return id == other.id && graph == other.graph;
+	}
+
+	@Override
+	public int hashCode ()
+	{
+		return id;
+	}
+
+	@Override
+	public String toString ()
+	{
+		return "SyntheticNode { id: " + id + ", type: " + getType () + " }";
+	}
+}
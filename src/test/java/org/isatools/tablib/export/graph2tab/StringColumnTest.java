@@ -0,0 +1,164 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests {@link StringColumn} against a regular list.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class StringColumnTest
+{
+	@Test
+	public void testRandomOperations ()
+	{
+		for ( int seed = 0; seed < 500; seed++ )
+		{
+			Random rnd = new Random ( seed );
+			// Half of the times, test the dictionary-based storage
+			StringColumn col = new StringColumn ( seed % 2 == 0 ? null : new StringDictionary () );
+			List<String> expected = new ArrayList<String> ();
+			
+			for ( int iop = 0; iop < 300; iop++ )
+			{
+				String value = rnd.nextInt ( 3 ) == 0 ? null : "v" + rnd.nextInt ( 50 );
+				int size = expected.size ();
+				
+				switch ( rnd.nextInt ( 6 ) )
+				{
+					case 0: 
+						col.add ( value ); expected.add ( value ); 
+						break;
+					case 1: 
+						int newSize = size + rnd.nextInt ( 130 ); 
+						col.resize ( newSize ); 
+						while ( expected.size () < newSize ) expected.add ( null ); 
+						break;
+					case 2: 
+						newSize = rnd.nextInt ( size + 1 ); 
+						col.resize ( newSize );
+						while ( expected.size () > newSize ) expected.remove ( expected.size () - 1 ); 
+						break;
+					case 3: 
+						if ( size == 0 ) break;
+						int i = rnd.nextInt ( size ); 
+						assertEquals ( "set() Error!", expected.set ( i, value ), col.set ( i, value ) ); 
+						break;
+					case 4: 
+						i = rnd.nextInt ( size + 1 ); 
+						col.add ( i, value ); expected.add ( i, value ); 
+						break;
+					case 5: 
+						if ( size == 0 ) break;
+						i = rnd.nextInt ( size ); 
+						assertEquals ( "remove() Error!", expected.remove ( i ), col.remove ( i ) ); 
+						break;
+				}
+				assertEquals ( "Column contents Error (seed " + seed + ")!", expected, col );
+			}
+			assertEquals ( "Column copy Error!", expected, new StringColumn ( col ) );
+		}
+	}
+	
+	@Test
+	public void testSpill ()
+	{
+		ColumnSpill spill = new ColumnSpill ( null );
+		try
+		{
+			for ( int seed = 0; seed < 100; seed++ )
+			{
+				Random rnd = new Random ( seed );
+				StringColumn col = new StringColumn ( seed % 2 == 0 ? null : new StringDictionary () );
+				List<String> expected = new ArrayList<String> ();
+				
+				for ( int iop = 0; iop < 50; iop++ )
+				{
+					// Appends some values, sparse, dense, or all nulls, and then spills a part of the column
+					int nnew = rnd.nextInt ( 200 ), nullsRate = rnd.nextInt ( 4 );
+					for ( int i = 0; i < nnew; i++ )
+					{
+						String value = nullsRate == 0 || rnd.nextInt ( nullsRate + 1 ) == 0 ? null : "v\u00e8" + rnd.nextInt ( 500 );
+						col.add ( value ); expected.add ( value );
+					}
+					
+					int upTo = col.getSpilledSize () + rnd.nextInt ( expected.size () - col.getSpilledSize () + 10 );
+					col.spill ( spill, upTo );
+					while ( expected.size () < upTo ) expected.add ( null );
+					
+					assertEquals ( "Wrong spilled size Error!", upTo, col.getSpilledSize () );
+					assertEquals ( "Column contents after spilling Error (seed " + seed + ")!", expected, col );
+				}
+				assertEquals ( "Spilled column copy Error!", expected, new StringColumn ( col ) );
+				
+				if ( col.getSpilledSize () == 0 ) continue;
+				try {
+					col.set ( 0, "foo" );
+					fail ( "Spilled rows can be changed Error!" );
+				}
+				catch ( UnsupportedOperationException ex ) {
+					// Expected
+				}
+			}
+		}
+		finally {
+			spill.close ();
+		}
+	}
+}
@@ -0,0 +1,285 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.dummy_graphs_tests;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.isatools.tablib.export.graph2tab.BoundedNodeFactory;
+import org.isatools.tablib.export.graph2tab.DefaultAbstractNode;
+import org.isatools.tablib.export.graph2tab.DefaultTabValueGroup;
+import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TabValueGroup;
+import org.junit.Test;
+
+/**
+ * Tests {@link BoundedNodeFactory}.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class BoundedNodeFactoryTest
+{
+	private static class DummyNodeFactory extends BoundedNodeFactory<DummyNode, String>
+	{
+		DummyNodeFactory ( int maxSize ) {
+			super ( maxSize );
+		}
+
+		@Override
+		protected Node createNewNode ( String base ) {
+			return new DummyNode ( 0, base );
+		}
+	}
+	
+	/**
+	 * A wrapper that gets its links lazily from the factory and caches them, like the real wrappers usually do. The 
+	 * base is a string and the only link is "A" -&gt; "B".
+	 */
+	private static class LinkedNode extends DefaultAbstractNode
+	{
+		private final String base;
+		private final LinkedNodeFactory factory;
+		
+		LinkedNode ( String base, LinkedNodeFactory factory ) 
+		{
+			this.base = base;
+			this.factory = factory;
+		}
+
+		@Override
+		public SortedSet<Node> getInputs ()
+		{
+			if ( inputs != null ) return super.getInputs ();
+			inputs = new TreeSet<Node> ();
+			if ( "B".equals ( base ) ) inputs.add ( factory.getNode ( "A" ) );
+			return super.getInputs ();
+		}
+
+		@Override
+		public SortedSet<Node> getOutputs ()
+		{
+			if ( outputs != null ) return super.getOutputs ();
+			outputs = new TreeSet<Node> ();
+			if ( "A".equals ( base ) ) outputs.add ( factory.getNode ( "B" ) );
+			return super.getOutputs ();
+		}
+
+		public List<TabValueGroup> getTabValues ()
+		{
+			List<TabValueGroup> result = new ArrayList<TabValueGroup> ();
+			result.add ( new DefaultTabValueGroup ( "Name", base ) );
+			return result;
+		}
+	}
+	
+	private static class LinkedNodeFactory extends BoundedNodeFactory<LinkedNode, String>
+	{
+		LinkedNodeFactory ( int maxSize ) {
+			super ( maxSize );
+		}
+
+		@Override
+		protected Node createNewNode ( String base ) {
+			return new LinkedNode ( base, this );
+		}
+	}
+	
+	
+	@Test
+	public void testEviction ()
+	{
+		out.println ( "_______ BOUNDED NODE FACTORY, EVICTION __________ " );
+
+		DummyNodeFactory factory = new DummyNodeFactory ( 2 );
+		DummyNode a = factory.getNode ( "A" );
+		factory.getNode ( "B" );
+		assertSame ( "Cached node not returned!", a, factory.getNode ( "A" ) );
+		
+		// B is the least recently used
+		factory.getNode ( "C" );
+		assertEquals ( "Wrong factory size!", 2, factory.getSize () );
+		assertEquals ( "Wrong eviction count!", 1, factory.getEvictionCount () );
+		assertSame ( "Wrong node evicted!", a, factory.getNode ( "A" ) );
+		factory.getNode ( "B" );
+		
+		assertEquals ( "Wrong hit count!", 2, factory.getHitCount () );
+		assertEquals ( "Wrong miss count!", 4, factory.getMissCount () );
+		assertEquals ( "Wrong eviction count!", 2, factory.getEvictionCount () );
+	}
+	
+	
+	@Test
+	public void testScopes ()
+	{
+		out.println ( "_______ BOUNDED NODE FACTORY, SCOPES __________ " );
+
+		DummyNodeFactory factory = new DummyNodeFactory ( 10 );
+		List<DummyNode> nodes = new ArrayList<DummyNode> ();
+		
+		BoundedNodeFactory<DummyNode, String>.Scope scope = factory.openScope ();
+		for ( int i = 0; i < 100; i++ ) nodes.add ( factory.getNode ( "N" + i ) );
+		
+		// Nothing can be evicted while in the scope
+		assertEquals ( "Wrong factory size!", 100, factory.getSize () );
+		for ( int i = 0; i < 100; i++ )
+			assertSame ( "Scoped node not kept!", nodes.get ( i ), factory.getNode ( "N" + i ) );
+		scope.close ();
+		
+		assertEquals ( "Wrong factory size after the scope!", 10, factory.getSize () );
+		assertEquals ( "Wrong eviction count!", 90, factory.getEvictionCount () );
+		
+		// The most recently used are kept
+		for ( int i = 90; i < 100; i++ )
+			assertSame ( "Recent node not kept!", nodes.get ( i ), factory.getNode ( "N" + i ) );
+		assertNotSame ( "Old node not evicted!", nodes.get ( 0 ), factory.getNode ( "N0" ) );
+	}
+	
+	
+	/**
+	 * Nodes that are linked must be evicted together, else a kept node would point to a node that the factory doesn't
+	 * return anymore.
+	 */
+	@Test
+	public void testLinkedScopes ()
+	{
+		out.println ( "_______ BOUNDED NODE FACTORY, LINKED NODES ACROSS SCOPES __________ " );
+
+		LinkedNodeFactory factory = new LinkedNodeFactory ( 2 );
+		
+		LinkedNode a;
+		BoundedNodeFactory<LinkedNode, String>.Scope scope = factory.openScope ();
+		// Caches A -> B and then uses A again, so B is the least recently used one
+		a = factory.getNode ( "A" );
+		assertEquals ( "Wrong link!", "B", ( (LinkedNode) a.getOutputs ().first () ).base );
+		factory.getNode ( "A" );
+		scope.close ();
+		assertEquals ( "Wrong factory size after the 1st scope!", 2, factory.getSize () );
+		
+		scope = factory.openScope ();
+		factory.getNode ( "foo" );
+		scope.close ();
+		
+		// B can't be evicted alone, since A caches it
+		assertEquals ( "Wrong eviction count!", 2, factory.getEvictionCount () );
+		assertEquals ( "Wrong factory size after the 2nd scope!", 1, factory.getSize () );
+		
+		LinkedNode a1, b;
+		scope = factory.openScope ();
+		a1 = factory.getNode ( "A" );
+		b = factory.getNode ( "B" );
+		assertNotSame ( "A not evicted together with B!", a, a1 );
+		assertSame ( "A isn't linked to the B returned by the factory!", b, a1.getOutputs ().first () );
+		assertSame ( "B isn't linked to the A returned by the factory!", a1, b.getInputs ().first () );
+		scope.close ();
+		
+		// Now foo is the least recently used
+		assertEquals ( "Wrong eviction count!", 3, factory.getEvictionCount () );
+		assertEquals ( "Wrong factory size after the 3rd scope!", 2, factory.getSize () );
+
+		scope = factory.openScope ();
+		// B is the least recently used, but it's in the same group as A, which is in use
+		assertSame ( "Cached node not returned!", a1, factory.getNode ( "A" ) );
+		factory.getNode ( "bar" );
+		assertEquals ( "Wrong eviction count!", 3, factory.getEvictionCount () );
+		assertSame ( "Linked node evicted while in use!", b, factory.getNode ( "B" ) );
+		scope.close ();
+		
+		// B was used after bar, so the A-B group is more recent and it's kept
+		assertEquals ( "Wrong eviction count!", 4, factory.getEvictionCount () );
+		assertEquals ( "Wrong factory size after the 4th scope!", 2, factory.getSize () );
+		assertSame ( "Recent group not kept!", a1, factory.getNode ( "A" ) );
+	}
+	
+	
+	/**
+	 * A big group kept in use by a new scope mustn't make every later {@link BoundedNodeFactory#getNode(Object)} look 
+	 * for something to evict among its nodes. With a linear search, this takes many seconds.
+	 */
+	@Test ( timeout = 10000 )
+	public void testPinnedGroup ()
+	{
+		out.println ( "_______ BOUNDED NODE FACTORY, LARGE EXPORT WITH A PINNED GROUP __________ " );
+
+		int n = 40000;
+		DummyNodeFactory factory = new DummyNodeFactory ( n );
+		
+		// A previous export, all linked together
+		BoundedNodeFactory<DummyNode, String>.Scope scope = factory.openScope ();
+		DummyNode prev = null;
+		for ( int i = 0; i < n; i++ ) 
+		{
+			DummyNode node = factory.getNode ( "OLD" + i );
+			if ( prev != null ) prev.addOutput ( node );
+			prev = node;
+		}
+		scope.close ();
+		assertEquals ( "Wrong factory size after the 1st export!", n, factory.getSize () );
+
+		// A new export reuses one of the old nodes, so the old group can't be evicted
+		scope = factory.openScope ();
+		DummyNode old = factory.getNode ( "OLD0" );
+		for ( int i = 0; i < n; i++ ) factory.getNode ( "NEW" + i );
+		assertEquals ( "Wrong factory size during the 2nd export!", 2 * n, factory.getSize () );
+		assertEquals ( "Wrong eviction count during the 2nd export!", 0, factory.getEvictionCount () );
+		scope.close ();
+		
+		// The new nodes aren't linked to the old ones and were used later, so the old group goes as a whole
+		assertEquals ( "Wrong factory size after the 2nd export!", n, factory.getSize () );
+		assertEquals ( "Wrong eviction count after the 2nd export!", n, factory.getEvictionCount () );
+		assertNotSame ( "Old group not evicted!", old, factory.getNode ( "OLD0" ) );
+	}
+}
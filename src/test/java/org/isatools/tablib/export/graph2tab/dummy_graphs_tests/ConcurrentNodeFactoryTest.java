@@ -0,0 +1,159 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.dummy_graphs_tests;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.isatools.tablib.export.graph2tab.ConcurrentNodeFactory;
+import org.isatools.tablib.export.graph2tab.Node;
+import org.junit.Test;
+
+/**
+ * Tests {@link ConcurrentNodeFactory}.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class ConcurrentNodeFactoryTest
+{
+	/**
+	 * Wraps strings into {@link DummyNode}s, counting how many nodes are created.
+	 */
+	private static class CountingFactory extends ConcurrentNodeFactory<DummyNode, String>
+	{
+		final AtomicInteger creations = new AtomicInteger ();
+
+		CountingFactory ( boolean identityKeys ) {
+			super ( identityKeys );
+		}
+
+		@Override
+		protected Node createNewNode ( String base )
+		{
+			creations.incrementAndGet ();
+			return new DummyNode ( 0, base );
+		}
+	}
+	
+	
+	@Test
+	public void testSingleCreation () throws InterruptedException
+	{
+		out.println ( "_______ CONCURRENT NODE FACTORY, SINGLE CREATION __________ " );
+
+		final int nthreads = 8, nbases = 2000;
+		final CountingFactory factory = new CountingFactory ( false );
+		final List<List<DummyNode>> results = new ArrayList<List<DummyNode>> ();
+		
+		Thread[] threads = new Thread [ nthreads ];
+		for ( int i = 0; i < nthreads; i++ )
+		{
+			final List<DummyNode> nodes = new ArrayList<DummyNode> ();
+			results.add ( nodes );
+			threads [ i ] = new Thread () 
+			{
+				@Override
+				public void run ()
+				{
+					// New strings every time, so that equal bases are different objects 
+					for ( int j = 0; j < nbases; j++ )
+						nodes.add ( factory.getNode ( new String ( "base " + j ) ) );
+				}
+			};
+			threads [ i ].start ();
+		}
+		for ( Thread thread: threads ) thread.join ();
+		
+		assertEquals ( "Wrong no. of created nodes!", nbases, factory.creations.get () );
+		for ( int i = 1; i < nthreads; i++ )
+			for ( int j = 0; j < nbases; j++ )
+				assertSame ( "Different nodes for the same base!", results.get ( 0 ).get ( j ), results.get ( i ).get ( j ) );
+	}
+	
+	
+	@Test
+	public void testIdentityKeys ()
+	{
+		out.println ( "_______ CONCURRENT NODE FACTORY, IDENTITY KEYS __________ " );
+
+		CountingFactory factory = new CountingFactory ( true );
+		String base = "A", base1 = new String ( base );
+		
+		assertSame ( "Different nodes for the same base!", factory.getNode ( base ), factory.getNode ( base ) );
+		assertNotSame ( "Same node for different bases!", factory.getNode ( base ), factory.getNode ( base1 ) );
+		assertEquals ( "Wrong no. of created nodes!", 2, factory.creations.get () );
+	}
+	
+	
+	@Test
+	public void testBatchWrapping ()
+	{
+		out.println ( "_______ CONCURRENT NODE FACTORY, BATCH WRAPPING __________ " );
+
+		List<String> bases = new ArrayList<String> ();
+		for ( int i = 0; i < 5000; i++ ) bases.add ( "base " + i % 3000 );
+		
+		CountingFactory factory = new CountingFactory ( false );
+		factory.setForkJoinPool ( new ForkJoinPool ( 4 ) );
+		List<DummyNode> nodes = factory.getNodes ( bases );
+		
+		assertEquals ( "Wrong no. of created nodes!", 3000, factory.creations.get () );
+		assertEquals ( "Wrong no. of returned nodes!", bases.size (), nodes.size () );
+		for ( int i = 0; i < bases.size (); i++ )
+			assertSame ( "Wrong node returned!", factory.getNode ( bases.get ( i ) ), nodes.get ( i ) );
+	}
+}
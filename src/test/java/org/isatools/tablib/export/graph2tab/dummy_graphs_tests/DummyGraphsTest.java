@@ -50,12 +50,19 @@ package org.isatools.tablib.export.graph2tab.dummy_graphs_tests;
 
 import org.isatools.tablib.export.graph2tab.Node;
 import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowEngine;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 import static java.lang.System.out;
 import static org.junit.Assert.assertEquals;
@@ -333,4 +340,229 @@ public class DummyGraphsTest
 		assertContains ( paths, "B", null );
 	}
 
+	/**
+	 * <p>
+	 * Tests a very deep graph, a long chain ending with a fork, which used to overflow the thread stack, due to the 
+	 * recursive graph visits. This needs both the right-ward and the left-ward walks of the flow initialisation, and 
+	 * we run it on a thread with a small stack.
+	 * </p>
+	 * 
+	 */
+	@Test
+	public void testDeepGraph () throws InterruptedException
+	{
+		out.println ( "_______ PATH COVER TEST, DEEP GRAPH __________ " );
+
+		final int depth = 20000;
+		DummyGraph g = new DummyGraph ();
+		for ( int i = 0; i < depth; i++ )
+			g.getNode ( i, "A" ).addOutput ( g.getNode ( i + 1, "A" ) );
+		g.getNode ( depth, "A" ).addOutput ( g.getNode ( depth + 1, "X" ) );
+		g.getNode ( depth, "A" ).addOutput ( g.getNode ( depth + 1, "Y" ) );
+		
+		final Set<Node> nodes = new HashSet<Node> ();
+		nodes.add ( g.getNode ( depth / 2, "A" ) );
+		
+		final List<List<List<String>>> result = new LinkedList<List<List<String>>> ();
+		Thread exporter = new Thread ( null, new Runnable () 
+		{
+			public void run () {
+				result.add ( new TableBuilder ( nodes ).getTable () );
+			}
+		}, "deepGraphExporter", 256 * 1024 );
+		exporter.start ();
+		exporter.join ();
+		
+		assertEquals ( "Export failed!", 1, result.size () );
+		List<List<String>> paths = result.get ( 0 );
+		
+		assertEquals ( "N. rows Error!", 3, paths.size () );
+		assertEquals ( "N. cols Error!", depth + 2, paths.get ( 1 ).size () );
+		assertContains ( paths, "A", "X" );
+		assertContains ( paths, "A", "Y" );
+	}
+
+	/**
+	 * Tests that working on the graph components in parallel gives the same result as the sequential computation.
+	 */
+	@Test
+	public void testParallelComponents ()
+	{
+		out.println ( "_______ PATH COVER TEST, PARALLEL COMPONENTS __________ " );
+
+		final int ncomps = 500;
+		DummyGraph g = new DummyGraph ();
+		for ( int i = 0; i < ncomps; i++ )
+		{
+			g.getNode ( 0, "a" + i ).addOutput ( g.getNode ( 1, "b" + i ) );
+			g.getNode ( 0, "a" + i ).addOutput ( g.getNode ( 1, "c" + i ) );
+			g.getNode ( 0, "e" + i ).addOutput ( g.getNode ( 1, "c" + i ) );
+			g.getNode ( 1, "b" + i ).addOutput ( g.getNode ( 2, "d" + i ) );
+			g.getNode ( 1, "c" + i ).addOutput ( g.getNode ( 2, "d" + i ) );
+			if ( i % 3 == 0 ) g.getNode ( 1, "c" + i ).addOutput ( g.getNode ( 2, "f" + i ) );
+		}
+		Set<Node> nodes = new HashSet<Node> ( g.getNodes () );
+
+		ForkJoinPool pool = new ForkJoinPool ( 4 );
+		try
+		{
+			for ( MinFlowEngine engine: MinFlowEngine.values () )
+			{
+				TableBuilder tb = new TableBuilder ( nodes, false );
+				tb.setMinFlowEngine ( engine );
+				List<List<String>> expected = tb.getTable ();
+	
+				tb = new TableBuilder ( nodes, false );
+				tb.setMinFlowEngine ( engine );
+				tb.setForkJoinPool ( pool );
+				List<List<String>> paths = tb.getTable ();
+				
+				assertEquals ( "N. components Error!", ncomps, tb.getGraph ().getComponents ().size () );
+				assertEquals ( "N. rows Error (" + engine + ")!", ncomps * 3 + 1, paths.size () );
+				assertEquals ( "Parallel result differs from the sequential one (" + engine + ")!", expected, paths );
+			}
+		}
+		finally {
+			pool.shutdown ();
+		}
+	}
+
+	/**
+	 * Tests {@link TableBuilder#update(Set, Set)} against a table built from scratch.
+	 */
+	@Test
+	public void testIncrementalUpdate ()
+	{
+		out.println ( "_______ PATH COVER TEST, INCREMENTAL UPDATE __________ " );
+
+		final int ncomps = 200;
+		for ( MinFlowEngine engine: MinFlowEngine.values () )
+		{
+			DummyGraph g = new DummyGraph ();
+			for ( int i = 0; i < ncomps; i++ )
+			{
+				g.getNode ( 0, "a" + i ).addOutput ( g.getNode ( 1, "b" + i ) );
+				g.getNode ( 0, "a" + i ).addOutput ( g.getNode ( 1, "c" + i ) );
+				g.getNode ( 0, "e" + i ).addOutput ( g.getNode ( 1, "c" + i ) );
+				g.getNode ( 1, "b" + i ).addOutput ( g.getNode ( 2, "d" + i ) );
+				g.getNode ( 1, "c" + i ).addOutput ( g.getNode ( 2, "d" + i ) );
+			}
+
+			TableBuilder tb = new TableBuilder ( new HashSet<Node> ( g.getNodes () ) );
+			tb.setMinFlowEngine ( engine );
+			assertEquals ( "N. rows Error (" + engine + ")!", ncomps * 3 + 1, tb.getTable ().size () );
+			
+			// A new node in one component, a new edge in another one
+			Set<Node> changedNodes = new HashSet<Node> ();
+			DummyNode c = g.getNode ( 1, "c5" ), f = g.getNode ( 2, "f5" );
+			c.addOutput ( f );
+			changedNodes.addAll ( Arrays.asList ( c, f ) );
+			DummyNode e = g.getNode ( 0, "e17" ), b = g.getNode ( 1, "b17" );
+			e.addOutput ( b );
+			changedNodes.addAll ( Arrays.asList ( e, b ) );
+
+			Set<Node> nodes = new HashSet<Node> ( g.getNodes () );
+			tb.update ( nodes, changedNodes );
+			List<List<String>> paths = tb.getTable ();
+			
+			TableBuilder tbNew = new TableBuilder ( nodes );
+			tbNew.setMinFlowEngine ( engine );
+			
+			assertEquals ( "N. rows Error after update (" + engine + ")!", ncomps * 3 + 2, paths.size () );
+			assertEquals ( "Updated result differs from the new one (" + engine + ")!", tbNew.getTable (), paths );
+		}
+	}
+
+	/**
+	 * Tests {@link TableBuilder#update(Set, Set)} on random layered graphs with a few random changes, the updated 
+	 * table must be the same as a table built from scratch, including the no. of rows.
+	 */
+	@Test
+	public void testRandomIncrementalUpdate ()
+	{
+		out.println ( "_______ PATH COVER TEST, RANDOM INCREMENTAL UPDATES __________ " );
+
+		for ( MinFlowEngine engine: MinFlowEngine.values () )
+			for ( int seed = 0; seed < 400; seed++ )
+			{
+				Random rnd = new Random ( seed );
+				DummyGraph g = new DummyGraph ();
+				int ncols = 3 + rnd.nextInt ( 4 ), nnodes = 10 + rnd.nextInt ( 30 );
+				List<DummyNode> nodes = new ArrayList<DummyNode> ();
+				for ( int i = 0; i < nnodes; i++ )
+					nodes.add ( g.getNode ( rnd.nextInt ( ncols ), "n" + i ) );
+				for ( int i = rnd.nextInt ( 2 * nnodes ); i > 0; i-- )
+					addRandomEdge ( rnd, nodes );
+	
+				TableBuilder tb = new TableBuilder ( new HashSet<Node> ( g.getNodes () ), false );
+				tb.setMinFlowEngine ( engine );
+				tb.getTable ();
+				
+				// 1-3 changes, either a new edge or a new node linked to an existing one
+				Set<Node> changedNodes = new HashSet<Node> ();
+				for ( int i = 1 + rnd.nextInt ( 3 ); i > 0; i-- )
+				{
+					if ( rnd.nextBoolean () ) 
+					{
+						changedNodes.addAll ( addRandomEdge ( rnd, nodes ) );
+						continue;
+					}
+					DummyNode node = nodes.get ( rnd.nextInt ( nodes.size () ) );
+					DummyNode newNode = g.getNode ( node.getColumn () + 1, "n" + nodes.size () );
+					node.addOutput ( newNode );
+					nodes.add ( newNode );
+					changedNodes.addAll ( Arrays.asList ( node, newNode ) );
+				}
+				
+				Set<Node> newNodes = new HashSet<Node> ( g.getNodes () );
+				tb.update ( newNodes, changedNodes );
+				List<List<String>> table = tb.getTable ();
+				
+				TableBuilder tbNew = new TableBuilder ( newNodes, false );
+				tbNew.setMinFlowEngine ( engine );
+				List<List<String>> expected = tbNew.getTable ();
+				
+				String tag = " (" + engine + ", seed " + seed + ")";
+				assertEquals ( "N. rows after update differs from the new one" + tag + "!", expected.size (), table.size () );
+				assertEquals ( "Updated result differs from the new one" + tag + "!", expected, table );
+			}
+	}
+	
+	/**
+	 * Links two random nodes, from the lower column to the higher one, if they're in different columns. Returns the 
+	 * linked nodes.
+	 */
+	private static List<DummyNode> addRandomEdge ( Random rnd, List<DummyNode> nodes )
+	{
+		DummyNode a = nodes.get ( rnd.nextInt ( nodes.size () ) ), b = nodes.get ( rnd.nextInt ( nodes.size () ) );
+		if ( a.getColumn () == b.getColumn () ) return Collections.emptyList ();
+		if ( a.getColumn () > b.getColumn () ) { DummyNode t = a; a = b; b = t; } 
+		a.addOutput ( b );
+		return Arrays.asList ( a, b );
+	}
+
+	/**
+	 * Tests that the streaming TSV export gives the same output as the regular one.
+	 */
+	@Test
+	public void testStreamingExport () throws IOException
+	{
+		out.println ( "_______ STREAMING EXPORT TEST __________ " );
+
+		DummyGraph[] graphs = new DummyGraph[] { 
+			DummyGraph.getG1 (), DummyGraph.getG2 (), DummyGraph.getG3 (), DummyGraph.getG4 (), DummyGraph.getG5 () 
+		};
+		for ( DummyGraph g: graphs )
+		{
+			Set<Node> nodes = new HashSet<Node> ( g.getNodes () );
+			String expected = new TableBuilder ( nodes ).reportTSV ();
+			
+			TableBuilder tb = new TableBuilder ( nodes );
+			tb.setStreamingExport ( true );
+			String tsv = tb.reportTSV ();
+			
+			out.println ( tsv );
+			assertEquals ( "Streamed TSV differs from the regular one!", expected, tsv );
+		}
+	}
 }
@@ -0,0 +1,214 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.dummy_graphs_tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.isatools.tablib.export.graph2tab.GraphSnapshot;
+import org.isatools.tablib.export.graph2tab.Node;
+import org.junit.Test;
+
+/**
+ * Tests the capture of a graph made by {@link GraphSnapshot}.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class GraphSnapshotTest
+{
+	/**
+	 * Starts from a middle node of G1 and checks that everything is captured with the right adjacency.
+	 */
+	@Test
+	public void testG1 ()
+	{
+		DummyGraph g = DummyGraph.getG1 ();
+		GraphSnapshot graph = new GraphSnapshot ( Collections.<Node>singleton ( g.getNode ( 3, "E" ) ) );
+		
+		assertEquals ( "Wrong no. of nodes!", g.getNodes ().size (), graph.getNodeCount () );
+		assertEquals ( "Wrong no. of edges!", g.getEdges ().size (), graph.getEdgeCount () );
+
+		// Sources are first and sorted
+		assertEquals ( "Wrong no. of sources!", 2, graph.getSourceCount () );
+		assertEquals ( "Wrong first source!", g.getNode ( 0, "A" ), graph.getNode ( graph.getSource ( 0 ) ) );
+		assertEquals ( "Wrong second source!", g.getNode ( 0, "B" ), graph.getNode ( graph.getSource ( 1 ) ) );
+		
+		Set<Node> sinks = new HashSet<Node> ();
+		sinks.add ( g.getNode ( 4, "F" ) );
+		sinks.add ( g.getNode ( 4, "H" ) );
+		sinks.add ( g.getNode ( 4, "I" ) );
+		assertEquals ( "Wrong sinks!", sinks, graph.getSinkNodes () );
+		
+		for ( int n = 0; n < graph.getNodeCount (); n++ )
+		{
+			Node node = graph.getNode ( n );
+			assertEquals ( "Wrong node id!", n, graph.getNodeId ( node ) );
+
+			// Outgoing edges in the same order of the node's outputs
+			int e = graph.getOutEdgesStart ( n );
+			for ( Node out: node.getOutputs () )
+			{
+				assertEquals ( "Wrong edge source!", n, graph.getEdgeSource ( e ) );
+				assertEquals ( "Wrong edge target!", out, graph.getNode ( graph.getEdgeTarget ( e++ ) ) );
+			}
+			assertEquals ( "Wrong out-degree!", graph.getOutEdgesEnd ( n ), e );
+			
+			// Incoming edges in the same order of the node's inputs
+			int i = graph.getInEdgesStart ( n );
+			for ( Node in: node.getInputs () )
+			{
+				int ie = graph.getInEdge ( i++ );
+				assertEquals ( "Wrong incoming edge!", in, graph.getNode ( graph.getEdgeSource ( ie ) ) );
+				assertEquals ( "Wrong incoming edge target!", n, graph.getEdgeTarget ( ie ) );
+			}
+			assertEquals ( "Wrong in-degree!", graph.getInEdgesEnd ( n ), i );
+		}
+		
+		assertTrue ( "findEdge() doesn't work!", graph.findEdge ( g.getNode ( 2, "D" ), g.getNode ( 3, "G" ) ) >= 0 );
+		assertEquals ( "findEdge() doesn't work!", -1, graph.findEdge ( g.getNode ( 0, "A" ), g.getNode ( 2, "D" ) ) );
+	}
+
+	/**
+	 * A long chain of diamonds, captured from its sink. This has an exponential number of paths, so it needs that every
+	 * node is visited once.
+	 */
+	@Test
+	public void testDiamondChain ()
+	{
+		final int ndiamonds = 100;
+		DummyGraph g = new DummyGraph ();
+		for ( int i = 0; i < ndiamonds; i++ )
+		{
+			g.addChain ( 2 * i, "ABD" );
+			g.addChain ( 2 * i, "ACD" );
+			// Next diamond starts from here
+			g.getNode ( 2 * i + 2, "D" ).addOutput ( g.getNode ( 2 * i + 2, "A" ) );
+		}
+		
+		GraphSnapshot graph = new GraphSnapshot ( 
+			Collections.<Node>singleton ( g.getNode ( 2 * ndiamonds, "A" ) ) 
+		);
+		
+		assertEquals ( "Wrong no. of nodes!", g.getNodes ().size (), graph.getNodeCount () );
+		assertEquals ( "Wrong no. of edges!", g.getEdges ().size (), graph.getEdgeCount () );
+		assertEquals ( "Wrong no. of sources!", 1, graph.getSourceCount () );
+		assertEquals ( "Wrong source!", g.getNode ( 0, "A" ), graph.getNode ( graph.getSource ( 0 ) ) );
+		assertEquals ( "Wrong no. of sinks!", 1, graph.getSinkCount () );
+	}
+
+	/**
+	 * Checks that the node ranks follow the {@link Node} order, which in turn is the case-insensitive order of labels.
+	 */
+	@Test
+	public void testNodeRanks ()
+	{
+		String[] labels = { "b", "A", "a2", "B1", "\u00b5", "\u03bc1", "\u00df", "Z", "\u0130x", "ix", "", "_" };
+		DummyGraph g = new DummyGraph ();
+		DummyNode root = g.getNode ( 0, "root" );
+		for ( String label: labels )
+			root.addOutput ( g.getNode ( 1, label ) );
+		
+		GraphSnapshot graph = new GraphSnapshot ( Collections.<Node>singleton ( root ) );
+		int nnodes = graph.getNodeCount ();
+		for ( int r = 0; r < nnodes; r++ )
+		{
+			int n = graph.getRankedNode ( r );
+			assertEquals ( "Wrong rank/node mapping!", r, graph.getNodeRank ( n ) );
+			if ( r == 0 ) continue;
+			
+			Node prev = graph.getNode ( graph.getRankedNode ( r - 1 ) ), node = graph.getNode ( n );
+			assertTrue ( "Ranks don't follow the node order!", prev.compareTo ( node ) < 0 );
+			
+			String prevLabel = prev.getTabValues ().get ( 0 ).getValue (), label = node.getTabValues ().get ( 0 ).getValue ();
+			assertTrue ( 
+				"Node order isn't case-insensitive (" + prevLabel + ", " + label + ")!", 
+				prevLabel.compareToIgnoreCase ( label ) <= 0 
+			);
+		}
+	}
+	
+	/**
+	 * Nodes with the same label and created by different threads must still be distinct in the {@link Node} order, 
+	 * i.e., their ids must be unique.
+	 */
+	@Test
+	public void testConcurrentNodeIds () throws InterruptedException
+	{
+		final int nthreads = 8, nnodes = 5000;
+		final SortedSet<Node> nodes = new TreeSet<Node> ();
+		Thread[] threads = new Thread [ nthreads ];
+		for ( int i = 0; i < nthreads; i++ )
+		{
+			threads [ i ] = new Thread () 
+			{
+				@Override
+				public void run ()
+				{
+					Node[] created = new Node [ nnodes ];
+					for ( int j = 0; j < nnodes; j++ )
+						created [ j ] = new DummyNode ( 0, "A" );
+					synchronized ( nodes ) {
+						Collections.addAll ( nodes, created );
+					}
+				}
+			};
+			threads [ i ].start ();
+		}
+		for ( Thread thread: threads ) thread.join ();
+		
+		assertEquals ( "Duplicated node ids!", nthreads * nnodes, nodes.size () );
+	}
+}
@@ -0,0 +1,211 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.dummy_graphs_tests;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.isatools.tablib.export.graph2tab.DefaultTabValueGroup;
+import org.isatools.tablib.export.graph2tab.GraphStatistics;
+import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TabValueGroup;
+import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraph;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraphShape;
+import org.junit.Test;
+
+/**
+ * Tests {@link GraphStatistics}, comparing its bounds to the tables that are actually built.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class GraphStatisticsTest
+{
+	/**
+	 * A node with a type and a few header structures, depending on the column.
+	 */
+	private static class TypedNode extends DummyNode
+	{
+		private final String type;
+		
+		TypedNode ( int column, String value, String type ) 
+		{
+			super ( column, value );
+			this.type = type;
+		}
+		
+		@Override
+		public String getType () {
+			return type;
+		}
+
+		@Override
+		public int getOrder () {
+			return getColumn ();
+		}
+
+		@Override
+		public List<TabValueGroup> getTabValues () 
+		{
+			List<TabValueGroup> result = new ArrayList<TabValueGroup> ();
+			DefaultTabValueGroup tbg = new DefaultTabValueGroup ( type + " Name", getValue () );
+			if ( getColumn () % 2 == 0 ) tbg.append ( new DefaultTabValueGroup ( "Characteristic [ c ]", "x" + getValue () ) );
+			result.add ( tbg );
+			if ( getValue ().endsWith ( "A" ) ) result.add ( new DefaultTabValueGroup ( "Comment [ c ]", "a" ) );
+			if ( getColumn () % 3 == 1 ) result.add ( new DefaultTabValueGroup ( "Comment [ c ]", "b" ) );
+			return result;
+		}
+	}
+	
+	
+	@Test
+	public void testG1 ()
+	{
+		out.println ( "_______ GRAPH STATISTICS, G1 __________ " );
+		
+		DummyGraph g = DummyGraph.getG1 ();
+		TableBuilder tb = new TableBuilder ( new HashSet<Node> ( g.getNodes () ), false );
+		GraphStatistics stats = tb.getStatistics ();
+		out.println ( stats );
+		
+		assertEquals ( "Wrong no. of nodes Error!", g.getNodes ().size (), stats.getNodeCount () );
+		assertEquals ( "Wrong no. of edges Error!", g.getEdges ().size (), stats.getEdgeCount () );
+		assertEquals ( "Wrong no. of sources Error!", 2, stats.getSourceCount () );
+		assertEquals ( "Wrong no. of sinks Error!", 3, stats.getSinkCount () );
+		assertEquals ( "Wrong max depth Error!", 5, stats.getMaxDepth () );
+		assertArrayEquals ( "Wrong component sizes Error!", new int[] { g.getNodes ().size () }, stats.getComponentSizes () );
+		
+		checkBounds ( tb, stats, "G1" );
+	}
+
+	
+	@Test
+	public void testRandomGraphs ()
+	{
+		out.println ( "_______ GRAPH STATISTICS, RANDOM GRAPHS __________ " );
+
+		for ( int seed = 0; seed < 200; seed++ )
+		{
+			Random rnd = new Random ( seed );
+			boolean isTyped = seed % 2 == 1;
+			int nnodes = 2 + rnd.nextInt ( 40 ), ncols = 1 + rnd.nextInt ( 8 );
+			
+			DummyNode[] nodes = new DummyNode [ nnodes ];
+			for ( int i = 0; i < nnodes; i++ )
+			{
+				int col = rnd.nextInt ( ncols );
+				String value = "v" + i + ( rnd.nextBoolean () ? "A" : "b" );
+				nodes [ i ] = isTyped ? new TypedNode ( col, value, "T" + col ) : new DummyNode ( col, value );
+			}
+			for ( int i = rnd.nextInt ( nnodes * 2 ); i > 0; i-- )
+			{
+				DummyNode a = nodes [ rnd.nextInt ( nnodes ) ], b = nodes [ rnd.nextInt ( nnodes ) ];
+				if ( a.getColumn () < b.getColumn () ) a.addOutput ( b );
+			}
+			
+			Set<Node> nodeSet = new HashSet<Node> ();
+			for ( DummyNode node: nodes ) nodeSet.add ( node );
+			
+			// Layering requires the node order
+			for ( boolean isLayeringRequired: isTyped ? new boolean[] { false, true } : new boolean[] { false } )
+			{
+				TableBuilder tb = new TableBuilder ( nodeSet, isLayeringRequired );
+				GraphStatistics stats = tb.getStatistics ();
+				
+				assertEquals ( "Wrong no. of nodes Error!", nnodes, stats.getNodeCount () );
+				int ncompNodes = 0;
+				for ( int size: stats.getComponentSizes () ) ncompNodes += size;
+				assertEquals ( "Wrong component sizes Error!", nnodes, ncompNodes );
+				
+				checkBounds ( tb, stats, "seed " + seed + ( isLayeringRequired ? ", layered" : "" ) );
+			}
+		}
+	}
+
+	
+	@Test
+	public void testSyntheticGraphs ()
+	{
+		out.println ( "_______ GRAPH STATISTICS, SYNTHETIC GRAPHS __________ " );
+
+		for ( SyntheticGraphShape shape: SyntheticGraphShape.values () )
+		{
+			SyntheticGraph graph = new SyntheticGraph ( shape, 2000, 7 );
+			TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+			GraphStatistics stats = tb.getStatistics ();
+			out.println ( shape + ": " + stats );
+			
+			assertEquals ( "Wrong no. of nodes Error!", graph.getSize (), stats.getNodeCount () );
+			assertEquals ( "Wrong no. of components Error!", 
+				tb.getGraph ().getComponents ().size (), stats.getComponentCount () );
+			checkBounds ( tb, stats, shape.toString () );
+		}
+	}
+	
+	
+	private static void checkBounds ( TableBuilder tb, GraphStatistics stats, String tag )
+	{
+		List<List<String>> table = tb.getTable ();
+		int nrows = table.size () - 1, ncols = table.get ( 0 ).size ();
+		
+		assertTrue ( "Rows below the lower bound (" + tag + ") Error!", stats.getMinRows () <= nrows );
+		assertTrue ( "Rows above the upper bound (" + tag + ") Error!", nrows <= stats.getMaxRows () );
+		assertTrue ( "Columns below the lower bound (" + tag + ") Error!", stats.getMinColumns () <= ncols );
+		assertTrue ( "Columns above the upper bound (" + tag + ") Error!", ncols <= stats.getMaxColumns () );
+	}
+}
@@ -49,14 +49,26 @@ package org.isatools.tablib.export.graph2tab.minflow;
 
 import static java.lang.System.out;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
+import org.isatools.tablib.export.graph2tab.GraphSnapshot;
 import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TableBuilder;
 import org.isatools.tablib.export.graph2tab.dummy_graphs_tests.DummyGraph;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportMetrics;
+import org.isatools.tablib.export.graph2tab.monitoring.ExportPhase;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraph;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraphShape;
 import org.junit.Test;
 
 /**
@@ -160,4 +172,141 @@ public class MinFlowCalculatorTest
 
 	}
 	
+	
+	/**
+	 * Tests {@link MinFlowEngine#BLOCKING_FLOW}, which has to yield valid covers, with no more paths than the 
+	 * default engine (which, being a heuristic, sometimes yields more paths than needed).
+	 */
+	@Test
+	public void testBlockingFlow () throws Exception
+	{
+		out.println("\n\n_______ MIN FLOW WITH BLOCKING FLOW ENGINE __________ ");
+
+		DummyGraph[] graphs = new DummyGraph[] { 
+			DummyGraph.getG1 (), DummyGraph.getG2 (), DummyGraph.getG3 (), DummyGraph.getG4 (), DummyGraph.getG5 () 
+		};
+		for ( DummyGraph g: graphs )
+		{
+			GraphSnapshot graph = new GraphSnapshot ( new HashSet<Node> ( g.getNodes () ) );
+			int ffRows = new MinFlowCalculator ( graph, MinFlowEngine.FORD_FULKERSON ).getMinPathCover ().size ();
+			List<List<Node>> bfPaths = new MinFlowCalculator ( graph, MinFlowEngine.BLOCKING_FLOW ).getMinPathCover ();
+			checkPathCover ( g.getNodes (), bfPaths );
+			assertTrue ( "Blocking flow yields more paths than Ford-Fulkerson!", bfPaths.size () <= ffRows );
+		}
+		
+		// On these graphs, Ford-Fulkerson stops one row above the minimum for some seeds (e.g., 6)
+		int nfewer = 0;
+		for ( long seed = 0; seed < 200; seed++ )
+		{
+			SyntheticGraph synthGraph = new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 60, seed );
+			GraphSnapshot graph = new GraphSnapshot ( synthGraph.getSources () );
+			List<List<Node>> ffPaths = new MinFlowCalculator ( graph, MinFlowEngine.FORD_FULKERSON ).getMinPathCover ();
+			List<List<Node>> bfPaths = new MinFlowCalculator ( graph, MinFlowEngine.BLOCKING_FLOW ).getMinPathCover ();
+			checkPathCover ( synthGraph.getNodes (), ffPaths );
+			checkPathCover ( synthGraph.getNodes (), bfPaths );
+			assertTrue ( "Blocking flow yields more paths than Ford-Fulkerson (seed " + seed + ")!", 
+				bfPaths.size () <= ffPaths.size () );
+			if ( bfPaths.size () < ffPaths.size () ) nfewer++;
+		}
+		assertTrue ( "Blocking flow never yields fewer paths than Ford-Fulkerson!", nfewer > 0 );
+		
+		// Same checks as in testG3()
+		DummyGraph g = DummyGraph.getG3 ();
+		MinFlowCalculator minFlowCalc = new MinFlowCalculator ( 
+			new GraphSnapshot ( new HashSet<Node> ( g.getNodes () ) ), MinFlowEngine.BLOCKING_FLOW 
+		);
+		
+    Method findMinFlowMethod = MinFlowCalculator.class.getDeclaredMethod ( "findMinFlow" );
+    findMinFlowMethod.setAccessible ( true );
+    findMinFlowMethod.invoke ( minFlowCalc );
+
+    Field flowMgrField = MinFlowCalculator.class.getDeclaredField ( "flowMgr" );
+    flowMgrField.setAccessible ( true );
+    FlowManager flowMgr = (FlowManager) flowMgrField.get ( minFlowCalc );
+		
+		int fHI = flowMgr.getFlow ( g.getNode ( 2, "H" ), g.getNode ( 3, "I" ) );
+		int fGI = flowMgr.getFlow ( g.getNode ( 2, "G" ), g.getNode ( 3, "I" ) );
+		int fIL = flowMgr.getFlow ( g.getNode ( 3, "I" ), g.getNode ( 4, "L" ) );
+		int fIK = flowMgr.getFlow ( g.getNode ( 3, "I" ), g.getNode ( 4, "K" ) );
+
+		assertEquals ( "I is not balanced!", 0, fIL + fIK - fHI - fGI );
+		assertEquals ( "Flow entering I is not minimum!", 4, fHI + fGI );
+	}
+	
+	
+	/**
+	 * Checks that the paths start from a source, end at a sink, follow the graph edges and cover all the nodes.
+	 */
+	private static void checkPathCover ( Collection<? extends Node> nodes, List<List<Node>> paths )
+	{
+		Set<Node> covered = new HashSet<Node> ();
+		for ( List<Node> path: paths )
+		{
+			assertTrue ( "Path not starting from a source!", path.get ( 0 ).getInputs ().isEmpty () );
+			assertTrue ( "Path not ending at a sink!", path.get ( path.size () - 1 ).getOutputs ().isEmpty () );
+			for ( int i = 1; i < path.size (); i++ )
+				assertTrue ( "Path not following the graph edges!", path.get ( i - 1 ).getOutputs ().contains ( path.get ( i ) ) );
+			covered.addAll ( path );
+		}
+		assertEquals ( "Path cover not covering all the nodes!", new HashSet<Node> ( nodes ), covered );
+	}
+	
+	/**
+	 * Tests {@link MinFlowCalculator#getMinFlowValue()} and {@link TableBuilder#getRowCount()}, which have to give the 
+	 * no. of rows without computing the paths and the table.
+	 */
+	@Test
+	public void testMinFlowValue () throws Exception
+	{
+		out.println("\n\n_______ MIN FLOW VALUE __________ ");
+
+		ForkJoinPool pool = new ForkJoinPool ( 4 );
+		for ( SyntheticGraphShape shape: SyntheticGraphShape.values () )
+		{
+			SyntheticGraph synthGraph = new SyntheticGraph ( shape, 3000, 11 );
+			GraphSnapshot graph = new GraphSnapshot ( synthGraph.getSources () );
+			
+			for ( MinFlowEngine engine: MinFlowEngine.values () )
+				for ( ForkJoinPool forkJoinPool: new ForkJoinPool[] { null, pool } )
+				{
+					String tag = " (" + shape + ", " + engine + ( forkJoinPool == null ? "" : ", parallel" ) + ")";
+					List<List<Node>> paths = new MinFlowCalculator ( graph, engine ).getMinPathCover ();
+					
+					ExportMetrics metrics = new ExportMetrics ();
+					MinFlowCalculator minFlowCalc = new MinFlowCalculator ( graph, engine );
+					minFlowCalc.setForkJoinPool ( forkJoinPool );
+					minFlowCalc.setExportListener ( metrics );
+					
+					assertEquals ( "Wrong min flow value" + tag + "!", paths.size (), minFlowCalc.getMinFlowValue () );
+					assertEquals ( "Paths decomposed by getMinFlowValue()" + tag + "!", 
+						0, metrics.getPhaseCount ( ExportPhase.PATH_DECOMPOSITION ) );
+					
+					// The lazy decomposition gives the same paths, every time it's used
+					for ( int i = 0; i < 2; i++ )
+					{
+						List<List<Node>> lazyPaths = new ArrayList<List<Node>> ();
+						for ( Iterator<List<Node>> itr = minFlowCalc.getMinPathIterator (); itr.hasNext (); )
+							lazyPaths.add ( itr.next () );
+						assertEquals ( "Wrong paths from getMinPathIterator()" + tag + "!", paths, lazyPaths );
+					}
+					
+					// The flow is reused
+					assertEquals ( "Wrong paths after getMinFlowValue()" + tag + "!", paths, minFlowCalc.getMinPathCover () );
+					assertEquals ( "Flow computed twice" + tag + "!", 
+						forkJoinPool == null ? 1 : graph.getComponents ().size (), 
+						metrics.getPhaseCount ( ExportPhase.FLOW_REDUCTION ) 
+					);
+				}
+			
+			ExportMetrics metrics = new ExportMetrics ();
+			TableBuilder tb = new TableBuilder ( synthGraph.getSources (), true );
+			tb.setExportListener ( metrics );
+			long nrows = tb.getRowCount ();
+			for ( ExportPhase phase: new ExportPhase[] { 
+				ExportPhase.PATH_DECOMPOSITION, ExportPhase.LAYERING, ExportPhase.TABLE_MERGE } 
+			)
+				assertEquals ( "Phase " + phase + " run by getRowCount() (" + shape + ")!", 0, metrics.getPhaseCount ( phase ) );
+			assertEquals ( "Wrong getRowCount() (" + shape + ")!", tb.getTable ().size () - 1, nrows );
+		}
+	}
 }
@@ -0,0 +1,153 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.monitoring;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+
+import org.isatools.tablib.export.graph2tab.LayersBuilder;
+import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowEngine;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraph;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraphShape;
+import org.junit.Test;
+
+/**
+ * Tests {@link ExportMetrics} and the reporting of the export phases to {@link ExportListener}.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class ExportMetricsTest
+{
+	@Test
+	public void testMetrics () throws IOException
+	{
+		out.println ( "_______ EXPORT METRICS __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 1200, 3 );
+		int nedges = 0;
+		for ( Node node: graph.getNodes () ) nedges += node.getOutputs ().size ();
+		
+		ForkJoinPool pool = new ForkJoinPool ( 4 );
+		for ( MinFlowEngine engine: MinFlowEngine.values () )
+			for ( ForkJoinPool forkJoinPool: new ForkJoinPool[] { null, pool } )
+				for ( boolean isStreaming: new boolean[] { false, true } )
+				{
+					String tag = " (" + engine + ", " + ( forkJoinPool == null ? "sequential" : "parallel" ) 
+						+ ( isStreaming ? ", streaming" : "" ) + ")";
+					
+					ExportMetrics metrics = new ExportMetrics ();
+					TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+					tb.setMinFlowEngine ( engine );
+					tb.setForkJoinPool ( forkJoinPool );
+					tb.setStreamingExport ( isStreaming );
+					tb.setExportListener ( metrics );
+					
+					String tsv = tb.reportTSV ();
+					out.println ( "Metrics" + tag + ":\n" + metrics );
+
+					int nrows = -1;
+					for ( int i = tsv.indexOf ( '\n' ); i != -1; i = tsv.indexOf ( '\n', i + 1 ) ) nrows++;
+					
+					assertEquals ( "Wrong NODES" + tag + " Error!", graph.getSize (), metrics.getCount ( ExportCounter.NODES ) );
+					assertEquals ( "Wrong EDGES" + tag + " Error!", nedges, metrics.getCount ( ExportCounter.EDGES ) );
+					assertEquals ( "Wrong ROWS" + tag + " Error!", nrows, metrics.getCount ( ExportCounter.ROWS ) );
+					assertEquals ( "Wrong CHARS_WRITTEN" + tag + " Error!", tsv.length (), metrics.getCount ( ExportCounter.CHARS_WRITTEN ) );
+					assertTrue ( "No LAYER_SHIFTS" + tag + " Error!", metrics.getCount ( ExportCounter.LAYER_SHIFTS ) > 0 );
+					// Every row has a cell (possibly empty) for every layer
+					int nlayers = new LayersBuilder ( tb.getGraph () ).getMaxLayer () + 1;
+					assertEquals ( "Wrong MERGED_NODES" + tag + " Error!", 
+						isStreaming ? 0 : nrows * nlayers, metrics.getCount ( ExportCounter.MERGED_NODES ) 
+					);
+					if ( engine == MinFlowEngine.FORD_FULKERSON ) assertEquals ( "FF iterations != paths" + tag + " Error!", 
+						metrics.getCount ( ExportCounter.REDUCTION_ITERATIONS ), metrics.getCount ( ExportCounter.AUGMENTING_PATHS ) 
+					);
+					
+					for ( ExportPhase phase: ExportPhase.values () )
+					{
+						// When streaming, the paths are decomposed while merging/writing, without a phase of their own
+						if ( isStreaming && phase == ExportPhase.PATH_DECOMPOSITION ) 
+							assertEquals ( "Phase " + phase + " reported" + tag + " Error!", 0, metrics.getPhaseCount ( phase ) );
+						else
+							assertTrue ( "Phase " + phase + " not reported" + tag + " Error!", metrics.getPhaseCount ( phase ) > 0 );
+					}
+					assertEquals ( "Wrong no. of flow initialisations" + tag + " Error!", 
+						forkJoinPool == null ? 1 : tb.getGraph ().getComponents ().size (), 
+						metrics.getPhaseCount ( ExportPhase.FLOW_INITIALISATION ) 
+					);
+					assertEquals ( "Wrong no. of table merges" + tag + " Error!", 1, metrics.getPhaseCount ( ExportPhase.TABLE_MERGE ) );
+				}
+	}
+	
+	/**
+	 * Every phase is reported once for a single-component export, i.e., phases aren't reported twice, nor nested.
+	 */
+	@Test
+	public void testSingleComponent () throws IOException
+	{
+		out.println ( "_______ EXPORT METRICS, SINGLE COMPONENT __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.FAN_OUT, 300, 1, 300 );
+		ExportMetrics metrics = new ExportMetrics ();
+		TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+		tb.setExportListener ( metrics );
+		tb.reportTSV ();
+		out.println ( "Metrics:\n" + metrics );
+		
+		assertEquals ( "The test graph has more components Error!", 1, tb.getGraph ().getComponents ().size () );
+		for ( ExportPhase phase: ExportPhase.values () )
+			assertEquals ( "Wrong no. of " + phase + " phases Error!", 1, metrics.getPhaseCount ( phase ) );
+	}
+}
@@ -0,0 +1,151 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.monitoring;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraph;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraphShape;
+import org.junit.Test;
+
+/**
+ * Tests {@link JfrExportListener}, by recording its events.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class JfrExportListenerTest
+{
+	@Test
+	public void testEvents () throws IOException
+	{
+		out.println ( "_______ JFR EXPORT EVENTS __________ " );
+
+		assertTrue ( "The default listener isn't the JFR one Error!", 
+			new TableBuilder ( null ).getExportListener () instanceof JfrExportListener );
+		
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 12000, 1 );
+		
+		JfrExportListener listener = new JfrExportListener ();
+		listener.setLargeShiftNodes ( 1 );
+		TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+		tb.setStreamingExport ( true );
+		tb.setExportListener ( listener );
+
+		Path recordingPath = Files.createTempFile ( "graph2tab-", ".jfr" );
+		try ( Recording recording = new Recording () )
+		{
+			recording.enable ( "org.isatools.graph2tab.ExportPhase" ).withThreshold ( Duration.ZERO );
+			recording.enable ( "org.isatools.graph2tab.LayerShift" );
+			recording.enable ( "org.isatools.graph2tab.TableFlush" );
+			recording.start ();
+			tb.reportTSV ();
+			recording.stop ();
+			recording.dump ( recordingPath );
+		}
+		
+		Map<String, Integer> eventCounts = new HashMap<String, Integer> ();
+		Set<String> phases = new HashSet<String> ();
+		long rowsWritten = -1;
+		try
+		{
+			for ( RecordedEvent event: RecordingFile.readAllEvents ( recordingPath ) )
+			{
+				String name = event.getEventType ().getName ();
+				if ( !name.startsWith ( "org.isatools.graph2tab." ) ) continue;
+				
+				Integer count = eventCounts.get ( name );
+				eventCounts.put ( name, count == null ? 1 : count + 1 );
+				
+				if ( name.endsWith ( ".ExportPhase" ) ) 
+				{
+					String phase = event.getString ( "phase" );
+					phases.add ( phase );
+					if ( !"GRAPH_CAPTURE".equals ( phase ) ) assertEquals ( 
+						"Wrong graph size in the phase event Error!", graph.getSize (), event.getLong ( "graphNodes" ) 
+					);
+				}
+				else if ( name.endsWith ( ".TableFlush" ) )
+					rowsWritten = Math.max ( rowsWritten, event.getLong ( "rowsWritten" ) );
+			}
+		}
+		finally {
+			Files.delete ( recordingPath );
+		}
+		out.println ( "JFR events: " + eventCounts );
+		
+		// The streaming mode decomposes the paths while merging/writing, without a phase of their own
+		for ( ExportPhase phase: ExportPhase.values () )
+			if ( phase != ExportPhase.PATH_DECOMPOSITION ) 
+				assertTrue ( "No event for the phase " + phase + " Error!", phases.contains ( phase.name () ) );
+		assertTrue ( "No layer shift events Error!", eventCounts.containsKey ( "org.isatools.graph2tab.LayerShift" ) );
+		
+		int nrows = tb.getTable ().size () - 1;
+		assertEquals ( "Wrong no. of rows in the flush events Error!", nrows, rowsWritten );
+		assertEquals ( "Wrong no. of flush events Error!", 
+			2 + nrows / TableBuilder.STREAMING_FLUSH_ROWS, (int) eventCounts.get ( "org.isatools.graph2tab.TableFlush" ) 
+		);
+	}
+}
@@ -0,0 +1,229 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.monitoring;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.isatools.tablib.export.graph2tab.CancellationToken;
+import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.isatools.tablib.export.graph2tab.minflow.MinFlowEngine;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraph;
+import org.isatools.tablib.export.graph2tab.synthetic.SyntheticGraphShape;
+import org.junit.Test;
+
+/**
+ * Tests {@link ExportListener#progressed(ExportPhase, long, long)}, the {@link CancellationToken} and 
+ * {@link TableBuilder#buildAsync(java.util.concurrent.Executor)}.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class ProgressTest
+{
+	/**
+	 * Keeps the last progress reported for every phase. 
+	 */
+	private static class ProgressRecorder extends ExportListener
+	{
+		final Map<ExportPhase, long[]> progress = new EnumMap<ExportPhase, long[]> ( ExportPhase.class );
+
+		@Override
+		public synchronized void progressed ( ExportPhase phase, long value, long total )
+		{
+			long[] last = progress.get ( phase );
+			if ( last != null && phase != ExportPhase.FLOW_REDUCTION ) 
+				assertTrue ( "Progress of " + phase + " going backward Error!", value >= last [ 0 ] );
+			assertTrue ( "Progress of " + phase + " beyond its total Error!", value <= total );
+			progress.put ( phase, new long[] { value, total } );
+		}
+	}
+	
+	
+	@Test
+	public void testProgress () throws IOException
+	{
+		out.println ( "_______ PROGRESS __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 6000, 5 );
+		for ( MinFlowEngine engine: MinFlowEngine.values () )
+			for ( boolean isStreaming: new boolean[] { false, true } )
+			{
+				String tag = " (" + engine + ( isStreaming ? ", streaming" : "" ) + ")";
+
+				ProgressRecorder recorder = new ProgressRecorder ();
+				TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+				tb.setMinFlowEngine ( engine );
+				tb.setStreamingExport ( isStreaming );
+				tb.setExportListener ( recorder );
+				tb.setCancellationToken ( new CancellationToken () );
+				String tsv = tb.reportTSV ();
+				int nrows = -1;
+				for ( int i = tsv.indexOf ( '\n' ); i != -1; i = tsv.indexOf ( '\n', i + 1 ) ) nrows++;
+				
+				for ( ExportPhase phase: ExportPhase.values () )
+				{
+					if ( phase == ExportPhase.GRAPH_CAPTURE ) continue;
+					if ( isStreaming && phase == ExportPhase.PATH_DECOMPOSITION ) continue;
+					
+					long[] last = recorder.progress.get ( phase );
+					assertTrue ( "No progress for " + phase + tag + " Error!", last != null );
+					out.println ( phase + tag + ": " + last [ 0 ] + "/" + last [ 1 ] );
+					
+					if ( phase == ExportPhase.FLOW_REDUCTION ) 
+						assertEquals ( "Flow reduction not ending with the rows" + tag + " Error!", 
+							nrows, last [ 0 ] );
+					else
+						assertEquals ( "Progress of " + phase + " not complete" + tag + " Error!", last [ 1 ], last [ 0 ] );
+				}
+			}
+	}
+	
+	
+	@Test
+	public void testCancellation () throws IOException
+	{
+		out.println ( "_______ CANCELLATION __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 6000, 5 );
+		for ( final ExportPhase cancelPhase: ExportPhase.values () )
+		{
+			if ( cancelPhase == ExportPhase.GRAPH_CAPTURE ) continue;
+
+			final CancellationToken token = new CancellationToken ();
+			final ProgressRecorder recorder = new ProgressRecorder () 
+			{
+				@Override
+				public synchronized void progressed ( ExportPhase phase, long value, long total )
+				{
+					assertFalse ( "Export not stopped after " + cancelPhase + " Error!", token.isCancelled () );
+					super.progressed ( phase, value, total );
+					if ( phase == cancelPhase ) token.cancel ();
+				}
+			};
+			
+			TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+			tb.setExportListener ( recorder );
+			tb.setCancellationToken ( token );
+			try {
+				tb.reportTSV ();
+				fail ( "Export not cancelled at " + cancelPhase + " Error!" );
+			}
+			catch ( CancellationException ex ) {
+				out.println ( "Export cancelled at " + cancelPhase + ", as expected" );
+			}
+		}
+	}
+	
+	
+	@Test
+	public void testBuildAsync () throws Exception
+	{
+		out.println ( "_______ BUILD ASYNC __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.DIAMONDS, 3000, 2 );
+		ExecutorService executor = Executors.newSingleThreadExecutor ();
+		try
+		{
+			Future<List<List<String>>> future = new TableBuilder ( graph.getSources (), true ).buildAsync ( executor );
+			assertEquals ( "Async table differs from the sync one Error!", 
+				new TableBuilder ( graph.getSources (), true ).getTable (), future.get ()
+			);
+			
+			// Now stop it in the middle
+			final CountDownLatch layeringLatch = new CountDownLatch ( 1 ), cancelLatch = new CountDownLatch ( 1 );
+			final ProgressRecorder recorder = new ProgressRecorder () 
+			{
+				@Override
+				public synchronized void progressed ( ExportPhase phase, long value, long total )
+				{
+					super.progressed ( phase, value, total );
+					if ( phase != ExportPhase.LAYERING ) return;
+					layeringLatch.countDown ();
+					try {
+						cancelLatch.await ();
+					}
+					catch ( InterruptedException ex ) {
+						throw new IllegalStateException ( "Interrupted while waiting for the cancellation", ex );
+					}
+				}
+			};
+			TableBuilder tb = new TableBuilder ( graph.getSources (), true );
+			tb.setExportListener ( recorder );
+			future = tb.buildAsync ( executor );
+			
+			assertTrue ( "Layering not reached Error!", layeringLatch.await ( 1, TimeUnit.MINUTES ) );
+			assertTrue ( "Future not cancelled Error!", future.cancel ( false ) );
+			assertTrue ( "Token not cancelled Error!", tb.getCancellationToken ().isCancelled () );
+			cancelLatch.countDown ();
+			
+			executor.shutdown ();
+			assertTrue ( "Task not terminated Error!", executor.awaitTermination ( 1, TimeUnit.MINUTES ) );
+			assertFalse ( "Table merged after the cancellation Error!", 
+				recorder.progress.containsKey ( ExportPhase.TABLE_MERGE ) );
+		}
+		finally {
+			executor.shutdownNow ();
+		}
+	}
+}
@@ -55,10 +55,14 @@ import org.isatools.tablib.export.graph2tab.simple_biomodel_tests.model.Protocol
 import org.isatools.tablib.export.graph2tab.simple_biomodel_tests.node_wrappers.SimpleModelTableBuilder;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 
 import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
 
 /**
  * <dl><dt>date</dt><dd>Jun 1, 2010</dd></dl>
@@ -117,4 +121,64 @@ public class SimpleBioModelTest {
 		TableBuilder tb = new SimpleModelTableBuilder(nodes);
 		out.println(tb.report());
 	}
+
+	/**
+	 * Tests that {@link TableBuilder#getHeaders()} and {@link TableBuilder#getRowIterator()} give the same result as
+	 * {@link TableBuilder#getTable()}, including repeated headers in the same node and in the tails. Does the same 
+	 * with {@link TableBuilder#setDictionaryEncoding(boolean) dictionary encoding}.
+	 */
+	@Test
+	public void testStreamedRows() {
+		out.println("_______ TEST SIMPLE MODEL, STREAMED ROWS ________ ");
+
+		BioMaterial src1 = new BioMaterial("source 1");
+		src1.addCharacteristic("Organism", "Mus Musculus", "123", "NCBI");
+		src1.addCharacteristic("Organism", "Rattus Norvegicus", null, null);
+		src1.addCharacteristic("Age", "10 weeks", null, null);
+
+		BioMaterial src2 = new BioMaterial("source 2");
+		src2.addCharacteristic("Age", "20 weeks", "456", "EFO");
+		src2.addCharacteristic("Organism", "Mus Musculus", null, null);
+		src2.addCharacteristic("Organism", "Homo Sapiens", "9606", "NCBI");
+		src2.addCharacteristic("Organism", "Rattus Norvegicus", "10116", "NCBI");
+
+		BioMaterial src3 = new BioMaterial("source 3");
+
+		ProtocolRef proto1 = new ProtocolRef("sampling protocol 1");
+		proto1.addParameter("Sampling Quantity", "10 ml", null, null);
+		proto1.addParameter("Sampling Quantity", "20 ml", "ml", "UO");
+
+		src1.addOutput(proto1);
+		src2.addOutput(proto1);
+
+		BioMaterial sample = new BioMaterial("Sample");
+		sample.addCharacteristic("Material Type", "RNA", "RNA", "MGED-Ontology");
+		sample.addInput(proto1);
+		sample.addInput(src3);
+
+		Data data1 = new Data("file1.txt");
+		data1.addAnnotation("Image Correction Method", "intensity average", "123", "OBI");
+		data1.addInput(sample);
+
+		Data data2 = new Data("file2.txt");
+		data2.addInput(data1);
+
+		Set<ExperimentNode> nodes = new HashSet<ExperimentNode>();
+		nodes.add(sample);
+
+		List<List<String>> expected = new SimpleModelTableBuilder(nodes).getTable();
+
+		TableBuilder tb = new SimpleModelTableBuilder(nodes);
+		List<List<String>> streamed = new ArrayList<List<String>>();
+		streamed.add(tb.getHeaders());
+		for (Iterator<List<String>> rowItr = tb.getRowIterator(); rowItr.hasNext(); )
+			streamed.add(rowItr.next());
+
+		out.println(new SimpleModelTableBuilder(nodes).report());
+		assertEquals("Streamed rows differ from the table!", expected, streamed);
+
+		tb = new SimpleModelTableBuilder(nodes);
+		tb.setDictionaryEncoding(true);
+		assertEquals("Dictionary-encoded table differs from the plain one!", expected, tb.getTable());
+	}
 }
@@ -0,0 +1,199 @@
+/*
+
+The ISAconverter, ISAvalidator & BII Management Tool are components of the ISA software suite (http://www.isa-tools.org)
+
+Exhibit A
+The ISAconverter, ISAvalidator & BII Management Tool are licensed under the Mozilla Public License (MPL) version
+1.1/GPL version 2.0/LGPL version 2.1
+
+"The contents of this file are subject to the Mozilla Public License
+Version 1.1 (the "License"). You may not use this file except in compliance with the License.
+You may obtain copies of the Licenses at http://www.mozilla.org/MPL/MPL-1.1.html.
+
+Software distributed under the License is distributed on an "AS IS"
+basis, WITHOUT WARRANTY OF ANY KIND, either express or implied. See the
+License for the specific language governing rights and limitations
+under the License.
+
+The Original Code is the ISAconverter, ISAvalidator & BII Management Tool.
+
+The Initial Developer of the Original Code is the ISA Team (Eamonn Maguire, eamonnmag@gmail.com;
+Philippe Rocca-Serra, proccaserra@gmail.com; Susanna-Assunta Sansone, sa.sanson@gmail.com;
+http://www.isa-tools.org). All portions of the code written by the ISA Team are Copyright (c)
+2007-2011 ISA Team. All Rights Reserved.
+
+Contributor(s):
+Rocca-Serra P, Brandizi M, Maguire E, Sklyar N, Taylor C, Begley K, Field D,
+Harris S, Hide W, Hofmann O, Neumann S, Sterk P, Tong W, Sansone SA. ISA software suite:
+supporting standards-compliant experimental annotation and enabling curation at the community level.
+Bioinformatics 2010;26(18):2354-6.
+
+Alternatively, the contents of this file may be used under the terms of either the GNU General
+Public License Version 2 or later (the "GPL") - http://www.gnu.org/licenses/gpl-2.0.html, or
+the GNU Lesser General Public License Version 2.1 or later (the "LGPL") -
+http://www.gnu.org/licenses/lgpl-2.1.html, in which case the provisions of the GPL
+or the LGPL are applicable instead of those above. If you wish to allow use of your version
+of this file only under the terms of either the GPL or the LGPL, and not to allow others to
+use your version of this file under the terms of the MPL, indicate your decision by deleting
+the provisions above and replace them with the notice and other provisions required by the
+GPL or the LGPL. If you do not delete the provisions above, a recipient may use your version
+of this file under the terms of any one of the MPL, the GPL or the LGPL.
+
+Sponsors:
+The ISA Team and the ISA software suite have been funded by the EU Carcinogenomics project
+(http://www.carcinogenomics.eu), the UK BBSRC (http://www.bbsrc.ac.uk), the UK NERC-NEBC
+(http://nebc.nerc.ac.uk) and in part by the EU NuGO consortium (http://www.nugo.org/everyone).
+
+*/
+package org.isatools.tablib.export.graph2tab.synthetic;
+
+import static java.lang.System.out;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.isatools.tablib.export.graph2tab.Node;
+import org.isatools.tablib.export.graph2tab.TabValueGroup;
+import org.isatools.tablib.export.graph2tab.TableBuilder;
+import org.junit.Test;
+
+/**
+ * Tests {@link SyntheticGraph}.
+ *
+ * <dl><dt>date</dt><dd>Oct 17, 2026</dd></dl>
+ * @author brandizi
+ *
+ */
+public class SyntheticGraphTest
+{
+	@Test
+	public void testLinks ()
+	{
+		out.println ( "_______ SYNTHETIC GRAPH, LINKS __________ " );
+
+		for ( SyntheticGraphShape shape: SyntheticGraphShape.values () )
+		{
+			SyntheticGraph graph = new SyntheticGraph ( shape, 3 * shape.getDefaultBlockSize () + 1, 7 );
+			assertEquals ( "Wrong graph size for " + shape + " Error!", 3 * graph.getBlockSize (), graph.getSize () );
+			
+			int nsources = 0;
+			for ( Node node: graph.getNodes () )
+			{
+				int id = ( (SyntheticNode) node ).getId (), block = id / graph.getBlockSize ();
+				if ( node.getInputs ().isEmpty () ) nsources++;
+				
+				for ( Node in: node.getInputs () )
+				{
+					int inId = ( (SyntheticNode) in ).getId ();
+					assertTrue ( "Input not before its output in " + shape + " Error!", inId < id );
+					assertEquals ( "Input from another block in " + shape + " Error!", block, inId / graph.getBlockSize () );
+					assertTrue ( "Inputs and outputs don't match in " + shape + " Error!", in.getOutputs ().contains ( node ) );
+				}
+				for ( Node outNode: node.getOutputs () )
+					assertTrue ( "Outputs and inputs don't match in " + shape + " Error!", outNode.getInputs ().contains ( node ) );
+			}
+			
+			assertEquals ( "Wrong sources count for " + shape + " Error!", nsources, graph.getSources ().size () );
+			int nsourcesItr = 0;
+			for ( Node source: graph.getSources () ) 
+			{
+				assertTrue ( "A source with inputs in " + shape + " Error!", source.getInputs ().isEmpty () );
+				nsourcesItr++;
+			}
+			assertEquals ( "Wrong sources iteration for " + shape + " Error!", nsources, nsourcesItr );
+		}
+	}
+	
+	@Test
+	public void testDeterminism ()
+	{
+		out.println ( "_______ SYNTHETIC GRAPH, DETERMINISM __________ " );
+
+		for ( SyntheticGraphShape shape: SyntheticGraphShape.values () )
+		{
+			List<String> dump1 = dump ( new SyntheticGraph ( shape, 1000, 42 ) );
+			List<String> dump2 = dump ( new SyntheticGraph ( shape, 1000, 42 ) );
+			assertEquals ( "Same seed, different graphs for " + shape + " Error!", dump1, dump2 );
+		}
+		
+		List<String> dump1 = dump ( new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 1000, 42 ) );
+		List<String> dump2 = dump ( new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 1000, 43 ) );
+		assertFalse ( "Different seeds, same graphs Error!", dump1.equals ( dump2 ) );
+	}
+	
+	@Test
+	public void testRows ()
+	{
+		out.println ( "_______ SYNTHETIC GRAPH, ROWS __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.FAN_OUT, 100, 1, 10 );
+		graph.setValueGroupsWidth ( 2 );
+		graph.setValueGroupsDepth ( 3 );
+		List<List<String>> table = new TableBuilder ( graph.getSources () ).getTable ();
+		assertEquals ( "Wrong no. of rows for fan-out Error!", 10 * 9, table.size () - 1 );
+		assertEquals ( "Wrong no. of columns for fan-out Error!", 2 * 2 * 3, table.get ( 0 ).size () );
+		assertEquals ( "Wrong nested header Error!", "Term Source REF", table.get ( 0 ).get ( 1 ) );
+		assertEquals ( "Wrong nested header Error!", "Term Accession Number", table.get ( 0 ).get ( 2 ) );
+
+		graph = new SyntheticGraph ( SyntheticGraphShape.FAN_IN, 100, 1, 10 );
+		table = new TableBuilder ( graph.getSources () ).getTable ();
+		assertEquals ( "Wrong no. of rows for fan-in Error!", 10 * 9, table.size () - 1 );
+
+		graph = new SyntheticGraph ( SyntheticGraphShape.DEEP_CHAINS, 1000, 1, 100 );
+		table = new TableBuilder ( graph.getSources () ).getTable ();
+		assertEquals ( "Wrong no. of rows for chains Error!", 10, table.size () - 1 );
+		assertEquals ( "Wrong no. of columns for chains Error!", 100, table.get ( 0 ).size () );
+
+		graph = new SyntheticGraph ( SyntheticGraphShape.DIAMONDS, 100, 1, 31 );
+		assertEquals ( "Wrong diamonds block size Error!", 31, graph.getBlockSize () );
+		table = new TableBuilder ( graph.getSources () ).getTable ();
+		assertEquals ( "Wrong no. of rows for diamonds Error!", 3 * 2, table.size () - 1 );
+	}
+	
+	@Test
+	public void testUnevenLayering ()
+	{
+		out.println ( "_______ SYNTHETIC GRAPH, UNEVEN LAYERING __________ " );
+
+		SyntheticGraph graph = new SyntheticGraph ( SyntheticGraphShape.UNEVEN, 1200, 5 );
+		List<List<String>> table = new TableBuilder ( graph.getSources (), true ).getTable ();
+		List<String> headers = table.get ( 0 );
+		
+		assertEquals ( "Wrong first header Error!", "Source Name", headers.get ( 0 ) );
+		assertTrue ( "No protocols in the uneven graph Error!", headers.contains ( "Protocol REF" ) );
+
+		// Names must go under the header of their type, empty cells are the missed steps
+		int nempty = 0;
+		for ( List<String> row: table.subList ( 1, table.size () ) )
+			for ( int i = 0; i < row.size (); i++ )
+			{
+				String value = row.get ( i );
+				if ( value == null || value.isEmpty () ) { nempty++; continue; }
+				if ( !value.startsWith ( "node " ) ) continue;
+				Node node = graph.getNode ( Integer.parseInt ( value.substring ( "node ".length () ) ) );
+				assertEquals ( "Node in the wrong column Error!", node.getType () + " Name", headers.get ( i ) );
+			}
+		assertTrue ( "No missed steps in the uneven graph Error!", nempty > 0 );
+	}
+	
+	private static List<String> dump ( SyntheticGraph graph )
+	{
+		List<String> result = new ArrayList<String> ();
+		for ( Node node: graph.getNodes () )
+		{
+			StringBuilder sb = new StringBuilder ( node.getType () + node.getOrder () + node.getInputs () + node.getOutputs () );
+			for ( TabValueGroup tbg: node.getTabValues () ) dump ( tbg, sb );
+			result.add ( sb.toString () );
+		}
+		return result;
+	}
+
+	private static void dump ( TabValueGroup tbg, StringBuilder sb )
+	{
+		sb.append ( " " ).append ( tbg.getHeader () ).append ( ": " ).append ( tbg.getValue () );
+		for ( TabValueGroup tail: tbg.getTail () ) dump ( tail, sb );
+	}
+}